@@ -1,12 +1,23 @@
 package main.java.edu.ntnu.iir.bidata;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.persistence.RegisterLog;
+import main.java.edu.ntnu.iir.bidata.persistence.SegmentStore;
 import main.java.edu.ntnu.iir.bidata.ui.ConsoleUI;
 
 /**
  * Entry point of the program.
  *
- * <p>This class contains the {@code main} method which initializes the console user interface,
- * and starts the program.
+ * <p>This class contains the {@code main} method which restores the registers from the
+ * {@link RegisterLog}, initializes the console user interface, and starts the program.
+ * </p>
+ *
+ * <p>Started with {@code --mapped-content}, the content of every diary entry is kept in a
+ * memory-mapped {@link SegmentStore} instead of on the heap, which is compacted in the
+ * background.
  * </p>
  *
  * @author Kevin Holswilder
@@ -15,16 +26,33 @@ import main.java.edu.ntnu.iir.bidata.ui.ConsoleUI;
 
 public class Main {
 
+  private static final Path DATA_DIRECTORY = Path.of("cooking-diary-data");
+  private static final String MAPPED_CONTENT_ARGUMENT = "--mapped-content";
+
   /**
    * Launches the program.
    *
    * @param args command line arguments.
+   * @throws IOException if the data directory cannot be read or written.
    */
   @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
-  public static void main(String[] args) {
-    ConsoleUI consoleUI = new ConsoleUI();
-    consoleUI.init();
-    consoleUI.start();
+  public static void main(String[] args) throws IOException {
+    SegmentStore contentStore = null;
+    if (Arrays.asList(args).contains(MAPPED_CONTENT_ARGUMENT)) {
+      contentStore = new SegmentStore(DATA_DIRECTORY.resolve("content"));
+      DiaryEntry.setContentStore(contentStore);
+    }
+    RegisterLog.getInstance().open(DATA_DIRECTORY);
+    try {
+      ConsoleUI consoleUI = new ConsoleUI();
+      consoleUI.init();
+      consoleUI.start();
+    } finally {
+      RegisterLog.getInstance().close();
+      if (contentStore != null) {
+        contentStore.close();
+      }
+    }
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package main.java.edu.ntnu.iir.bidata.enumerations;
+
+import java.nio.file.Path;
+
+/**
+ * This class contains the file formats recipes can be transferred in.
+ *
+ * <p>Every format has a fixed file extension, by which the format of a file is detected.
+ * A file in any format may be gzip-compressed, in which case its name ends with
+ * {@link #GZIP_EXTENSION} after the extension of the format, e.g. "recipes.jsonl.gz".
+ * Plain text is meant to be read by people, so it can be exported but not imported.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public enum FileFormat {
+  TEXT(".txt"),
+  JSON_LINES(".jsonl"),
+  CSV(".csv");
+
+  /**
+   * The extension of a gzip-compressed file, following the extension of its format.
+   */
+  public static final String GZIP_EXTENSION = ".gz";
+
+  private final String extension;
+
+  /**
+   * Creates a file format with the given file extension.
+   *
+   * @param extension the file extension, including the dot.
+   */
+  FileFormat(String extension) {
+    this.extension = extension;
+  }
+
+  /**
+   * Returns the file extension of the format.
+   *
+   * @return the file extension, including the dot.
+   */
+  public String getExtension() {
+    return this.extension;
+  }
+
+  /**
+   * Checks whether the format can be imported, which every format but plain text can.
+   *
+   * @return true if files in the format can be imported.
+   */
+  public boolean isImportable() {
+    return this != TEXT;
+  }
+
+  /**
+   * Returns null if the extension of the file does not match any format.
+   * A trailing {@link #GZIP_EXTENSION} is ignored.
+   *
+   * @param path the path of the file.
+   * @return the {@link FileFormat} of the file if known, null otherwise.
+   */
+  public static FileFormat tryDetect(Path path) {
+    String fileName = path.getFileName().toString().toLowerCase();
+    if (isCompressed(path)) {
+      fileName = fileName.substring(0, fileName.length() - GZIP_EXTENSION.length());
+    }
+    for (FileFormat format : values()) {
+      if (fileName.endsWith(format.extension)) {
+        return format;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether a file is gzip-compressed, by whether its name ends with
+   * {@link #GZIP_EXTENSION}.
+   *
+   * @param path the path of the file.
+   * @return true if the file is gzip-compressed.
+   */
+  public static boolean isCompressed(Path path) {
+    return path.getFileName().toString().toLowerCase().endsWith(GZIP_EXTENSION);
+  }
+
+}
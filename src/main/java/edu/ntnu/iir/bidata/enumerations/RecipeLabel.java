@@ -1,12 +1,21 @@
 package main.java.edu.ntnu.iir.bidata.enumerations;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
 import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
 
 /**
  * This class contains all the possible labels for the labels of a {@link DiaryEntry}.
  *
+ * <p>A set of labels can be packed into a bitmask of their ordinals. Every possible set is
+ * created once, so unpacking a bitmask with {@link #setOf(int)} never allocates.
+ * </p>
+ *
  * @author Kevin Holswilder
  * @since 2025/11/25
  */
@@ -21,6 +30,8 @@ public enum RecipeLabel {
   EGGFREE,
   SOYFREE;
 
+  private static final List<Set<RecipeLabel>> SETS_BY_MASK = createSetsByMask();
+
   /**
    * Returns null if the input is not a valid label.
    *
@@ -55,4 +66,58 @@ public enum RecipeLabel {
     return UtilityManager.capitalize(this.name().toLowerCase());
   }
 
+  /**
+   * Returns the bit of the label in a bitmask of label ordinals.
+   *
+   * @return the bit of the label.
+   */
+  public int bit() {
+    return 1 << this.ordinal();
+  }
+
+  /**
+   * Packs a collection of labels into a bitmask of their ordinals.
+   *
+   * @param labels the labels to pack.
+   * @return the bitmask of the labels.
+   */
+  public static int maskOf(Collection<RecipeLabel> labels) {
+    int mask = 0;
+    for (RecipeLabel label : labels) {
+      mask |= label.bit();
+    }
+    return mask;
+  }
+
+  /**
+   * Returns the read-only set of the labels in a bitmask. The set is shared with every other
+   * caller asking for the same bitmask.
+   *
+   * @param mask the bitmask of label ordinals.
+   * @return a shared, read-only set of the labels.
+   */
+  public static Set<RecipeLabel> setOf(int mask) {
+    return SETS_BY_MASK.get(mask);
+  }
+
+  /**
+   * Creates the read-only set of every possible bitmask.
+   *
+   * @return the sets, indexed by their bitmask.
+   */
+  private static List<Set<RecipeLabel>> createSetsByMask() {
+    RecipeLabel[] labels = values();
+    List<Set<RecipeLabel>> sets = new ArrayList<>(1 << labels.length);
+    for (int mask = 0; mask < 1 << labels.length; mask++) {
+      EnumSet<RecipeLabel> set = EnumSet.noneOf(RecipeLabel.class);
+      for (RecipeLabel label : labels) {
+        if ((mask & label.bit()) != 0) {
+          set.add(label);
+        }
+      }
+      sets.add(Collections.unmodifiableSet(set));
+    }
+    return List.copyOf(sets);
+  }
+
 }
@@ -91,6 +91,7 @@ public class FlowHandler {
    *     <li>Run the search flow of the program.</li>
    *     <li>List all {@link DiaryEntry} objects in the register.</li>
    *     <li>List all {@link Author} objects with the {@link DiaryEntry} count they've written.</li>
+   *     <li>Import {@link DiaryEntry} objects from a file.</li>
    *     <li>Log out and return to the main flow of the program.</li>
    * </ul>
    *
@@ -113,8 +114,9 @@ public class FlowHandler {
         case InteractionKeys.DELETE_DIARY -> diaryDeleteUI.deleteDiary(input);
         case InteractionKeys.RUN_EDIT_FLOW -> editDiaryFlow(input);
         case InteractionKeys.RUN_SEARCH_FLOW -> searchDiaryFlow(input);
-        case InteractionKeys.EXPORT_DIARIES -> diaryExportUI.exportDiaries();
+        case InteractionKeys.EXPORT_DIARIES -> diaryExportUI.exportDiaries(input);
         case InteractionKeys.EXPORT_AUTHOR_STATISTICS -> diaryExportUI.exportAuthorStatistics();
+        case InteractionKeys.IMPORT_DIARIES -> diaryCreateUI.importDiaries(input);
         case InteractionKeys.LOGOUT -> userUI.logout();
         default -> System.out.println("Invalid option, please try again.");
       }
@@ -167,6 +169,9 @@ public class FlowHandler {
    *     <li>List all {@link DiaryEntry} where the {@link Author} matches the username.</li>
    *     <li>List all {@link DiaryEntry} where the content contains the query.</li>
    *     <li>List all {@link DiaryEntry} whose labels contain the query.</li>
+   *     <li>List all {@link DiaryEntry} whose title or content contain every keyword.</li>
+   *     <li>List all {@link DiaryEntry} matching several of the criteria above at once.</li>
+   *     <li>List the {@link DiaryEntry} most relevant to a prompt, the most relevant first.</li>
    *     <li>Return to the main flow of the program.</li>
    * </ul>
    *
@@ -191,6 +196,9 @@ public class FlowHandler {
         case InteractionKeys.SEARCH_AUTHOR -> diarySearchUI.searchDiaryByAuthor(input);
         case InteractionKeys.SEARCH_PROMPT -> diarySearchUI.searchDiaryByPrompt(input);
         case InteractionKeys.SEARCH_LABEL -> diarySearchUI.searchDiaryByLabel(input);
+        case InteractionKeys.SEARCH_KEYWORDS -> diarySearchUI.searchDiaryByKeywords(input);
+        case InteractionKeys.SEARCH_COMBINED -> diarySearchUI.searchDiaryByCombinedCriteria(input);
+        case InteractionKeys.SEARCH_RELEVANCE -> diarySearchUI.searchDiaryByRelevance(input);
         case InteractionKeys.SEARCH_RETURN -> System.out.println("Returning to diary menu...");
         default -> System.out.println("Invalid option, please try again.");
       }
@@ -40,6 +40,7 @@ public class MenuDisplay {
     System.out.println(InteractionKeys.RUN_SEARCH_FLOW + ". Search through cooking diary entries.");
     System.out.println(InteractionKeys.EXPORT_DIARIES + ". Export all diaries sorted by date.");
     System.out.println(InteractionKeys.EXPORT_AUTHOR_STATISTICS + ". Show author statistics.");
+    System.out.println(InteractionKeys.IMPORT_DIARIES + ". Import recipes from a file.");
     System.out.println(InteractionKeys.LOGOUT + ". Log out.");
   }
 
@@ -66,6 +67,9 @@ public class MenuDisplay {
     System.out.println(InteractionKeys.SEARCH_AUTHOR + ". Search recipe(s) by author.");
     System.out.println(InteractionKeys.SEARCH_PROMPT + ". Search recipe(s) by prompt.");
     System.out.println(InteractionKeys.SEARCH_LABEL + ". Search recipe(s) by label.");
+    System.out.println(InteractionKeys.SEARCH_KEYWORDS + ". Search recipe(s) by keywords.");
+    System.out.println(InteractionKeys.SEARCH_COMBINED + ". Search recipe(s) by several criteria.");
+    System.out.println(InteractionKeys.SEARCH_RELEVANCE + ". Search most relevant recipe(s).");
     System.out.println(InteractionKeys.SEARCH_RETURN + ". Return back to diary menu.");
   }
 
@@ -0,0 +1,271 @@
+package main.java.edu.ntnu.iir.bidata.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents the content of a {@link DiaryEntry} as an immutable sequence of lines.
+ *
+ * <p>The content is split into lines the way {@link String#split(String)} splits it on
+ * {@code "\n"}, so trailing empty lines are dropped. Instead of copying the lines, only the
+ * offset at which every line starts is kept, and a line is cut out of the content when it is
+ * read.
+ * </p>
+ *
+ * <p>Replacing a line never changes the number of lines, so the replaced lines are kept in a
+ * balanced tree over the line numbers. A replacement copies the path to its line and shares
+ * everything else with the lines it was made from, so it takes O(log lines) time and space
+ * however long the content is. Until a line is replaced, the content is given back as it was.
+ * After that, the joined lines are only built when they are asked for, and are then kept until
+ * the lines are replaced again.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ *     ContentLines contentLines = ContentLines.of("1x Pasta\n1x Sauce");
+ *     contentLines = contentLines.replaceLine(1, "1x Bechamel");
+ *     System.out.println(contentLines); // 1x Pasta\n1x Bechamel
+ * </pre>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public final class ContentLines {
+
+  private final String source;
+
+  /**
+   * The offset at which every line of the source starts, followed by the offset one past the
+   * line break of the last line.
+   */
+  private final int[] lineStarts;
+  private final int lineCount;
+
+  /**
+   * The length of the lines joined by line breaks.
+   */
+  private final int length;
+
+  /**
+   * The replaced lines, or null if no line is replaced.
+   */
+  private final Node root;
+  private String joined;
+
+  /**
+   * Creates the lines of a source, with the given replaced lines.
+   *
+   * @param source     the content the lines were split from.
+   * @param lineStarts the offsets at which the lines of the source start.
+   * @param lineCount  the number of lines.
+   * @param length     the length of the joined lines.
+   * @param root       the replaced lines, or null if no line is replaced.
+   */
+  private ContentLines(String source, int[] lineStarts, int lineCount, int length, Node root) {
+    this.source = source;
+    this.lineStarts = lineStarts;
+    this.lineCount = lineCount;
+    this.length = length;
+    this.root = root;
+  }
+
+  /**
+   * Splits the given content into lines, by indexing where every line starts.
+   *
+   * @param content the content to split.
+   * @return the {@link ContentLines} of the content.
+   */
+  public static ContentLines of(String content) {
+    int lineBreaks = 0;
+    for (int i = content.indexOf('\n'); i >= 0; i = content.indexOf('\n', i + 1)) {
+      lineBreaks++;
+    }
+    int[] lineStarts = new int[lineBreaks + 2];
+    int line = 1;
+    for (int i = content.indexOf('\n'); i >= 0; i = content.indexOf('\n', i + 1)) {
+      lineStarts[line++] = i + 1;
+    }
+    lineStarts[line] = content.length() + 1;
+
+    // Like String.split, drop trailing empty lines, unless there is no line break at all.
+    int lineCount = line;
+    while (lineBreaks > 0 && lineCount > 0
+        && lineStarts[lineCount] - 1 == lineStarts[lineCount - 1]) {
+      lineCount--;
+    }
+    int length = lineCount == 0 ? 0 : lineStarts[lineCount] - 1;
+    return new ContentLines(content, lineStarts, lineCount, length, null);
+  }
+
+  /**
+   * Returns the number of lines.
+   *
+   * @return the number of lines.
+   */
+  public int getLineCount() {
+    return this.lineCount;
+  }
+
+  /**
+   * Returns the length of the content, which is the length of {@link #toString()}.
+   *
+   * @return the number of characters of the content.
+   */
+  public int length() {
+    return this.root == null ? this.source.length() : this.length;
+  }
+
+  /**
+   * Returns the line at the given index.
+   *
+   * @param index the index of the line, starting at 0.
+   * @return the line, without its line break.
+   * @throws IndexOutOfBoundsException if there is no line at the index.
+   */
+  public String getLine(int index) {
+    Objects.checkIndex(index, this.lineCount);
+    Node node = this.root;
+    int low = 0;
+    int high = this.lineCount;
+    while (node != null) {
+      if (high - low == 1) {
+        return node.line;
+      }
+      int middle = (low + high) >>> 1;
+      if (index < middle) {
+        node = node.left;
+        high = middle;
+      } else {
+        node = node.right;
+        low = middle;
+      }
+    }
+    return this.source.substring(this.lineStarts[index], this.lineStarts[index + 1] - 1);
+  }
+
+  /**
+   * Returns the lines in the given range.
+   *
+   * @param fromIndex the index of the first line, inclusive.
+   * @param toIndex   the index of the last line, exclusive.
+   * @return an unmodifiable list of the lines.
+   * @throws IndexOutOfBoundsException if the range is out of bounds.
+   */
+  public List<String> getLines(int fromIndex, int toIndex) {
+    Objects.checkFromToIndex(fromIndex, toIndex, this.lineCount);
+    List<String> lines = new ArrayList<>(toIndex - fromIndex);
+    for (int i = fromIndex; i < toIndex; i++) {
+      lines.add(this.getLine(i));
+    }
+    return List.copyOf(lines);
+  }
+
+  /**
+   * Returns new lines where the line at the given index is replaced.
+   * These lines are left unchanged.
+   *
+   * @param index the index of the line, starting at 0.
+   * @param line  the new line.
+   * @return the {@link ContentLines} with the line replaced.
+   * @throws IndexOutOfBoundsException if there is no line at the index.
+   * @throws IllegalArgumentException  if the new line contains a line break.
+   */
+  public ContentLines replaceLine(int index, String line) {
+    Objects.checkIndex(index, this.lineCount);
+    if (line.indexOf('\n') >= 0) {
+      throw new IllegalArgumentException("A line cannot contain a line break.");
+    }
+    int length = this.length - this.getLine(index).length() + line.length();
+    return new ContentLines(this.source, this.lineStarts, this.lineCount, length,
+        replace(this.root, 0, this.lineCount, index, line));
+  }
+
+  /**
+   * Returns the content, which is the lines joined by line breaks once a line is replaced.
+   *
+   * @return the content.
+   */
+  @Override
+  public String toString() {
+    if (this.root == null) {
+      return this.source;
+    }
+    String joined = this.joined;
+    if (joined == null) {
+      StringBuilder stringBuilder = new StringBuilder(this.length);
+      this.append(stringBuilder, this.root, 0, this.lineCount);
+      joined = stringBuilder.toString();
+      // Strings are immutable, so a racing thread at worst joins the lines a second time.
+      this.joined = joined;
+    }
+    return joined;
+  }
+
+  /**
+   * Appends the lines in the given range, each but the first line preceded by a line break.
+   *
+   * @param stringBuilder the builder to append to.
+   * @param node          the replaced lines in the range, or null if none are replaced.
+   * @param low           the index of the first line of the range, inclusive.
+   * @param high          the index of the last line of the range, exclusive.
+   */
+  private void append(StringBuilder stringBuilder, Node node, int low, int high) {
+    if (low >= high) {
+      return;
+    }
+    if (node == null || high - low == 1) {
+      if (low > 0) {
+        stringBuilder.append('\n');
+      }
+      if (node == null) {
+        // The lines of the source are still joined by their line breaks, so append them at once.
+        stringBuilder.append(this.source, this.lineStarts[low], this.lineStarts[high] - 1);
+      } else {
+        stringBuilder.append(node.line);
+      }
+      return;
+    }
+    int middle = (low + high) >>> 1;
+    this.append(stringBuilder, node.left, low, middle);
+    this.append(stringBuilder, node.right, middle, high);
+  }
+
+  /**
+   * Copies the path to the line at the given index, and replaces that line.
+   *
+   * @param node  the replaced lines in the range, or null if none are replaced.
+   * @param low   the index of the first line of the range, inclusive.
+   * @param high  the index of the last line of the range, exclusive.
+   * @param index the index of the line to replace.
+   * @param line  the new line.
+   * @return the replaced lines in the range, including the new line.
+   */
+  private static Node replace(Node node, int low, int high, int index, String line) {
+    if (high - low == 1) {
+      return new Node(null, null, line);
+    }
+    int middle = (low + high) >>> 1;
+    Node left = node == null ? null : node.left;
+    Node right = node == null ? null : node.right;
+    if (index < middle) {
+      left = replace(left, low, middle, index, line);
+    } else {
+      right = replace(right, middle, high, index, line);
+    }
+    return new Node(left, right, null);
+  }
+
+  /**
+   * A node of the tree of replaced lines, which is either a replaced line,
+   * or covers two halves of a range of lines.
+   *
+   * @param left  the replaced lines in the first half, or null if none are replaced.
+   * @param right the replaced lines in the second half, or null if none are replaced.
+   * @param line  the replaced line, if the node covers a single line.
+   */
+  private record Node(Node left, Node right, String line) {
+  }
+
+}
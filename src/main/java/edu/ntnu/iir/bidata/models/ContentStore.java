@@ -0,0 +1,42 @@
+package main.java.edu.ntnu.iir.bidata.models;
+
+/**
+ * Represents a store that keeps the content of {@link DiaryEntry} objects outside the heap.
+ *
+ * <p>Storing content returns a handle, which is all a {@link DiaryEntry} keeps of it.
+ * The content is decoded again every time it is loaded. Stored content is never changed,
+ * so a handle may be loaded from any thread once it has been returned. Once no version refers
+ * to a handle anymore it is released, after which the store may reclaim its space.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @see DiaryEntry#setContentStore(ContentStore)
+ * @since 2026/10/17
+ */
+
+public interface ContentStore {
+
+  /**
+   * Stores the given content.
+   *
+   * @param content the content to store.
+   * @return the handle of the stored content.
+   */
+  long store(String content);
+
+  /**
+   * Loads the content stored under the given handle.
+   *
+   * @param handle the handle returned by {@link #store(String)}.
+   * @return the stored content.
+   */
+  String load(long handle);
+
+  /**
+   * Releases the content stored under the given handle. The handle is not loaded again.
+   *
+   * @param handle the handle returned by {@link #store(String)}.
+   */
+  void release(long handle);
+
+}
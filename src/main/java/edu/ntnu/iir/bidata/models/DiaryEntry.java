@@ -3,7 +3,7 @@ package main.java.edu.ntnu.iir.bidata.models;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
-import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
 import main.java.edu.ntnu.iir.bidata.service.UserService;
@@ -14,6 +14,23 @@ import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
  * Additionally, this class provides both getter
  * and helper methods to access the diary entry's attributes.
  *
+ * <p>The content and labels are kept in immutable {@link DiaryEntryVersion}s. An edit installs
+ * a new version instead of changing the current one, so readers on other threads never see a
+ * half-applied edit, and {@link #atSequence(long)} can still read the entry as it was at an
+ * earlier point in time. Older versions are dropped once no reader pinned through the
+ * {@link VersionClock} can need them.
+ * </p>
+ *
+ * <p>To keep the footprint of an entry small, its date is kept as an epoch day and its labels
+ * as a bitmask, unpacked into a shared read-only set by {@link RecipeLabel#setOf(int)}.
+ * Read-only views are a subclass, so entries do not carry a flag for them.
+ * </p>
+ *
+ * <p>Once a {@link ContentStore} is set with {@link #setContentStore(ContentStore)}, the content
+ * of every new version is kept in that store instead of on the heap, and is decoded again
+ * whenever it is read.
+ * </p>
+ *
  * <p><b>Example usage:</b></p>
  * <pre>
  *     DiaryEntry diaryEntry = new DiaryEntry("Soup", "An easy meal", UserService.getCurrentUser());
@@ -27,12 +44,13 @@ import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
 
 public class DiaryEntry {
 
+  private static volatile ContentStore contentStore;
+
   private final String title;
-  private String content;
   private final Author author;
-  private final LocalDate date;
+  private final int epochDay;
   private final UUID diaryEntryId;
-  private final HashSet<RecipeLabel> recipeLabels;
+  private volatile DiaryEntryVersion currentVersion;
 
   /**
    * Creates a new {@link DiaryEntry} object with the given parameters.
@@ -43,12 +61,52 @@ public class DiaryEntry {
    * @param author  Sets the author of a diary entry.
    */
   public DiaryEntry(String title, String content, Author author) {
+    this(UUID.randomUUID(), title, content, author, LocalDate.now());
+  }
+
+  /**
+   * Creates a {@link DiaryEntry} object with a known id and date,
+   * used when an existing diary entry is restored.
+   *
+   * @param diaryEntryId Sets the id of a diary entry.
+   * @param title        Sets the title of a diary entry.
+   * @param content      Sets the content of a diary entry.
+   * @param author       Sets the author of a diary entry.
+   * @param date         Sets the date of a diary entry.
+   */
+  public DiaryEntry(UUID diaryEntryId, String title, String content, Author author,
+                    LocalDate date) {
     this.title = title;
-    this.content = content;
     this.author = author;
-    this.date = LocalDate.now();
-    this.diaryEntryId = UUID.randomUUID();
-    this.recipeLabels = new HashSet<>();
+    this.epochDay = Math.toIntExact(date.toEpochDay());
+    this.diaryEntryId = diaryEntryId;
+    // No snapshot sees an entry before it is registered, which happens at a later sequence
+    // number, so the first version does not draw one, nor hold back the visible sequence.
+    this.currentVersion = new DiaryEntryVersion(0, content, contentStore, 0, null);
+  }
+
+  /**
+   * Creates a read-only view of a {@link DiaryEntry} fixed at one of its versions.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to view.
+   * @param version    the version to fix the view at.
+   */
+  private DiaryEntry(DiaryEntry diaryEntry, DiaryEntryVersion version) {
+    this.title = diaryEntry.title;
+    this.author = diaryEntry.author;
+    this.epochDay = diaryEntry.epochDay;
+    this.diaryEntryId = diaryEntry.diaryEntryId;
+    this.currentVersion = version;
+  }
+
+  /**
+   * Sets the store that keeps the content of every {@link DiaryEntry} version created from now
+   * on. Versions created before keep their content where it is.
+   *
+   * @param store the {@link ContentStore} to use, or null to keep content on the heap.
+   */
+  public static void setContentStore(ContentStore store) {
+    contentStore = store;
   }
 
   /**
@@ -75,19 +133,35 @@ public class DiaryEntry {
    * @return the content of a diary entry.
    */
   public String getContent() {
-    return this.content;
+    return this.currentVersion.getContent();
+  }
+
+  /**
+   * Getter method for the lines of the content of a {@link DiaryEntry},
+   * to read a line or a range of lines without copying the whole content.
+   *
+   * @return the immutable {@link ContentLines} of the content of a diary entry.
+   */
+  public ContentLines getContentLines() {
+    return this.currentVersion.getContentLines();
   }
 
   /**
    * Replaces the line of a diary entry's content with new content.
    *
+   * <p>The new version shares every other line with the current one. Like before, trailing
+   * empty lines are dropped from the content once one of its lines is replaced.
+   * </p>
+   *
    * @param lineNumber the line number of the content to be replaced.
    * @param newContent the new content to replace the old content.
+   * @throws IndexOutOfBoundsException if the content has no line with the line number.
+   * @throws IllegalArgumentException  if the new content contains a line break.
    */
-  public void setContentLine(int lineNumber, String newContent) {
-    String[] contentLines = this.content.split("\n");
-    contentLines[lineNumber - 1] = newContent;
-    this.content = String.join("\n", contentLines);
+  public synchronized void setContentLine(int lineNumber, String newContent) {
+    DiaryEntryVersion version = this.currentVersion;
+    this.installVersion(version.getContentLines().replaceLine(lineNumber - 1, newContent),
+        version.getRecipeLabels());
   }
 
   /**
@@ -96,7 +170,17 @@ public class DiaryEntry {
    * @return the date of a diary entry.
    */
   public LocalDate getDate() {
-    return this.date;
+    return LocalDate.ofEpochDay(this.epochDay);
+  }
+
+  /**
+   * Getter method for the creation date of a {@link DiaryEntry} as an epoch day,
+   * without creating a {@link LocalDate}.
+   *
+   * @return the date of a diary entry as the number of days since 1970-01-01.
+   */
+  public long getEpochDay() {
+    return this.epochDay;
   }
 
   /**
@@ -111,10 +195,20 @@ public class DiaryEntry {
   /**
    * Getter method for the recipe labels of a {@link DiaryEntry}.
    *
-   * @return the labels of a diary entry.
+   * @return a read-only set of the labels of a diary entry.
    */
-  public HashSet<RecipeLabel> getRecipeLabels() {
-    return this.recipeLabels;
+  public Set<RecipeLabel> getRecipeLabels() {
+    return RecipeLabel.setOf(this.currentVersion.getRecipeLabels());
+  }
+
+  /**
+   * Checks whether a {@link DiaryEntry} carries the given {@link RecipeLabel}.
+   *
+   * @param recipeLabel the label to check.
+   * @return true if the diary entry carries the label.
+   */
+  public boolean hasRecipeLabel(RecipeLabel recipeLabel) {
+    return (this.currentVersion.getRecipeLabels() & recipeLabel.bit()) != 0;
   }
 
   /**
@@ -122,8 +216,8 @@ public class DiaryEntry {
    *
    * @param recipeLabel to add in the recipe labels.
    */
-  public void addRecipeLabel(RecipeLabel recipeLabel) {
-    this.recipeLabels.add(recipeLabel);
+  public synchronized void addRecipeLabel(RecipeLabel recipeLabel) {
+    this.installRecipeLabels(this.currentVersion.getRecipeLabels() | recipeLabel.bit());
   }
 
   /**
@@ -131,20 +225,79 @@ public class DiaryEntry {
    *
    * @param recipeLabel to remove from the recipe labels.
    */
-  public void removeRecipeLabel(RecipeLabel recipeLabel) {
-    this.recipeLabels.remove(recipeLabel);
+  public synchronized void removeRecipeLabel(RecipeLabel recipeLabel) {
+    this.installRecipeLabels(this.currentVersion.getRecipeLabels() & ~recipeLabel.bit());
+  }
+
+  /**
+   * Returns a read-only view of the {@link DiaryEntry} as it was at the given sequence number.
+   *
+   * @param sequence a sequence number pinned through {@link VersionClock#pin()}.
+   * @return a read-only {@link DiaryEntry} whose content and labels are fixed at the sequence.
+   */
+  public DiaryEntry atSequence(long sequence) {
+    return new ReadOnlyView(this, this.currentVersion.at(sequence));
+  }
+
+  /**
+   * Returns the number of versions of the {@link DiaryEntry} that are still retained,
+   * as older versions are kept for as long as a reader may need them.
+   *
+   * @return the number of retained versions, at least 1.
+   */
+  public int getRetainedVersionCount() {
+    return this.currentVersion.countVersions();
+  }
+
+  /**
+   * Installs a new version with the given content and labels,
+   * and drops the versions no reader can need anymore.
+   *
+   * <p><i>Callers must hold the monitor of the entry.</i></p>
+   *
+   * @param contentLines the lines of the content of the new version.
+   * @param recipeLabels the bitmask of the labels of the new version.
+   */
+  private void installVersion(ContentLines contentLines, int recipeLabels) {
+    long sequence = VersionClock.begin();
+    try {
+      this.currentVersion = new DiaryEntryVersion(sequence, contentLines, contentStore,
+          recipeLabels, this.currentVersion);
+    } finally {
+      VersionClock.commit(sequence);
+    }
+    this.currentVersion.prune(VersionClock.oldestNeeded());
+  }
+
+  /**
+   * Installs a new version with the given labels that shares the current content,
+   * and drops the versions no reader can need anymore.
+   *
+   * <p><i>Callers must hold the monitor of the entry.</i></p>
+   *
+   * @param recipeLabels the bitmask of the labels of the new version.
+   */
+  private void installRecipeLabels(int recipeLabels) {
+    long sequence = VersionClock.begin();
+    try {
+      this.currentVersion = this.currentVersion.withRecipeLabels(sequence, recipeLabels);
+    } finally {
+      VersionClock.commit(sequence);
+    }
+    this.currentVersion.prune(VersionClock.oldestNeeded());
   }
 
   /**
    * Formats the recipe labels into a string.
    *
+   * @param labels the recipe labels to format.
    * @return a formatted string of the recipe labels.
    */
-  private String getFormattedLabels() {
-    if (this.recipeLabels.isEmpty()) {
+  private static String getFormattedLabels(Set<RecipeLabel> labels) {
+    if (labels.isEmpty()) {
       return "None";
     } else {
-      return String.join(", ", this.recipeLabels.stream()
+      return String.join(", ", labels.stream()
           .map(label -> UtilityManager.capitalize(label.toString().toLowerCase())).toList());
     }
   }
@@ -156,15 +309,49 @@ public class DiaryEntry {
    */
   @Override
   public String toString() {
+    DiaryEntryVersion version = this.currentVersion;
     return UtilityManager.capitalize(this.title)
         + "\n------------------------"
-        + "\n" + this.content.trim()
+        + "\n" + version.getContent().trim()
         + "\n "
-        + "\nLabels: " + this.getFormattedLabels()
+        + "\nLabels: " + getFormattedLabels(RecipeLabel.setOf(version.getRecipeLabels()))
         + "\n "
-        + "\nDate: " + DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG).format(this.date)
+        + "\nDate: " + DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG).format(this.getDate())
         + "\nAuthor: " + this.author.toString()
         + "\n------------------------\n";
   }
 
+  /**
+   * A read-only view of a {@link DiaryEntry} fixed at one of its versions,
+   * which rejects every edit.
+   */
+  private static final class ReadOnlyView extends DiaryEntry {
+
+    /**
+     * Creates a read-only view of a {@link DiaryEntry}.
+     *
+     * @param diaryEntry the {@link DiaryEntry} to view.
+     * @param version    the version to fix the view at.
+     */
+    ReadOnlyView(DiaryEntry diaryEntry, DiaryEntryVersion version) {
+      super(diaryEntry, version);
+    }
+
+    @Override
+    public void setContentLine(int lineNumber, String newContent) {
+      throw new UnsupportedOperationException("A diary entry view cannot be edited.");
+    }
+
+    @Override
+    public void addRecipeLabel(RecipeLabel recipeLabel) {
+      throw new UnsupportedOperationException("A diary entry view cannot be edited.");
+    }
+
+    @Override
+    public void removeRecipeLabel(RecipeLabel recipeLabel) {
+      throw new UnsupportedOperationException("A diary entry view cannot be edited.");
+    }
+
+  }
+
 }
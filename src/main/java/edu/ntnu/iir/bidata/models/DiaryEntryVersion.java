@@ -0,0 +1,235 @@
+package main.java.edu.ntnu.iir.bidata.models;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+
+/**
+ * Represents one immutable version of the content and labels of a {@link DiaryEntry}.
+ *
+ * <p>Versions form a chain from newest to oldest. The link to the previous version is the only
+ * part that changes, as it is cut once no reader can need the older versions anymore.
+ * </p>
+ *
+ * <p>The content is either kept as a string, as {@link ContentLines} once a line of it has been
+ * replaced, or as a handle into a {@link ContentStore} that is decoded on every read. A version
+ * that only changes the labels shares the content of the version it replaces. Stored content is
+ * released once the last version sharing it is garbage collected, as only then can no reader,
+ * including a read-only view, load it anymore.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @see VersionClock
+ * @since 2026/10/17
+ */
+
+final class DiaryEntryVersion {
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final long sequence;
+
+  /**
+   * The content as a {@link String} or {@link ContentLines},
+   * or as {@link StoredContent} if it is kept in a store.
+   */
+  private final Object content;
+
+  /**
+   * The bitmask of the label ordinals, which has room for 16 labels.
+   */
+  private final short recipeLabels;
+  private volatile DiaryEntryVersion previous;
+
+  /**
+   * Creates a new version, storing its content in the given store if there is one.
+   *
+   * @param sequence     the sequence number at which the version was installed.
+   * @param content      the content of the version.
+   * @param contentStore the store to keep the content in, or null to keep it on the heap.
+   * @param recipeLabels the bitmask of the labels of the version.
+   * @param previous     the version this version replaces, or null if there is none.
+   */
+  DiaryEntryVersion(long sequence, String content, ContentStore contentStore,
+                    int recipeLabels, DiaryEntryVersion previous) {
+    this(sequence, keep(content, contentStore), recipeLabels, previous);
+  }
+
+  /**
+   * Creates a new version from replaced lines, storing its content in the given store if there
+   * is one. Otherwise, the version keeps the lines, so the next line can be replaced without
+   * splitting the content again.
+   *
+   * @param sequence     the sequence number at which the version was installed.
+   * @param contentLines the lines of the content of the version.
+   * @param contentStore the store to keep the content in, or null to keep it on the heap.
+   * @param recipeLabels the bitmask of the labels of the version.
+   * @param previous     the version this version replaces, or null if there is none.
+   */
+  DiaryEntryVersion(long sequence, ContentLines contentLines, ContentStore contentStore,
+                    int recipeLabels, DiaryEntryVersion previous) {
+    this(sequence, keep(contentLines, contentStore), recipeLabels, previous);
+  }
+
+  /**
+   * Creates a new version with content that is already kept where it belongs.
+   *
+   * @param sequence     the sequence number at which the version was installed.
+   * @param content      the content of the version.
+   * @param recipeLabels the bitmask of the labels of the version.
+   * @param previous     the version this version replaces, or null if there is none.
+   */
+  private DiaryEntryVersion(long sequence, Object content, int recipeLabels,
+                            DiaryEntryVersion previous) {
+    this.sequence = sequence;
+    this.content = content;
+    this.recipeLabels = (short) recipeLabels;
+    this.previous = previous;
+  }
+
+  /**
+   * Creates a new version with other labels, sharing the content of the version it replaces.
+   *
+   * @param sequence     the sequence number at which the version was installed.
+   * @param recipeLabels the bitmask of the labels of the version.
+   * @param previous     the version this version replaces.
+   */
+  private DiaryEntryVersion(long sequence, int recipeLabels, DiaryEntryVersion previous) {
+    this(sequence, previous.content, recipeLabels, previous);
+  }
+
+  /**
+   * Returns the content to keep in a version, which is the content itself,
+   * or its handle if there is a store.
+   *
+   * @param content      the content, as a {@link String} or {@link ContentLines}.
+   * @param contentStore the store to keep the content in, or null to keep it on the heap.
+   * @return the content to keep.
+   */
+  private static Object keep(Object content, ContentStore contentStore) {
+    return contentStore == null ? content : new StoredContent(contentStore, content.toString());
+  }
+
+  /**
+   * Creates the version that replaces this one with other labels and the same content.
+   *
+   * @param sequence     the sequence number at which the new version was installed.
+   * @param recipeLabels the bitmask of the labels of the new version.
+   * @return the new version.
+   */
+  DiaryEntryVersion withRecipeLabels(long sequence, int recipeLabels) {
+    return new DiaryEntryVersion(sequence, recipeLabels, this);
+  }
+
+  /**
+   * Returns the sequence number at which the version was installed.
+   *
+   * @return the sequence number.
+   */
+  long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Returns the content of the version.
+   *
+   * @return the content.
+   */
+  String getContent() {
+    if (this.content instanceof StoredContent stored) {
+      return stored.load();
+    }
+    return this.content.toString();
+  }
+
+  /**
+   * Returns the lines of the content of the version.
+   *
+   * @return the {@link ContentLines} of the content.
+   */
+  ContentLines getContentLines() {
+    return this.content instanceof ContentLines contentLines
+        ? contentLines : ContentLines.of(this.getContent());
+  }
+
+  /**
+   * Returns the labels of the version.
+   *
+   * @return the bitmask of the label ordinals.
+   */
+  int getRecipeLabels() {
+    return this.recipeLabels;
+  }
+
+  /**
+   * Counts the versions in the chain, starting at this one.
+   *
+   * @return the number of retained versions.
+   */
+  int countVersions() {
+    int count = 0;
+    for (DiaryEntryVersion version = this; version != null; version = version.previous) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the newest version in the chain installed at or before the given sequence number.
+   *
+   * @param sequence the sequence number to read at.
+   * @return the matching version, or the oldest retained version if none is old enough.
+   */
+  DiaryEntryVersion at(long sequence) {
+    DiaryEntryVersion version = this;
+    while (version.sequence > sequence && version.previous != null) {
+      version = version.previous;
+    }
+    return version;
+  }
+
+  /**
+   * Drops every version older than the one a reader at the given sequence number would see.
+   *
+   * @param oldestNeeded the oldest sequence number a reader may still read at.
+   */
+  void prune(long oldestNeeded) {
+    this.at(oldestNeeded).previous = null;
+  }
+
+  /**
+   * Content kept in a {@link ContentStore}, shared by every version with the same content.
+   * Its handle is released through the {@link Cleaner} once it becomes unreachable.
+   */
+  private static final class StoredContent {
+
+    private final ContentStore store;
+    private final long handle;
+
+    /**
+     * Stores the given content, and registers its handle to be released.
+     *
+     * @param store   the store to keep the content in.
+     * @param content the content to store.
+     */
+    StoredContent(ContentStore store, String content) {
+      long handle = store.store(content);
+      this.store = store;
+      this.handle = handle;
+      CLEANER.register(this, () -> store.release(handle));
+    }
+
+    /**
+     * Loads the content from the store.
+     *
+     * @return the content.
+     */
+    String load() {
+      String content = this.store.load(this.handle);
+      // Keeps this object reachable until the load is done, so the handle is not released first.
+      Reference.reachabilityFence(this);
+      return content;
+    }
+
+  }
+
+}
@@ -0,0 +1,170 @@
+package main.java.edu.ntnu.iir.bidata.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Represents the history of the line edits of the content of a {@link DiaryEntry}.
+ *
+ * <p>Revision 0 is the content before the first edit, and every line edit adds a revision.
+ * A revision only stores the line it replaced and the new line, as a delta against the revision
+ * before it. Every {@link #KEYFRAME_INTERVAL} revisions, the whole {@link ContentLines} of the
+ * revision is kept as a keyframe as well. A revision is rebuilt by applying the deltas after the
+ * keyframe before it, so reading any revision replaces at most {@link #KEYFRAME_INTERVAL} lines,
+ * however long the history is.
+ * </p>
+ *
+ * <p>A keyframe shares its unchanged lines with the content it was taken from, so keeping one
+ * does not copy the content.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ *     EditHistory editHistory = new EditHistory(ContentLines.of("1x Pasta\n1x Sauce"));
+ *     editHistory.record(1, "1x Bechamel", ContentLines.of("1x Pasta\n1x Bechamel"));
+ *     System.out.println(editHistory.diff(0, 1)); // [Line 2: 1x Sauce -> 1x Bechamel]
+ * </pre>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public final class EditHistory {
+
+  /**
+   * The number of revisions between two keyframes.
+   */
+  public static final int KEYFRAME_INTERVAL = 16;
+
+  private final List<ContentLines> keyframes;
+
+  /**
+   * The delta of every revision after revision 0, where revision r is at index r - 1.
+   */
+  private final List<LineDelta> deltas;
+
+  /**
+   * Creates a history starting at the given content.
+   *
+   * @param original the lines of the content before the first edit.
+   */
+  public EditHistory(ContentLines original) {
+    this.keyframes = new ArrayList<>();
+    this.deltas = new ArrayList<>();
+    this.keyframes.add(original);
+  }
+
+  /**
+   * Adds a revision in which a line was replaced.
+   *
+   * @param index  the index of the replaced line, starting at 0.
+   * @param line   the new line.
+   * @param result the lines of the content after the edit.
+   */
+  public synchronized void record(int index, String line, ContentLines result) {
+    this.deltas.add(new LineDelta(index, line));
+    if (this.deltas.size() % KEYFRAME_INTERVAL == 0) {
+      this.keyframes.add(result);
+    }
+  }
+
+  /**
+   * Returns the number of revisions, including revision 0.
+   *
+   * @return the number of revisions.
+   */
+  public synchronized int getRevisionCount() {
+    return this.deltas.size() + 1;
+  }
+
+  /**
+   * Returns the content at the given revision.
+   *
+   * @param revision the revision, starting at 0.
+   * @return the content at the revision.
+   * @throws IndexOutOfBoundsException if there is no such revision.
+   */
+  public String getContent(int revision) {
+    return this.getContentLines(revision).toString();
+  }
+
+  /**
+   * Returns the lines of the content at the given revision,
+   * rebuilt from the keyframe before it.
+   *
+   * @param revision the revision, starting at 0.
+   * @return the {@link ContentLines} at the revision.
+   * @throws IndexOutOfBoundsException if there is no such revision.
+   */
+  public synchronized ContentLines getContentLines(int revision) {
+    Objects.checkIndex(revision, this.getRevisionCount());
+    int keyframe = revision / KEYFRAME_INTERVAL;
+    ContentLines contentLines = this.keyframes.get(keyframe);
+    for (int i = keyframe * KEYFRAME_INTERVAL; i < revision; i++) {
+      LineDelta delta = this.deltas.get(i);
+      contentLines = contentLines.replaceLine(delta.index(), delta.line());
+    }
+    return contentLines;
+  }
+
+  /**
+   * Returns the lines that differ between two revisions. Only the lines replaced by the
+   * revisions in between are compared, so the rest of the content is never read.
+   *
+   * @param fromRevision the revision to compare from.
+   * @param toRevision   the revision to compare to.
+   * @return the changed lines, ordered by line number.
+   * @throws IndexOutOfBoundsException if there is no such revision.
+   */
+  public synchronized List<LineChange> diff(int fromRevision, int toRevision) {
+    ContentLines from = this.getContentLines(fromRevision);
+    ContentLines to = this.getContentLines(toRevision);
+    TreeSet<Integer> touched = new TreeSet<>();
+    for (int i = Math.min(fromRevision, toRevision); i < Math.max(fromRevision, toRevision);
+         i++) {
+      touched.add(this.deltas.get(i).index());
+    }
+    List<LineChange> lineChanges = new ArrayList<>();
+    for (int index : touched) {
+      String oldLine = from.getLine(index);
+      String newLine = to.getLine(index);
+      if (!oldLine.equals(newLine)) {
+        lineChanges.add(new LineChange(index + 1, oldLine, newLine));
+      }
+    }
+    return List.copyOf(lineChanges);
+  }
+
+  /**
+   * The delta of a revision against the revision before it.
+   *
+   * @param index the index of the replaced line.
+   * @param line  the new line.
+   */
+  private record LineDelta(int index, String line) {
+  }
+
+  /**
+   * A line that differs between two revisions.
+   *
+   * @param lineNumber the line number, starting at 1.
+   * @param oldLine    the line in the revision compared from.
+   * @param newLine    the line in the revision compared to.
+   */
+  public record LineChange(int lineNumber, String oldLine, String newLine) {
+
+    /**
+     * Returns a formatted string representation of the change.
+     *
+     * @return the line number with the old and the new line.
+     */
+    @Override
+    public String toString() {
+      return "Line " + this.lineNumber + ": " + this.oldLine + " -> " + this.newLine;
+    }
+
+  }
+
+}
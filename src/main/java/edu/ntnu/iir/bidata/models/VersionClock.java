@@ -0,0 +1,127 @@
+package main.java.edu.ntnu.iir.bidata.models;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides the global sequence numbers used to version {@link DiaryEntry} objects.
+ *
+ * <p>A writer draws a sequence number with {@link #begin()} before making a change visible,
+ * and hands it back with {@link #commit(long)} once the change is installed. Readers pin
+ * the highest sequence number below every change still in flight, so a pinned reader never
+ * sees a change appear after it started. The oldest pinned number tells writers which old
+ * versions may still be needed, and which may be dropped.
+ * </p>
+ *
+ * <p>No method takes a lock. Sequence numbers are drawn from an atomic counter, and the visible
+ * sequence number is a watermark that only moves forward: a committed change that is not next
+ * in line waits in a concurrent set, until the commit of the change right before it moves the
+ * watermark past both. Pinned numbers are counted in a concurrent sorted map, and a reader only
+ * keeps its pin if the watermark did not move while it was pinning, so a writer never drops a
+ * version that a reader it did not see yet is about to read.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public final class VersionClock {
+
+  private static final AtomicLong lastSequence = new AtomicLong();
+  private static final AtomicLong visibleSequence = new AtomicLong();
+  private static final Set<Long> committedAhead = ConcurrentHashMap.newKeySet();
+  private static final ConcurrentSkipListMap<Long, Integer> pinned =
+      new ConcurrentSkipListMap<>();
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private VersionClock() {
+  }
+
+  /**
+   * Draws the sequence number of a new change.
+   *
+   * @return the sequence number of the change.
+   */
+  public static long begin() {
+    return lastSequence.incrementAndGet();
+  }
+
+  /**
+   * Marks a change as installed, making it visible to readers pinned from now on.
+   * The change only becomes visible once every change that began before it is installed too.
+   *
+   * @param sequence the sequence number returned by {@link #begin()}.
+   */
+  public static void commit(long sequence) {
+    committedAhead.add(sequence);
+    // Every committer tries to move the watermark after adding its own number, so the last
+    // one to add the number the watermark waits for always moves it.
+    long visible = visibleSequence.get();
+    while (committedAhead.contains(visible + 1)) {
+      if (visibleSequence.compareAndSet(visible, visible + 1)) {
+        committedAhead.remove(visible + 1);
+      }
+      visible = visibleSequence.get();
+    }
+  }
+
+  /**
+   * Pins the latest sequence number of which every change is installed.
+   *
+   * @return the pinned sequence number, to be released with {@link #unpin(long)}.
+   */
+  public static long pin() {
+    while (true) {
+      long sequence = visibleSequence.get();
+      pinned.merge(sequence, 1, Integer::sum);
+      // Had the watermark moved, a writer may have missed the pin and dropped its versions.
+      if (visibleSequence.get() == sequence) {
+        return sequence;
+      }
+      unpin(sequence);
+    }
+  }
+
+  /**
+   * Waits until every change that began so far is installed, such as a change to an entry that
+   * is not registered yet, which is made outside of any lock a caller could hold back.
+   *
+   * @return the sequence number of the latest change that began before the call,
+   *     which every pin taken afterwards is at or above.
+   */
+  public static long awaitInstalled() {
+    long sequence = lastSequence.get();
+    while (visibleSequence.get() < sequence) {
+      Thread.yield();
+    }
+    return sequence;
+  }
+
+  /**
+   * Releases a sequence number pinned with {@link #pin()}.
+   *
+   * @param sequence the pinned sequence number.
+   */
+  public static void unpin(long sequence) {
+    pinned.computeIfPresent(sequence, (it, count) -> count > 1 ? count - 1 : null);
+  }
+
+  /**
+   * Returns the oldest sequence number a reader may still read at.
+   * Versions that were replaced at or before this number are no longer needed.
+   *
+   * @return the oldest pinned sequence number, or the visible sequence number if none is pinned.
+   */
+  public static long oldestNeeded() {
+    // Read before the pins, as a reader that pins after this read pins at least this number.
+    long visible = visibleSequence.get();
+    Map.Entry<Long, Integer> oldestPinned = pinned.firstEntry();
+    return oldestPinned == null ? visible : Math.min(oldestPinned.getKey(), visible);
+  }
+
+}
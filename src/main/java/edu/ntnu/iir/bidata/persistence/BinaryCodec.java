@@ -0,0 +1,126 @@
+package main.java.edu.ntnu.iir.bidata.persistence;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+
+/**
+ * Provides the binary encoding of the fields shared by log records and checkpoints.
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+final class BinaryCodec {
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private BinaryCodec() {
+  }
+
+  /**
+   * Writes an ID as two longs.
+   *
+   * @param out the stream to write to.
+   * @param id  the ID to write.
+   * @throws IOException if the ID cannot be written.
+   */
+  static void writeId(DataOutputStream out, UUID id) throws IOException {
+    out.writeLong(id.getMostSignificantBits());
+    out.writeLong(id.getLeastSignificantBits());
+  }
+
+  /**
+   * Reads an ID written by {@link #writeId(DataOutputStream, UUID)}.
+   *
+   * @param in the stream to read from.
+   * @return the ID.
+   * @throws IOException if the ID cannot be read.
+   */
+  static UUID readId(DataInputStream in) throws IOException {
+    return new UUID(in.readLong(), in.readLong());
+  }
+
+  /**
+   * Writes the username, name and surname of an {@link Author}.
+   *
+   * @param out    the stream to write to.
+   * @param author the {@link Author} to write.
+   * @throws IOException if the author cannot be written.
+   */
+  static void writeAuthor(DataOutputStream out, Author author) throws IOException {
+    writeString(out, author.getUsername());
+    writeString(out, author.getName());
+    writeString(out, author.getSurname());
+  }
+
+  /**
+   * Reads an {@link Author} written by {@link #writeAuthor(DataOutputStream, Author)}.
+   *
+   * @param in the stream to read from.
+   * @return a new {@link Author}.
+   * @throws IOException if the author cannot be read.
+   */
+  static Author readAuthor(DataInputStream in) throws IOException {
+    return new Author(readString(in), readString(in), readString(in));
+  }
+
+  /**
+   * Writes a set of {@link RecipeLabel}s as a bitmask of their ordinals.
+   *
+   * @param out    the stream to write to.
+   * @param labels the labels to write.
+   * @throws IOException if the labels cannot be written.
+   */
+  static void writeLabels(DataOutputStream out, Set<RecipeLabel> labels) throws IOException {
+    out.writeInt(RecipeLabel.maskOf(labels));
+  }
+
+  /**
+   * Reads the labels written by {@link #writeLabels(DataOutputStream, Set)}.
+   *
+   * @param in the stream to read from.
+   * @return a shared, read-only set of the labels.
+   * @throws IOException if the labels cannot be read.
+   */
+  static Set<RecipeLabel> readLabels(DataInputStream in) throws IOException {
+    return RecipeLabel.setOf(in.readInt());
+  }
+
+  /**
+   * Writes a string as its length followed by its UTF-8 bytes,
+   * as content may be longer than {@link DataOutputStream#writeUTF(String)} allows.
+   *
+   * @param out  the stream to write to.
+   * @param text the string to write.
+   * @throws IOException if the string cannot be written.
+   */
+  static void writeString(DataOutputStream out, String text) throws IOException {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+   *
+   * @param in the stream to read from.
+   * @return the string.
+   * @throws IOException if the string cannot be read.
+   */
+  static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length != length) {
+      throw new IOException("Unexpected end of a string.");
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
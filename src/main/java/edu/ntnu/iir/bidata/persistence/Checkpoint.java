@@ -0,0 +1,201 @@
+package main.java.edu.ntnu.iir.bidata.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents a checkpoint of both registers, covering every change in the
+ * {@link WriteAheadLog} up to and including its LSN.
+ *
+ * <p>A checkpoint is a single binary file holding every {@link Author} and every
+ * {@link DiaryEntry}, followed by a CRC32 checksum of the whole file. It is first written to a
+ * temporary file and forced to disk, and only then moved into place, so a checkpoint that
+ * can be found is always complete. The directory is forced after the move, so the checkpoint
+ * is still found after a crash once older files are deleted. The indexes of the registers are
+ * not stored, as they are rebuilt while the entries are added back.
+ * </p>
+ *
+ * @param lsn          the LSN of the last change covered by the checkpoint.
+ * @param authors      every {@link Author} in the checkpoint.
+ * @param diaryEntries every {@link DiaryEntry} in the checkpoint.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record Checkpoint(long lsn, Collection<Author> authors,
+                         Collection<DiaryEntry> diaryEntries) {
+
+  private static final int MAGIC = 0x43444350;
+  private static final int FORMAT_VERSION = 1;
+  private static final String FILE_PREFIX = "checkpoint-";
+  private static final String FILE_SUFFIX = ".bin";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  /**
+   * Writes the checkpoint to the given directory, replacing any checkpoint with the same LSN.
+   *
+   * @param directory the directory to write the checkpoint to.
+   * @throws IOException if the checkpoint cannot be written.
+   */
+  public void writeTo(Path directory) throws IOException {
+    Path target = checkpointPath(directory, this.lsn);
+    Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      CheckedOutputStream checked = new CheckedOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(channel)), new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(this.lsn);
+      out.writeInt(this.authors.size());
+      for (Author author : this.authors) {
+        BinaryCodec.writeAuthor(out, author);
+      }
+      out.writeInt(this.diaryEntries.size());
+      for (DiaryEntry diaryEntry : this.diaryEntries) {
+        BinaryCodec.writeId(out, diaryEntry.getId());
+        out.writeLong(diaryEntry.getEpochDay());
+        BinaryCodec.writeString(out, diaryEntry.getTitle());
+        BinaryCodec.writeString(out, diaryEntry.getContent());
+        BinaryCodec.writeAuthor(out, diaryEntry.getAuthor());
+        BinaryCodec.writeLabels(out, diaryEntry.getRecipeLabels());
+      }
+      out.writeLong(checked.getChecksum().getValue());
+      out.flush();
+      channel.force(true);
+    }
+    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    // The move is only durable once the directory is forced, and the checkpoints and log
+    // segments this one replaces are deleted right after it returns.
+    try (FileChannel parent = FileChannel.open(directory, StandardOpenOption.READ)) {
+      parent.force(true);
+    }
+  }
+
+  /**
+   * Reads the latest checkpoint in the given directory.
+   *
+   * <p>The author of an entry is shared with the matching {@link Author} in the checkpoint.
+   *
+   * @param directory the directory holding the checkpoints.
+   * @return the latest {@link Checkpoint}, or null if there is none.
+   * @throws IOException if the checkpoint cannot be read or is damaged.
+   */
+  public static Checkpoint readLatest(Path directory) throws IOException {
+    List<Long> checkpoints = listCheckpoints(directory);
+    if (checkpoints.isEmpty()) {
+      return null;
+    }
+    Path path = checkpointPath(directory, checkpoints.getLast());
+    try (CheckedInputStream checked = new CheckedInputStream(
+        new BufferedInputStream(Files.newInputStream(path)), new CRC32())) {
+      DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException(path + " is not a checkpoint of this version.");
+      }
+      long lsn = in.readLong();
+      int authorCount = in.readInt();
+      List<Author> authors = new ArrayList<>(authorCount);
+      Map<String, Author> authorsByUsername = new HashMap<>();
+      for (int i = 0; i < authorCount; i++) {
+        Author author = BinaryCodec.readAuthor(in);
+        authors.add(author);
+        authorsByUsername.put(author.getUsername().toLowerCase(), author);
+      }
+      int entryCount = in.readInt();
+      List<DiaryEntry> diaryEntries = new ArrayList<>(entryCount);
+      for (int i = 0; i < entryCount; i++) {
+        UUID diaryId = BinaryCodec.readId(in);
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        String title = BinaryCodec.readString(in);
+        String content = BinaryCodec.readString(in);
+        Author author = BinaryCodec.readAuthor(in);
+        author = authorsByUsername.getOrDefault(author.getUsername().toLowerCase(), author);
+        DiaryEntry diaryEntry = new DiaryEntry(diaryId, title, content, author, date);
+        BinaryCodec.readLabels(in).forEach(diaryEntry::addRecipeLabel);
+        diaryEntries.add(diaryEntry);
+      }
+      long checksum = checked.getChecksum().getValue();
+      if (in.readLong() != checksum) {
+        throw new IOException(path + " is damaged.");
+      }
+      return new Checkpoint(lsn, authors, diaryEntries);
+    }
+  }
+
+  /**
+   * Deletes every checkpoint older than the given LSN, along with any leftover
+   * temporary files of checkpoints that were never completed.
+   *
+   * @param directory the directory holding the checkpoints.
+   * @param lsn       the LSN of the checkpoint to keep.
+   * @throws IOException if a checkpoint cannot be deleted.
+   */
+  public static void deleteBefore(Path directory, long lsn) throws IOException {
+    for (long checkpoint : listCheckpoints(directory)) {
+      if (checkpoint < lsn) {
+        Files.deleteIfExists(checkpointPath(directory, checkpoint));
+      }
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(it -> it.getFileName().toString().startsWith(FILE_PREFIX)
+          && it.getFileName().toString().endsWith(TEMPORARY_SUFFIX)).toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  /**
+   * Returns the LSNs of the checkpoints in a directory, in ascending order.
+   *
+   * @param directory the directory holding the checkpoints.
+   * @return the sorted LSNs of the checkpoints.
+   * @throws IOException if the directory cannot be listed.
+   */
+  private static List<Long> listCheckpoints(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(it -> it.getFileName().toString())
+          .filter(it -> it.startsWith(FILE_PREFIX) && it.endsWith(FILE_SUFFIX))
+          .map(it -> Long.parseLong(it.substring(FILE_PREFIX.length(),
+              it.length() - FILE_SUFFIX.length())))
+          .sorted()
+          .toList();
+    }
+  }
+
+  /**
+   * Returns the path of the checkpoint with the given LSN.
+   *
+   * @param directory the directory holding the checkpoints.
+   * @param lsn       the LSN of the checkpoint.
+   * @return the path of the checkpoint file.
+   */
+  private static Path checkpointPath(Path directory, long lsn) {
+    return directory.resolve(String.format("%s%020d%s", FILE_PREFIX, lsn, FILE_SUFFIX));
+  }
+
+}
@@ -0,0 +1,486 @@
+package main.java.edu.ntnu.iir.bidata.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.models.VersionClock;
+import main.java.edu.ntnu.iir.bidata.register.AuthorRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiarySnapshot;
+import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+
+/**
+ * Records every change made to the registers in a {@link WriteAheadLog},
+ * and restores the registers on startup from the latest {@link Checkpoint} and the log tail.
+ *
+ * <p>This class is a singleton class, as there is only one pair of registers to persist.
+ * Until {@link #open(Path)} is called nothing is recorded, and every method returns at once.
+ * </p>
+ *
+ * <p>Changes go through {@link #record(Author, LongSupplier)}, which applies and records the
+ * changes of one {@link Author} under one lock, so the log replays them in the order they were
+ * applied. A checkpoint is written in the background every minute the log has grown. It only
+ * holds back changes while it waits for changes still in flight, pins a {@link DiarySnapshot}
+ * and starts a new log segment, after which the snapshot is written while changes carry on.
+ * </p>
+ *
+ * <p>Each record starts with a one-byte {@link RecordType}, followed by the fields of the change
+ * in a fixed order. Entries are referred to by their ID, and labels by their ordinal.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class RegisterLog {
+
+  /**
+   * Returned by a change passed to {@link #record(Author, LongSupplier)} that was rejected.
+   */
+  public static final long REJECTED = -1;
+
+  private static final int LOCK_STRIPES = 64;
+  private static final long CHECKPOINT_INTERVAL_SECONDS = 60;
+
+  private volatile WriteAheadLog writeAheadLog;
+  private Path directory;
+  private ScheduledExecutorService checkpointer;
+  private long checkpointLsn;
+
+  /**
+   * Held shared by every change while it is applied and recorded,
+   * and exclusively by a checkpoint while it pins its snapshot.
+   */
+  private final ReadWriteLock checkpointLock;
+
+  /**
+   * Serializes checkpoints, apart from the monitor of the log, so closing the log
+   * can wait for a running checkpoint.
+   */
+  private final Object checkpointMonitor;
+
+  /**
+   * Lock stripes ordering the changes of the authors whose username hashes to them.
+   */
+  private final Object[] locks;
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private RegisterLog() {
+    this.checkpointLock = new ReentrantReadWriteLock();
+    this.checkpointMonitor = new Object();
+    this.locks = new Object[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      this.locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Holds the instance of the register log. The class loader creates it exactly once,
+   * the first time the holder is used, and safely publishes it to every thread.
+   */
+  private static final class InstanceHolder {
+    private static final RegisterLog INSTANCE = new RegisterLog();
+  }
+
+  /**
+   * Returns the instance of the register log.
+   *
+   * @return the single instance of the {@link RegisterLog} class.
+   */
+  public static RegisterLog getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * The types of records in the log. New types may only be added at the end,
+   * as the ordinal of a type is what is stored.
+   */
+  private enum RecordType {
+    AUTHOR_REGISTERED,
+    DIARY_ENTRY_CREATED,
+    DIARY_ENTRY_DELETED,
+    CONTENT_LINE_EDITED,
+    LABEL_ADDED,
+    LABEL_REMOVED
+  }
+
+  /**
+   * Opens the log stored in the given directory, restores the registers from the latest
+   * checkpoint and the records after it, and starts recording changes and taking checkpoints.
+   *
+   * @param directory the directory holding the checkpoints and log segments.
+   * @throws IOException if the directory cannot be read or written.
+   */
+  public synchronized void open(Path directory) throws IOException {
+    if (this.writeAheadLog != null) {
+      throw new IllegalStateException("The register log is already open.");
+    }
+    Files.createDirectories(directory);
+    Checkpoint checkpoint = Checkpoint.readLatest(directory);
+    long lsn = 0;
+    if (checkpoint != null) {
+      checkpoint.authors().forEach(RegisterHandler.getAuthorRegister()::addAuthor);
+      // The register is safe for concurrent use, so the indexes are rebuilt in parallel.
+      checkpoint.diaryEntries().parallelStream()
+          .forEach(RegisterHandler.getDiaryRegister()::addDiaryEntry);
+      lsn = checkpoint.lsn();
+    }
+    WriteAheadLog log = new WriteAheadLog(directory, lsn, RegisterLog::replay);
+    synchronized (this.checkpointMonitor) {
+      this.directory = directory;
+      this.checkpointLsn = lsn;
+      this.writeAheadLog = log;
+    }
+    this.checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "register-checkpointer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.checkpointer.scheduleWithFixedDelay(this::checkpointInBackground,
+        CHECKPOINT_INTERVAL_SECONDS, CHECKPOINT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops taking checkpoints, forces every recorded change to disk and stops recording.
+   *
+   * @throws IOException if the log could not be written or closed.
+   */
+  public synchronized void close() throws IOException {
+    WriteAheadLog log = this.writeAheadLog;
+    if (log == null) {
+      return;
+    }
+    this.checkpointer.shutdown();
+    try {
+      this.checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this.checkpointMonitor) {
+      this.writeAheadLog = null;
+    }
+    log.close();
+  }
+
+  /**
+   * Writes a checkpoint of both registers, and deletes the checkpoints and log segments it
+   * makes redundant. Changes are only held back while the snapshot is pinned.
+   *
+   * @return the LSN of the checkpoint, or 0 if the log is not open.
+   * @throws IOException if the checkpoint cannot be written.
+   */
+  public long checkpoint() throws IOException {
+    synchronized (this.checkpointMonitor) {
+      WriteAheadLog log = this.writeAheadLog;
+      if (log == null) {
+        return 0;
+      }
+      DiarySnapshot snapshot;
+      long lsn;
+      this.checkpointLock.writeLock().lock();
+      try {
+        // Every recorded change is installed by now, but a change made outside of the log, such
+        // as to an entry being imported, may still hold back the visible sequence number. The
+        // snapshot would then miss recorded changes drawn after it, while the log is cut off.
+        long installed = VersionClock.awaitInstalled();
+        snapshot = RegisterHandler.getDiaryRegister().openSnapshot();
+        if (snapshot.getSequence() < installed) {
+          snapshot.close();
+          throw new IllegalStateException("The checkpoint snapshot misses installed changes.");
+        }
+        lsn = log.roll();
+      } finally {
+        this.checkpointLock.writeLock().unlock();
+      }
+      try (snapshot) {
+        // Authors are only ever added, so reading them after the snapshot is pinned is safe.
+        new Checkpoint(lsn, RegisterHandler.getAuthorRegister().getAuthors(),
+            snapshot.getDiaryEntries()).writeTo(this.directory);
+      }
+      Checkpoint.deleteBefore(this.directory, lsn);
+      log.deleteSegmentsBefore(lsn);
+      this.checkpointLsn = lsn;
+      return lsn;
+    }
+  }
+
+  /**
+   * Returns the LSN of the latest checkpoint written or loaded.
+   *
+   * @return the LSN of the latest checkpoint, or 0 if there is none.
+   */
+  public long getCheckpointLsn() {
+    synchronized (this.checkpointMonitor) {
+      return this.checkpointLsn;
+    }
+  }
+
+  /**
+   * Applies a change and records it, and waits until the record is forced to disk.
+   *
+   * <p>The change runs under the lock of its {@link Author}, so changes of the same author
+   * are recorded in the order they were applied.
+   *
+   * @param author the {@link Author} whose data is changed.
+   * @param change applies the change and returns the LSN of its record,
+   *               or {@link #REJECTED} if the change was rejected.
+   * @return true if the change was applied, false if it was rejected.
+   */
+  public boolean record(Author author, LongSupplier change) {
+    long lsn = this.apply(author, change);
+    if (lsn == REJECTED) {
+      return false;
+    }
+    this.awaitDurable(lsn);
+    return true;
+  }
+
+  /**
+   * Applies a change and records it, without waiting until the record is forced to disk.
+   * Batches of changes use this to wait with {@link #awaitDurable(long)} only once, for the
+   * highest LSN of the batch.
+   *
+   * @param author the {@link Author} whose data is changed.
+   * @param change applies the change and returns the LSN of its record,
+   *               or {@link #REJECTED} if the change was rejected.
+   * @return the LSN of the record, or {@link #REJECTED} if the change was rejected.
+   */
+  public long apply(Author author, LongSupplier change) {
+    this.checkpointLock.readLock().lock();
+    try {
+      synchronized (this.lockFor(author)) {
+        return change.getAsLong();
+      }
+    } finally {
+      this.checkpointLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Records that an {@link Author} was registered.
+   *
+   * @param author the registered {@link Author}.
+   * @return the LSN of the record, or 0 if the log is not open.
+   */
+  public long logAuthorRegistered(Author author) {
+    return this.append(RecordType.AUTHOR_REGISTERED, out -> BinaryCodec.writeAuthor(out, author));
+  }
+
+  /**
+   * Records that a {@link DiaryEntry} was created, along with its labels.
+   *
+   * @param diaryEntry the created {@link DiaryEntry}.
+   * @return the LSN of the record, or 0 if the log is not open.
+   */
+  public long logDiaryEntryCreated(DiaryEntry diaryEntry) {
+    return this.append(RecordType.DIARY_ENTRY_CREATED, out -> {
+      BinaryCodec.writeId(out, diaryEntry.getId());
+      out.writeLong(diaryEntry.getEpochDay());
+      BinaryCodec.writeString(out, diaryEntry.getTitle());
+      BinaryCodec.writeString(out, diaryEntry.getContent());
+      BinaryCodec.writeAuthor(out, diaryEntry.getAuthor());
+      BinaryCodec.writeLabels(out, diaryEntry.getRecipeLabels());
+    });
+  }
+
+  /**
+   * Records that a {@link DiaryEntry} was deleted.
+   *
+   * @param diaryEntry the deleted {@link DiaryEntry}.
+   * @return the LSN of the record, or 0 if the log is not open.
+   */
+  public long logDiaryEntryDeleted(DiaryEntry diaryEntry) {
+    return this.append(RecordType.DIARY_ENTRY_DELETED,
+        out -> BinaryCodec.writeId(out, diaryEntry.getId()));
+  }
+
+  /**
+   * Records that a line of the content of a {@link DiaryEntry} was replaced.
+   *
+   * @param diaryEntry the edited {@link DiaryEntry}.
+   * @param lineNumber the line number that was replaced.
+   * @param content    the new content of the line.
+   * @return the LSN of the record, or 0 if the log is not open.
+   */
+  public long logContentLineEdited(DiaryEntry diaryEntry, int lineNumber, String content) {
+    return this.append(RecordType.CONTENT_LINE_EDITED, out -> {
+      BinaryCodec.writeId(out, diaryEntry.getId());
+      out.writeInt(lineNumber);
+      BinaryCodec.writeString(out, content);
+    });
+  }
+
+  /**
+   * Records that a {@link RecipeLabel} was added to a {@link DiaryEntry}.
+   *
+   * @param diaryEntry the labelled {@link DiaryEntry}.
+   * @param label      the added {@link RecipeLabel}.
+   * @return the LSN of the record, or 0 if the log is not open.
+   */
+  public long logLabelAdded(DiaryEntry diaryEntry, RecipeLabel label) {
+    return this.append(RecordType.LABEL_ADDED, out -> {
+      BinaryCodec.writeId(out, diaryEntry.getId());
+      out.writeByte(label.ordinal());
+    });
+  }
+
+  /**
+   * Records that a {@link RecipeLabel} was removed from a {@link DiaryEntry}.
+   *
+   * @param diaryEntry the unlabelled {@link DiaryEntry}.
+   * @param label      the removed {@link RecipeLabel}.
+   * @return the LSN of the record, or 0 if the log is not open.
+   */
+  public long logLabelRemoved(DiaryEntry diaryEntry, RecipeLabel label) {
+    return this.append(RecordType.LABEL_REMOVED, out -> {
+      BinaryCodec.writeId(out, diaryEntry.getId());
+      out.writeByte(label.ordinal());
+    });
+  }
+
+  /**
+   * Waits until the record with the given LSN is forced to disk.
+   * Returns at once if the log is not open.
+   *
+   * @param lsn the LSN returned when the change was recorded.
+   */
+  public void awaitDurable(long lsn) {
+    WriteAheadLog log = this.writeAheadLog;
+    if (log != null && lsn > 0) {
+      log.awaitDurable(lsn);
+    }
+  }
+
+  /**
+   * Writes a checkpoint if the log has grown since the last one.
+   * Failures are reported, and the next checkpoint is tried at the next interval.
+   */
+  private void checkpointInBackground() {
+    try {
+      WriteAheadLog log = this.writeAheadLog;
+      if (log != null && log.getAppendedLsn() > this.getCheckpointLsn()) {
+        this.checkpoint();
+      }
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Could not write a checkpoint: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the lock stripe ordering the changes of an author.
+   *
+   * @param author the {@link Author} making the change.
+   * @return the lock of the author.
+   */
+  private Object lockFor(Author author) {
+    return this.locks[Math.floorMod(author.getUsername().toLowerCase().hashCode(), LOCK_STRIPES)];
+  }
+
+  /**
+   * Writes the fields of a record.
+   */
+  @FunctionalInterface
+  private interface RecordWriter {
+
+    /**
+     * Writes the fields of a record to the given stream.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the fields cannot be written.
+     */
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * Encodes a record and appends it to the log.
+   *
+   * @param type   the type of the record.
+   * @param writer writes the fields of the record.
+   * @return the LSN of the record, or 0 if the log is not open.
+   */
+  private long append(RecordType type, RecordWriter writer) {
+    WriteAheadLog log = this.writeAheadLog;
+    if (log == null) {
+      return 0;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(type.ordinal());
+      writer.write(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return log.append(bytes.toByteArray());
+  }
+
+  /**
+   * Applies a single record of the log to the registers.
+   *
+   * @param record the payload of the record.
+   */
+  private static void replay(byte[] record) {
+    DiaryRegister diaryRegister = RegisterHandler.getDiaryRegister();
+    AuthorRegister authorRegister = RegisterHandler.getAuthorRegister();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      int ordinal = in.readUnsignedByte();
+      if (ordinal >= RecordType.values().length) {
+        throw new IllegalStateException("Unknown record type: " + ordinal);
+      }
+      RecordType type = RecordType.values()[ordinal];
+      switch (type) {
+        case AUTHOR_REGISTERED -> authorRegister.addAuthor(BinaryCodec.readAuthor(in));
+        case DIARY_ENTRY_CREATED -> {
+          UUID diaryId = BinaryCodec.readId(in);
+          LocalDate date = LocalDate.ofEpochDay(in.readLong());
+          String title = BinaryCodec.readString(in);
+          String content = BinaryCodec.readString(in);
+          Author author = BinaryCodec.readAuthor(in);
+          Author registered = authorRegister.getAuthorByUsername(author.getUsername());
+          DiaryEntry diaryEntry = new DiaryEntry(diaryId, title, content,
+              registered != null ? registered : author, date);
+          BinaryCodec.readLabels(in).forEach(diaryEntry::addRecipeLabel);
+          diaryRegister.addDiaryEntry(diaryEntry);
+        }
+        case DIARY_ENTRY_DELETED -> diaryRegister.removeDiaryEntry(BinaryCodec.readId(in));
+        case CONTENT_LINE_EDITED -> {
+          DiaryEntry diaryEntry = diaryRegister.getDiaryEntryById(BinaryCodec.readId(in));
+          int lineNumber = in.readInt();
+          String content = BinaryCodec.readString(in);
+          if (diaryEntry != null) {
+            diaryRegister.editContentLine(diaryEntry, lineNumber, content);
+          }
+        }
+        case LABEL_ADDED, LABEL_REMOVED -> {
+          DiaryEntry diaryEntry = diaryRegister.getDiaryEntryById(BinaryCodec.readId(in));
+          RecipeLabel label = RecipeLabel.values()[in.readUnsignedByte()];
+          if (diaryEntry != null && type == RecordType.LABEL_ADDED) {
+            diaryRegister.addRecipeLabel(diaryEntry, label);
+          } else if (diaryEntry != null) {
+            diaryRegister.removeRecipeLabel(diaryEntry, label);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
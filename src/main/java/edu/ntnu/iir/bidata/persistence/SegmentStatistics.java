@@ -0,0 +1,43 @@
+package main.java.edu.ntnu.iir.bidata.persistence;
+
+/**
+ * Represents the disk usage and compaction metrics of a {@link SegmentStore} at one moment.
+ *
+ * <p>A segment is sealed once content is appended to a newer one. The amplification only
+ * covers the sealed segments, as the segment being appended to is still being filled.
+ * </p>
+ *
+ * @param segmentCount      the number of segment files.
+ * @param diskBytes         the size of every segment file together, in bytes.
+ * @param liveBytes         the bytes of content that is not released, in bytes.
+ * @param sealedDiskBytes   the size of the sealed segment files together, in bytes.
+ * @param sealedLiveBytes   the bytes of content in the sealed segments that is not released.
+ * @param compactedSegments the number of segments compacted since the store was opened.
+ * @param reclaimedBytes    the bytes of disk freed by compaction since the store was opened.
+ * @param totalPauseNanos   the time writers were held up by compaction, in nanoseconds.
+ * @param longestPauseNanos the longest time one compaction held up writers, in nanoseconds.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record SegmentStatistics(int segmentCount, long diskBytes, long liveBytes,
+                                long sealedDiskBytes, long sealedLiveBytes,
+                                long compactedSegments, long reclaimedBytes,
+                                long totalPauseNanos, long longestPauseNanos) {
+
+  /**
+   * Returns the disk amplification of the sealed segments: the size of their files divided by
+   * the live content in them.
+   *
+   * @return the amplification, 1 if there are no sealed segments, or infinity if every sealed
+   *     segment is dead.
+   */
+  public double amplification() {
+    if (this.sealedDiskBytes == 0) {
+      return 1;
+    }
+    return this.sealedLiveBytes == 0
+        ? Double.POSITIVE_INFINITY : (double) this.sealedDiskBytes / this.sealedLiveBytes;
+  }
+
+}
@@ -0,0 +1,666 @@
+package main.java.edu.ntnu.iir.bidata.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+import main.java.edu.ntnu.iir.bidata.models.ContentStore;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents a {@link ContentStore} that keeps content in memory-mapped, append-only
+ * segment files, and compacts them in the background.
+ *
+ * <p>Content is appended to the current segment as a record holding its slot, its length and
+ * its UTF-8 bytes, and a new segment is mapped once the current one is full. The handle of a
+ * content is its slot in a table of locations, which holds the index of the segment in the
+ * upper 32 bits and the offset of the record in the lower 32 bits. The heap therefore only
+ * holds a single long per content, and the operating system pages the bytes in and out.
+ * </p>
+ *
+ * <p>Content released by edits and deletions leaves dead bytes behind. The store tracks the
+ * live bytes of every segment, and once the sealed segments take up more than the configured
+ * amplification of their live bytes, the sparsest segments are compacted in the background:
+ * their live records are copied to the current segment, their slots are pointed at the copies,
+ * and the segment files are deleted. Only segments holding dead records and less than the inverse
+ * of the amplification in live bytes are compacted, and compaction stops once a pass over them
+ * did not shrink the sealed segments, as the copies filled as many new segments. A file that
+ * cannot be deleted yet is retried on the next compaction, and only counts as reclaimed once it
+ * is gone. Loads never take a lock. A load that finds its segment gone reads the slot again,
+ * while a load that got hold of the segment before it was dropped still reads the unchanged
+ * mapping. Only writers wait while a segment is compacted.
+ * </p>
+ *
+ * <p>The table of segments only holds the live ones, in ascending order of their index, and a
+ * load finds its segment by a binary search. Compacted segments are left out of the next copy
+ * of the table, so it shrinks along with the segments, while indexes are never reused, so a
+ * location read before its segment was compacted can never lead a load to another segment.
+ * </p>
+ *
+ * <p>The segments are a cache of the content of the {@link DiaryEntry} objects in memory,
+ * which are themselves restored from the {@link RegisterLog} on startup. Segments left by an
+ * earlier run are therefore deleted when the store is opened.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class SegmentStore implements ContentStore, AutoCloseable {
+
+  /**
+   * The default size of a segment file, in bytes.
+   */
+  public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+  /**
+   * The default disk amplification of the sealed segments above which they are compacted.
+   */
+  public static final double DEFAULT_MAX_AMPLIFICATION = 2.0;
+
+  private static final int RECORD_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+  private static final int SLOTS_PER_PAGE = 1024;
+  private static final long FREE = -1;
+  private static final String SEGMENT_PREFIX = "content-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final double maxAmplification;
+  private final ExecutorService compactor;
+
+  /**
+   * The live segments in ascending order of their index, the last one being the current one.
+   * Replaced as a whole on change.
+   */
+  private volatile Segment[] segments;
+
+  /**
+   * The locations of the slots, in pages that are shared when the table grows.
+   */
+  private volatile AtomicLongArray[] locationPages;
+
+  /**
+   * The compacted segments whose files could not be deleted yet.
+   */
+  private final List<Segment> undeletedSegments;
+
+  private final ArrayDeque<Integer> freeSlots;
+  private int slotCount;
+  private int writeOffset;
+  private boolean isCompactionScheduled;
+  private long compactedSegments;
+  private long reclaimedBytes;
+  private long totalPauseNanos;
+  private long longestPauseNanos;
+
+  /**
+   * Opens an empty store in the given directory, with the default segment size and
+   * amplification.
+   *
+   * @param directory the directory to keep the segment files in.
+   * @throws IOException if the directory or first segment cannot be created.
+   */
+  public SegmentStore(Path directory) throws IOException {
+    this(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_MAX_AMPLIFICATION);
+  }
+
+  /**
+   * Opens an empty store in the given directory.
+   *
+   * @param directory        the directory to keep the segment files in.
+   * @param segmentBytes     the size of a segment file, in bytes.
+   * @param maxAmplification the disk amplification of the sealed segments above which they are
+   *                         compacted.
+   * @throws IOException              if the directory or first segment cannot be created.
+   * @throws IllegalArgumentException if the amplification is not above 1.
+   */
+  public SegmentStore(Path directory, int segmentBytes, double maxAmplification)
+      throws IOException {
+    if (!(maxAmplification > 1)) {
+      throw new IllegalArgumentException("The amplification must be above 1.");
+    }
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.maxAmplification = maxAmplification;
+    Files.createDirectories(directory);
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(SegmentStore::isSegment).toList()) {
+        Files.delete(file);
+      }
+    }
+    this.segments = new Segment[] {this.mapSegment(0, segmentBytes)};
+    this.locationPages = new AtomicLongArray[0];
+    this.freeSlots = new ArrayDeque<>();
+    this.undeletedSegments = new ArrayList<>();
+    this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "segment-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Appends the given content to the current segment, mapping a new segment if it is full.
+   * Content larger than a segment gets a segment of its own.
+   *
+   * @param content the content to store.
+   * @return the handle of the stored content.
+   * @throws UncheckedIOException if a new segment cannot be mapped.
+   */
+  @Override
+  public synchronized long store(String content) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    int slot = this.allocateSlot();
+    this.setLocation(slot, this.append(slot, bytes, 0, bytes.length));
+    this.scheduleCompactionIfNeeded();
+    return slot;
+  }
+
+  /**
+   * Decodes the content stored under the given handle straight from its mapped segment.
+   *
+   * @param handle the handle returned by {@link #store(String)}.
+   * @return the stored content.
+   * @throws IllegalArgumentException if the handle was released.
+   */
+  @Override
+  public String load(long handle) {
+    int slot = (int) handle;
+    while (true) {
+      long location = this.getLocation(slot);
+      if (location == FREE) {
+        throw new IllegalArgumentException("The content of handle " + handle + " is released.");
+      }
+      Segment segment = findSegment(this.segments, (int) (location >>> 32));
+      if (segment != null) {
+        int offset = (int) location;
+        byte[] bytes = new byte[segment.buffer.getInt(offset + Integer.BYTES)];
+        segment.buffer.get(offset + RECORD_HEADER_BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      }
+      // The segment was compacted after the location was read, so the slot now points elsewhere.
+    }
+  }
+
+  /**
+   * Marks the content stored under the given handle as dead, and frees its slot.
+   *
+   * @param handle the handle returned by {@link #store(String)}.
+   */
+  @Override
+  public synchronized void release(long handle) {
+    int slot = (int) handle;
+    long location = this.getLocation(slot);
+    if (location == FREE) {
+      return;
+    }
+    Segment segment = findSegment(this.segments, (int) (location >>> 32));
+    segment.liveBytes -= recordBytes(segment, (int) location);
+    this.setLocation(slot, FREE);
+    this.freeSlots.push(slot);
+    this.scheduleCompactionIfNeeded();
+  }
+
+  /**
+   * Compacts the sparsest sealed segments, one at a time, until their amplification is at or
+   * below the maximum. Every pass compacts the segments worth compacting at its start, sparsest
+   * first, and compaction stops once a pass did not shrink the sealed segments. Writers only
+   * wait while a single segment is compacted.
+   *
+   * @return the number of segments compacted.
+   * @throws UncheckedIOException if a new segment cannot be mapped.
+   */
+  public int compact() {
+    int compacted = 0;
+    while (true) {
+      List<Segment> sparseSegments;
+      long sealedDiskBytes;
+      synchronized (this) {
+        this.deleteUndeletedSegments();
+        sparseSegments = this.needsCompaction() ? this.sparseSealedSegments() : List.of();
+        if (sparseSegments.isEmpty()) {
+          this.isCompactionScheduled = false;
+          return compacted;
+        }
+        sealedDiskBytes = this.getStatistics().sealedDiskBytes();
+      }
+      for (Segment segment : sparseSegments) {
+        synchronized (this) {
+          if (!this.needsCompaction()) {
+            break;
+          }
+          // Another caller of this method may have compacted it in the meantime.
+          if (findSegment(this.segments, segment.index) == segment) {
+            this.compactSegment(segment);
+            compacted++;
+          }
+        }
+      }
+      synchronized (this) {
+        if (this.getStatistics().sealedDiskBytes() >= sealedDiskBytes) {
+          this.isCompactionScheduled = false;
+          return compacted;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the disk usage of the segments and the metrics of compaction so far.
+   *
+   * @return the {@link SegmentStatistics} of the store.
+   */
+  public synchronized SegmentStatistics getStatistics() {
+    Segment[] current = this.segments;
+    int segmentCount = 0;
+    long diskBytes = 0;
+    long liveBytes = 0;
+    long sealedDiskBytes = 0;
+    long sealedLiveBytes = 0;
+    for (int i = 0; i < current.length; i++) {
+      Segment segment = current[i];
+      segmentCount++;
+      diskBytes += segment.buffer.capacity();
+      liveBytes += segment.liveBytes;
+      if (i < current.length - 1) {
+        sealedDiskBytes += segment.buffer.capacity();
+        sealedLiveBytes += segment.liveBytes;
+      }
+    }
+    return new SegmentStatistics(segmentCount, diskBytes, liveBytes, sealedDiskBytes,
+        sealedLiveBytes, this.compactedSegments, this.reclaimedBytes, this.totalPauseNanos,
+        this.longestPauseNanos);
+  }
+
+  /**
+   * Stops compacting in the background, waiting for a running compaction to finish.
+   * The store can still be stored to and loaded from afterwards.
+   */
+  @Override
+  public void close() {
+    this.compactor.shutdown();
+    try {
+      this.compactor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Copies the live records of a sealed segment to the current segment, points their slots at
+   * the copies, and drops the segment from the table.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @param segment the sealed segment to compact.
+   */
+  private void compactSegment(Segment segment) {
+    long start = System.nanoTime();
+    int offset = 0;
+    while (offset < segment.usedBytes) {
+      int slot = segment.buffer.getInt(offset);
+      int length = segment.buffer.getInt(offset + Integer.BYTES);
+      if (this.getLocation(slot) == location(segment.index, offset)) {
+        this.setLocation(slot,
+            this.append(slot, segment.buffer, offset + RECORD_HEADER_BYTES, length));
+      }
+      offset += RECORD_HEADER_BYTES + length;
+    }
+    // Published only after every live record moved, so a load finding the segment gone
+    // reads a slot that already points elsewhere.
+    Segment[] current = this.segments;
+    int position = Arrays.binarySearch(current, segment, Segment.BY_INDEX);
+    Segment[] compacted = new Segment[current.length - 1];
+    System.arraycopy(current, 0, compacted, 0, position);
+    System.arraycopy(current, position + 1, compacted, position, compacted.length - position);
+    this.segments = compacted;
+    if (!this.deleteSegment(segment)) {
+      this.undeletedSegments.add(segment);
+    }
+    long pause = System.nanoTime() - start;
+    this.compactedSegments++;
+    this.totalPauseNanos += pause;
+    this.longestPauseNanos = Math.max(this.longestPauseNanos, pause);
+  }
+
+  /**
+   * Deletes the file of a compacted segment, and counts its dead bytes as reclaimed.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @param segment the compacted segment.
+   * @return true if the file is deleted, false if it has to be retried later.
+   */
+  private boolean deleteSegment(Segment segment) {
+    try {
+      Files.deleteIfExists(segment.path);
+    } catch (IOException e) {
+      // A file that is still mapped cannot be deleted on every platform.
+      return false;
+    }
+    this.reclaimedBytes += segment.buffer.capacity() - segment.liveBytes;
+    return true;
+  }
+
+  /**
+   * Retries deleting the files of the compacted segments that could not be deleted before.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   */
+  private void deleteUndeletedSegments() {
+    Iterator<Segment> iterator = this.undeletedSegments.iterator();
+    while (iterator.hasNext()) {
+      if (this.deleteSegment(iterator.next())) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Appends a record to the current segment, mapping a new segment if it is full.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @param slot   the slot of the record.
+   * @param bytes  the array holding the content.
+   * @param from   the offset of the content in the array.
+   * @param length the length of the content, in bytes.
+   * @return the location of the record.
+   */
+  private long append(int slot, byte[] bytes, int from, int length) {
+    Segment segment = this.reserve(RECORD_HEADER_BYTES + length);
+    int offset = this.writeOffset;
+    segment.buffer.putInt(offset, slot);
+    segment.buffer.putInt(offset + Integer.BYTES, length);
+    segment.buffer.put(offset + RECORD_HEADER_BYTES, bytes, from, length);
+    return this.commitAppend(segment, offset, RECORD_HEADER_BYTES + length);
+  }
+
+  /**
+   * Appends a record whose content is copied from another segment.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @param slot   the slot of the record.
+   * @param source the segment buffer holding the content.
+   * @param from   the offset of the content in the buffer.
+   * @param length the length of the content, in bytes.
+   * @return the location of the record.
+   */
+  private long append(int slot, MappedByteBuffer source, int from, int length) {
+    Segment segment = this.reserve(RECORD_HEADER_BYTES + length);
+    int offset = this.writeOffset;
+    segment.buffer.putInt(offset, slot);
+    segment.buffer.putInt(offset + Integer.BYTES, length);
+    segment.buffer.put(offset + RECORD_HEADER_BYTES, source, from, length);
+    return this.commitAppend(segment, offset, RECORD_HEADER_BYTES + length);
+  }
+
+  /**
+   * Returns the current segment if it has room for a record, or maps a new one.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @param recordBytes the size of the record, in bytes.
+   * @return the segment to append the record to.
+   * @throws UncheckedIOException if a new segment cannot be mapped.
+   */
+  private Segment reserve(int recordBytes) {
+    Segment[] current = this.segments;
+    Segment segment = current[current.length - 1];
+    if (this.writeOffset + recordBytes <= segment.buffer.capacity()) {
+      return segment;
+    }
+    try {
+      segment = this.mapSegment(segment.index + 1, Math.max(this.segmentBytes, recordBytes));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    Segment[] grown = Arrays.copyOf(current, current.length + 1);
+    grown[current.length] = segment;
+    this.segments = grown;
+    this.writeOffset = 0;
+    return segment;
+  }
+
+  /**
+   * Counts a record written at the write offset of the current segment as live.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @param segment     the current segment.
+   * @param offset      the offset of the record.
+   * @param recordBytes the size of the record, in bytes.
+   * @return the location of the record.
+   */
+  private long commitAppend(Segment segment, int offset, int recordBytes) {
+    this.writeOffset += recordBytes;
+    segment.usedBytes = this.writeOffset;
+    segment.liveBytes += recordBytes;
+    return location(segment.index, offset);
+  }
+
+  /**
+   * Returns a free slot, growing the table of locations if there is none.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @return the slot.
+   */
+  private int allocateSlot() {
+    Integer free = this.freeSlots.poll();
+    if (free != null) {
+      return free;
+    }
+    int slot = this.slotCount++;
+    AtomicLongArray[] pages = this.locationPages;
+    if (slot / SLOTS_PER_PAGE == pages.length) {
+      AtomicLongArray[] grown = Arrays.copyOf(pages, pages.length + 1);
+      grown[pages.length] = new AtomicLongArray(SLOTS_PER_PAGE);
+      this.locationPages = grown;
+    }
+    return slot;
+  }
+
+  /**
+   * Returns the location of the record of a slot.
+   *
+   * @param slot the slot.
+   * @return the location of the record, or {@link #FREE} if the slot is free.
+   */
+  private long getLocation(int slot) {
+    return this.locationPages[slot / SLOTS_PER_PAGE].get(slot % SLOTS_PER_PAGE);
+  }
+
+  /**
+   * Points a slot at a record.
+   *
+   * @param slot     the slot.
+   * @param location the location of the record, or {@link #FREE} to free the slot.
+   */
+  private void setLocation(int slot, long location) {
+    this.locationPages[slot / SLOTS_PER_PAGE].set(slot % SLOTS_PER_PAGE, location);
+  }
+
+  /**
+   * Checks whether the sealed segments take up more disk than the maximum amplification allows.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @return true if the sealed segments should be compacted.
+   */
+  private boolean needsCompaction() {
+    return this.getStatistics().amplification() > this.maxAmplification;
+  }
+
+  /**
+   * Returns the sealed segments worth compacting, sparsest first. A segment is worth compacting
+   * if it holds dead records, as copying a segment whose every record is live reclaims nothing,
+   * and if its live bytes are below the inverse of the maximum amplification of its size.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   *
+   * @return the segments, or an empty list if no sealed segment is worth compacting.
+   */
+  private List<Segment> sparseSealedSegments() {
+    Segment[] current = this.segments;
+    List<Segment> sparseSegments = new ArrayList<>();
+    for (int i = 0; i < current.length - 1; i++) {
+      Segment segment = current[i];
+      if (segment.liveBytes < segment.usedBytes
+          && segment.liveBytes < segment.buffer.capacity() / this.maxAmplification) {
+        sparseSegments.add(segment);
+      }
+    }
+    sparseSegments.sort(Comparator.comparingDouble(
+        segment -> (double) segment.liveBytes / segment.buffer.capacity()));
+    return sparseSegments;
+  }
+
+  /**
+   * Hands a compaction to the background thread if one is needed and none is pending.
+   *
+   * <p><i>Callers must hold the monitor of the store.</i></p>
+   */
+  private void scheduleCompactionIfNeeded() {
+    if (this.isCompactionScheduled || this.compactor.isShutdown() || !this.needsCompaction()
+        || this.sparseSealedSegments().isEmpty()) {
+      return;
+    }
+    this.isCompactionScheduled = true;
+    this.compactor.execute(() -> {
+      try {
+        this.compact();
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          this.isCompactionScheduled = false;
+        }
+        System.err.println("Could not compact the content segments: " + e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Maps a new segment file of the given size.
+   * The mapping stays valid after the file itself is closed.
+   *
+   * @param index the index of the segment.
+   * @param bytes the size of the segment, in bytes.
+   * @return the mapped segment.
+   * @throws IOException if the segment cannot be created or mapped.
+   */
+  private Segment mapSegment(int index, int bytes) throws IOException {
+    Path path = this.directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index,
+        SEGMENT_SUFFIX));
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return new Segment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+    }
+  }
+
+  /**
+   * Finds the segment with the given index in a table of segments.
+   *
+   * @param segments the live segments, in ascending order of their index.
+   * @param index    the index of the segment.
+   * @return the segment, or null if it was compacted.
+   */
+  private static Segment findSegment(Segment[] segments, int index) {
+    int low = 0;
+    int high = segments.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int middleIndex = segments[middle].index;
+      if (middleIndex < index) {
+        low = middle + 1;
+      } else if (middleIndex > index) {
+        high = middle - 1;
+      } else {
+        return segments[middle];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the size of the record at the given offset of a segment.
+   *
+   * @param segment the segment holding the record.
+   * @param offset  the offset of the record.
+   * @return the size of the record, in bytes.
+   */
+  private static int recordBytes(Segment segment, int offset) {
+    return RECORD_HEADER_BYTES + segment.buffer.getInt(offset + Integer.BYTES);
+  }
+
+  /**
+   * Packs the index of a segment and the offset of a record into a location.
+   *
+   * @param index  the index of the segment.
+   * @param offset the offset of the record.
+   * @return the location.
+   */
+  private static long location(int index, int offset) {
+    return (long) index << 32 | offset;
+  }
+
+  /**
+   * Checks whether a file is a segment file of a store.
+   *
+   * @param file the file to check.
+   * @return true if the file is a segment file.
+   */
+  private static boolean isSegment(Path file) {
+    String name = file.getFileName().toString();
+    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+  }
+
+  /**
+   * A mapped segment file, along with the bytes appended to it and the bytes still live.
+   * The counters are only touched while holding the monitor of the store.
+   */
+  private static final class Segment {
+
+    /**
+     * Orders segments by their index, as in the table of segments.
+     */
+    private static final Comparator<Segment> BY_INDEX = Comparator.comparingInt(it -> it.index);
+
+    private final int index;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private int usedBytes;
+    private int liveBytes;
+
+    /**
+     * Creates an empty segment.
+     *
+     * @param index  the index of the segment, which is never reused.
+     * @param path   the path of the segment file.
+     * @param buffer the mapping of the segment file.
+     */
+    Segment(int index, Path path, MappedByteBuffer buffer) {
+      this.index = index;
+      this.path = path;
+      this.buffer = buffer;
+    }
+
+  }
+
+}
@@ -0,0 +1,399 @@
+package main.java.edu.ntnu.iir.bidata.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Represents an append-only log of binary records, stored as a series of segment files.
+ *
+ * <p>Every record is framed by its length and a CRC32 checksum of its payload. The log
+ * sequence number (LSN) of a record is the position right after it, counted over the whole
+ * log, and each segment file is named after the LSN it starts at. On opening, the last
+ * segment is scanned up to the first incomplete, damaged or empty record, which can only be
+ * the tail of a write that was cut short, and everything from there on is cut off.
+ * </p>
+ *
+ * <p>Appending only copies the record into an in-memory buffer and returns its LSN.
+ * A background flusher thread writes the buffer to the file and forces it to disk, and every
+ * record that was appended while the previous batch was being forced ends up in the next
+ * batch. Writers that need their record to be durable wait with {@link #awaitDurable(long)},
+ * so many writers share a single fsync.
+ * </p>
+ *
+ * <p>{@link #roll()} starts a new segment, so that the older segments can be deleted with
+ * {@link #deleteSegmentsBefore(long)} once a checkpoint covers them.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class WriteAheadLog implements AutoCloseable {
+
+  private static final int RECORD_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+  private static final String SEGMENT_PREFIX = "wal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private final Path directory;
+  private final Thread flusher;
+  private FileChannel channel;
+  private long segmentLsn;
+  private ByteArrayOutputStream buffer;
+  private long appendedLsn;
+  private long durableLsn;
+  private long rollLsn;
+  private IOException failure;
+  private boolean isClosed;
+
+  /**
+   * Opens the log stored in the given directory, creating its first segment if there is none.
+   * Every intact record after the given LSN is handed to the consumer, in the order it was
+   * appended, before the log is opened for appending.
+   *
+   * @param directory the directory holding the segment files.
+   * @param fromLsn   the LSN up to which the records are already applied, 0 for all records.
+   * @param consumer  takes in the payload of every intact record after {@code fromLsn}.
+   * @throws IOException if the segments cannot be read or written.
+   */
+  public WriteAheadLog(Path directory, long fromLsn, Consumer<byte[]> consumer)
+      throws IOException {
+    this.directory = directory;
+    List<Long> segments = listSegments(directory);
+    long end = fromLsn;
+    for (int i = 0; i < segments.size(); i++) {
+      boolean isLast = i == segments.size() - 1;
+      long segmentStart = segments.get(i);
+      if (!isLast && segments.get(i + 1) <= fromLsn) {
+        continue;
+      }
+      try (FileChannel segment = FileChannel.open(segmentPath(directory, segmentStart),
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        long length = readRecords(segment, segmentStart, fromLsn, consumer);
+        if (!isLast && segmentStart + length != segments.get(i + 1)) {
+          throw new IOException("Segment " + segmentStart + " of the write-ahead log is damaged.");
+        }
+        if (isLast) {
+          segment.truncate(length);
+          segment.force(false);
+        }
+        end = Math.max(end, segmentStart + length);
+      }
+    }
+
+    long lastSegment = segments.isEmpty() ? -1 : segments.getLast();
+    if (lastSegment >= 0 && Files.size(segmentPath(directory, lastSegment)) == end - lastSegment) {
+      this.segmentLsn = lastSegment;
+    } else {
+      this.segmentLsn = end;
+    }
+    this.channel = openSegment(directory, this.segmentLsn);
+    this.buffer = new ByteArrayOutputStream();
+    this.appendedLsn = end;
+    this.durableLsn = end;
+    this.rollLsn = -1;
+    this.flusher = new Thread(this::flushLoop, "write-ahead-log-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  /**
+   * Appends a record to the log. The record is not durable until
+   * {@link #awaitDurable(long)} returns for the returned LSN.
+   *
+   * @param payload the payload of the record, which may not be empty.
+   * @return the LSN of the record.
+   * @throws IllegalArgumentException if the payload is empty.
+   */
+  public synchronized long append(byte[] payload) {
+    if (this.isClosed) {
+      throw new IllegalStateException("The write-ahead log is closed.");
+    }
+    if (payload.length == 0) {
+      throw new IllegalArgumentException("A record cannot be empty.");
+    }
+    CRC32 checksum = new CRC32();
+    checksum.update(payload);
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES)
+        .putInt(payload.length)
+        .putInt((int) checksum.getValue());
+    this.buffer.writeBytes(header.array());
+    this.buffer.writeBytes(payload);
+    this.appendedLsn += RECORD_HEADER_BYTES + payload.length;
+    this.notifyAll();
+    return this.appendedLsn;
+  }
+
+  /**
+   * Waits until every record up to and including the given LSN is forced to disk.
+   *
+   * @param lsn the LSN returned by {@link #append(byte[])}.
+   * @throws UncheckedIOException if the log could not be written.
+   */
+  public synchronized void awaitDurable(long lsn) {
+    boolean isInterrupted = false;
+    while (this.durableLsn < lsn && this.failure == null) {
+      try {
+        this.wait();
+      } catch (InterruptedException e) {
+        isInterrupted = true;
+      }
+    }
+    if (isInterrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (this.durableLsn < lsn) {
+      throw new UncheckedIOException(this.failure);
+    }
+  }
+
+  /**
+   * Returns the LSN up to which every record is forced to disk.
+   *
+   * @return the durable LSN.
+   */
+  public synchronized long getDurableLsn() {
+    return this.durableLsn;
+  }
+
+  /**
+   * Returns the LSN of the last appended record.
+   *
+   * @return the appended LSN.
+   */
+  public synchronized long getAppendedLsn() {
+    return this.appendedLsn;
+  }
+
+  /**
+   * Starts a new segment for every record appended from now on.
+   * The flusher switches segments once the records before it are written.
+   *
+   * @return the LSN the new segment starts at.
+   */
+  public synchronized long roll() {
+    this.rollLsn = this.appendedLsn;
+    this.notifyAll();
+    return this.rollLsn;
+  }
+
+  /**
+   * Deletes every segment holding only records up to and including the given LSN.
+   *
+   * @param lsn the LSN up to which the records are no longer needed.
+   * @throws IOException if a segment cannot be deleted.
+   */
+  public void deleteSegmentsBefore(long lsn) throws IOException {
+    List<Long> segments = listSegments(this.directory);
+    for (int i = 0; i + 1 < segments.size() && segments.get(i + 1) <= lsn; i++) {
+      Files.deleteIfExists(segmentPath(this.directory, segments.get(i)));
+    }
+  }
+
+  /**
+   * Forces every appended record to disk, stops the flusher thread and closes the file.
+   *
+   * @throws IOException if the log could not be written or closed.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (this.isClosed) {
+        return;
+      }
+      this.isClosed = true;
+      this.notifyAll();
+    }
+    try {
+      this.flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.channel.close();
+    synchronized (this) {
+      if (this.failure != null) {
+        throw this.failure;
+      }
+    }
+  }
+
+  /**
+   * Writes batches of appended records to the current segment until the log is closed,
+   * forcing every batch to disk before waking up the writers waiting for it.
+   */
+  private void flushLoop() {
+    while (true) {
+      byte[] batch;
+      long batchLsn;
+      long roll;
+      synchronized (this) {
+        while (this.buffer.size() == 0 && this.rollLsn < 0 && !this.isClosed) {
+          try {
+            this.wait();
+          } catch (InterruptedException e) {
+            // Only close() stops the flusher, so pending records are never lost.
+          }
+        }
+        if (this.buffer.size() == 0 && this.rollLsn < 0) {
+          return;
+        }
+        batch = this.buffer.toByteArray();
+        batchLsn = this.appendedLsn;
+        roll = this.rollLsn;
+        this.buffer = new ByteArrayOutputStream();
+        this.rollLsn = -1;
+      }
+      try {
+        long batchStart = batchLsn - batch.length;
+        int split = roll > this.segmentLsn ? (int) (roll - batchStart) : 0;
+        this.write(batch, 0, split);
+        if (roll > this.segmentLsn) {
+          this.channel.close();
+          this.channel = openSegment(this.directory, roll);
+          this.segmentLsn = roll;
+        }
+        this.write(batch, split, batch.length - split);
+        synchronized (this) {
+          this.durableLsn = batchLsn;
+          this.notifyAll();
+        }
+      } catch (IOException e) {
+        synchronized (this) {
+          this.failure = e;
+          this.notifyAll();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Writes a part of a batch to the current segment and forces it to disk.
+   *
+   * @param batch  the batch of records.
+   * @param offset the position of the part in the batch.
+   * @param length the length of the part.
+   * @throws IOException if the segment cannot be written.
+   */
+  private void write(byte[] batch, int offset, int length) throws IOException {
+    if (length == 0) {
+      return;
+    }
+    ByteBuffer bytes = ByteBuffer.wrap(batch, offset, length);
+    while (bytes.hasRemaining()) {
+      this.channel.write(bytes);
+    }
+    this.channel.force(false);
+  }
+
+  /**
+   * Reads every intact record of a segment, handing those after the given LSN to the consumer.
+   *
+   * @param segment      the segment to read.
+   * @param segmentStart the LSN the segment starts at.
+   * @param fromLsn      the LSN up to which the records are skipped.
+   * @param consumer     takes in the payload of every intact record after {@code fromLsn}.
+   * @return the length of the intact part of the segment.
+   * @throws IOException if the segment cannot be read.
+   */
+  private static long readRecords(FileChannel segment, long segmentStart, long fromLsn,
+                                  Consumer<byte[]> consumer) throws IOException {
+    long position = 0;
+    long size = segment.size();
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+    while (position + RECORD_HEADER_BYTES <= size) {
+      header.clear();
+      readFully(segment, header, position);
+      int length = header.getInt(0);
+      int storedChecksum = header.getInt(Integer.BYTES);
+      // Records are never empty, and the checksum of an empty payload is 0, so a zeroed header
+      // left by a crash after the file grew would otherwise pass as an intact record.
+      if (length <= 0 || position + RECORD_HEADER_BYTES + length > size) {
+        break;
+      }
+      ByteBuffer payload = ByteBuffer.allocate(length);
+      readFully(segment, payload, position + RECORD_HEADER_BYTES);
+      CRC32 checksum = new CRC32();
+      checksum.update(payload.array());
+      if ((int) checksum.getValue() != storedChecksum) {
+        break;
+      }
+      position += RECORD_HEADER_BYTES + length;
+      if (segmentStart + position > fromLsn) {
+        consumer.accept(payload.array());
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Fills a buffer with the bytes of a file, starting at the given position.
+   *
+   * @param channel  the file to read from.
+   * @param buffer   the buffer to fill.
+   * @param position the position in the file to start reading at.
+   * @throws IOException if the file cannot be read.
+   */
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of the write-ahead log.");
+      }
+    }
+  }
+
+  /**
+   * Returns the start LSNs of the segments in a directory, in ascending order.
+   *
+   * @param directory the directory holding the segment files.
+   * @return the sorted start LSNs of the segments.
+   * @throws IOException if the directory cannot be listed.
+   */
+  private static List<Long> listSegments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(it -> it.getFileName().toString())
+          .filter(it -> it.startsWith(SEGMENT_PREFIX) && it.endsWith(SEGMENT_SUFFIX))
+          .map(it -> Long.parseLong(it.substring(SEGMENT_PREFIX.length(),
+              it.length() - SEGMENT_SUFFIX.length())))
+          .sorted()
+          .toList();
+    }
+  }
+
+  /**
+   * Returns the path of the segment starting at the given LSN.
+   *
+   * @param directory the directory holding the segment files.
+   * @param lsn       the LSN the segment starts at.
+   * @return the path of the segment file.
+   */
+  private static Path segmentPath(Path directory, long lsn) {
+    return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, lsn, SEGMENT_SUFFIX));
+  }
+
+  /**
+   * Opens the segment starting at the given LSN for appending, creating it if needed.
+   *
+   * @param directory the directory holding the segment files.
+   * @param lsn       the LSN the segment starts at.
+   * @return the channel of the segment, positioned at its end.
+   * @throws IOException if the segment cannot be opened.
+   */
+  private static FileChannel openSegment(Path directory, long lsn) throws IOException {
+    FileChannel channel = FileChannel.open(segmentPath(directory, lsn),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    return channel;
+  }
+
+}
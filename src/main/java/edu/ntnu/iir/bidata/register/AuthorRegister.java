@@ -1,7 +1,8 @@
 package main.java.edu.ntnu.iir.bidata.register;
 
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import main.java.edu.ntnu.iir.bidata.models.Author;
 
 /**
@@ -12,6 +13,11 @@ import main.java.edu.ntnu.iir.bidata.models.Author;
  * throughout the runtime of the program.
  * </p>
  *
+ * <p>The register may be used from several threads at once, as both the username map and
+ * the full name index are concurrent, and each list of the full name index is only changed
+ * while its key is locked by the map.
+ * </p>
+ *
  * @author Kevin Holswilder
  * @see <a href="https://www.geeksforgeeks.org/java/singleton-class-java/">Singleton Method Design Pattern in Java</a>
  * @since 2025/10/21
@@ -19,15 +25,27 @@ import main.java.edu.ntnu.iir.bidata.models.Author;
 
 public class AuthorRegister {
 
-  private static AuthorRegister instance;
+  private final ConcurrentHashMap<String, Author> authorEntries;
 
-  private final HashMap<String, Author> authorEntries;
+  /**
+   * Index of the lower-cased full name of each {@link Author}, in order of registration.
+   */
+  private final ConcurrentHashMap<String, List<Author>> fullNameIndex;
 
   /**
    * Private constructor to prevent instantiation.
    */
   private AuthorRegister() {
-    this.authorEntries = new HashMap<>();
+    this.authorEntries = new ConcurrentHashMap<>();
+    this.fullNameIndex = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Holds the instance of the register. The class loader creates it exactly once,
+   * the first time the holder is used, and safely publishes it to every thread.
+   */
+  private static final class InstanceHolder {
+    private static final AuthorRegister INSTANCE = new AuthorRegister();
   }
 
   /**
@@ -36,10 +54,7 @@ public class AuthorRegister {
    * @return the single instance of the register.
    */
   static AuthorRegister getInstance() {
-    if (instance == null) {
-      instance = new AuthorRegister();
-    }
-    return instance;
+    return InstanceHolder.INSTANCE;
   }
 
   /**
@@ -58,10 +73,19 @@ public class AuthorRegister {
    * @return a {@link Author} where the full name match, if no match is found, returns null.
    */
   public Author getAuthorByFullName(String fullName) {
-    return this.getAuthors().stream()
-        .filter(it -> it.toString().equalsIgnoreCase(fullName))
-        .findFirst()
-        .orElse(null);
+    List<Author> authors = this.getAuthorsByFullName(fullName);
+    return authors.isEmpty() ? null : authors.getFirst();
+  }
+
+  /**
+   * Returns all {@link Author} objects where the full name matches the author's first and
+   * last name, as several authors may share the same name.
+   *
+   * @param fullName takes in a string consisting of the author's full name.
+   * @return a list of {@link Author} objects where the full name match, in order of registration.
+   */
+  public List<Author> getAuthorsByFullName(String fullName) {
+    return List.copyOf(this.fullNameIndex.getOrDefault(fullName.toLowerCase(), List.of()));
   }
 
   /**
@@ -70,7 +94,32 @@ public class AuthorRegister {
    * @param author adds an {@link Author} to the register.
    */
   public void addAuthor(Author author) {
-    this.authorEntries.putIfAbsent(author.getUsername().toLowerCase(), author);
+    if (this.authorEntries.putIfAbsent(author.getUsername().toLowerCase(), author) == null) {
+      this.fullNameIndex.compute(fullNameKey(author), (key, authors) -> {
+        List<Author> namesakes = authors == null ? new CopyOnWriteArrayList<>() : authors;
+        namesakes.add(author);
+        return namesakes;
+      });
+    }
+  }
+
+  /**
+   * Removes the {@link Author} with the given username from the register.
+   * The diary entries of the author are kept.
+   *
+   * @param username takes in the username of the {@link Author} to remove.
+   * @return true if an author was removed, false if no author was found.
+   */
+  public boolean removeAuthor(String username) {
+    Author author = this.authorEntries.remove(username.toLowerCase());
+    if (author == null) {
+      return false;
+    }
+    this.fullNameIndex.computeIfPresent(fullNameKey(author), (key, authors) -> {
+      authors.remove(author);
+      return authors.isEmpty() ? null : authors;
+    });
+    return true;
   }
 
   /**
@@ -82,4 +131,14 @@ public class AuthorRegister {
     return this.authorEntries.values().stream().toList();
   }
 
+  /**
+   * Returns the key of an {@link Author} in the full name index.
+   *
+   * @param author the {@link Author} to create the key of.
+   * @return the lower-cased full name of the author, matching {@link Author#toString()}.
+   */
+  private static String fullNameKey(Author author) {
+    return (author.getName() + " " + author.getSurname()).toLowerCase();
+  }
+
 }
@@ -0,0 +1,152 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents the statistics of the {@link DiaryEntry} objects written by one {@link Author}.
+ *
+ * <p>The counters are maintained by the {@link DiaryRegister} whenever an entry is added,
+ * removed or relabelled, so reading them never requires going through the entries.
+ * All methods hold the monitor of the statistics, as they may be read while being updated.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class AuthorStatistics {
+
+  private int entryCount;
+  private final EnumMap<RecipeLabel, Integer> labelCounts;
+  private final TreeMap<YearMonth, Integer> monthCounts;
+
+  /**
+   * Creates empty statistics.
+   */
+  AuthorStatistics() {
+    this.labelCounts = new EnumMap<>(RecipeLabel.class);
+    this.monthCounts = new TreeMap<>();
+  }
+
+  /**
+   * Returns the number of entries written by the author.
+   *
+   * @return the number of entries.
+   */
+  public synchronized int getEntryCount() {
+    return this.entryCount;
+  }
+
+  /**
+   * Returns the number of entries written by the author that carry the given label.
+   *
+   * @param label the {@link RecipeLabel} to count.
+   * @return the number of entries carrying the label.
+   */
+  public synchronized int getLabelCount(RecipeLabel label) {
+    return this.labelCounts.getOrDefault(label, 0);
+  }
+
+  /**
+   * Returns the number of entries written by the author in the given month.
+   *
+   * @param month the month to count.
+   * @return the number of entries written in the month.
+   */
+  public synchronized int getMonthCount(YearMonth month) {
+    return this.monthCounts.getOrDefault(month, 0);
+  }
+
+  /**
+   * Returns the number of entries written by the author per month.
+   *
+   * @return a read-only copy of the months with at least one entry, in chronological order.
+   */
+  public synchronized SortedMap<YearMonth, Integer> getMonthCounts() {
+    return Collections.unmodifiableSortedMap(new TreeMap<>(this.monthCounts));
+  }
+
+  /**
+   * Counts a {@link DiaryEntry} that was added to the register.
+   *
+   * @param diaryEntry the added {@link DiaryEntry}.
+   */
+  synchronized void countAdded(DiaryEntry diaryEntry) {
+    this.entryCount++;
+    this.monthCounts.merge(monthOf(diaryEntry.getDate()), 1, Integer::sum);
+    for (RecipeLabel label : diaryEntry.getRecipeLabels()) {
+      this.countLabelAdded(label);
+    }
+  }
+
+  /**
+   * Discounts a {@link DiaryEntry} that was removed from the register.
+   *
+   * @param diaryEntry the removed {@link DiaryEntry}.
+   */
+  synchronized void countRemoved(DiaryEntry diaryEntry) {
+    this.entryCount--;
+    decrement(this.monthCounts, monthOf(diaryEntry.getDate()));
+    for (RecipeLabel label : diaryEntry.getRecipeLabels()) {
+      this.countLabelRemoved(label);
+    }
+  }
+
+  /**
+   * Counts a label that was added to one of the author's entries.
+   *
+   * @param label the added {@link RecipeLabel}.
+   */
+  synchronized void countLabelAdded(RecipeLabel label) {
+    this.labelCounts.merge(label, 1, Integer::sum);
+  }
+
+  /**
+   * Discounts a label that was removed from one of the author's entries.
+   *
+   * @param label the removed {@link RecipeLabel}.
+   */
+  synchronized void countLabelRemoved(RecipeLabel label) {
+    decrement(this.labelCounts, label);
+  }
+
+  /**
+   * Returns true if the author has no entries left.
+   *
+   * @return true if the statistics are empty.
+   */
+  synchronized boolean isEmpty() {
+    return this.entryCount == 0;
+  }
+
+  /**
+   * Returns the month of a date.
+   *
+   * @param date the date.
+   * @return the month of the date.
+   */
+  private static YearMonth monthOf(LocalDate date) {
+    return YearMonth.from(date);
+  }
+
+  /**
+   * Decrements a counter, dropping it once it reaches zero.
+   *
+   * @param counts the counters.
+   * @param key    the key of the counter.
+   * @param <K>    the type of the key.
+   */
+  private static <K> void decrement(Map<K, Integer> counts, K key) {
+    counts.computeIfPresent(key, (it, count) -> count > 1 ? count - 1 : null);
+  }
+
+}
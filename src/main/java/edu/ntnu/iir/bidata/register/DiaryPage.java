@@ -0,0 +1,31 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.List;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents a single page of the results of a {@link DiaryRegister} query.
+ *
+ * <p>Results are always ordered by date and then by ID. The token of the next page only
+ * remembers where the page ended, so entries added or removed in between pages never cause
+ * the remaining results to be skipped or repeated.
+ * </p>
+ *
+ * @param entries       the {@link DiaryEntry} objects of the page, at most the page size.
+ * @param nextPageToken the opaque token of the next page, or null if this is the last page.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record DiaryPage(List<DiaryEntry> entries, String nextPageToken) {
+
+  /**
+   * Checks whether more results follow this page.
+   *
+   * @return true if the next page can be requested with {@link #nextPageToken()}.
+   */
+  public boolean hasNextPage() {
+    return this.nextPageToken != null;
+  }
+
+}
@@ -0,0 +1,239 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents a query of the {@link DiaryRegister} combining any number of criteria,
+ * every one of which a {@link DiaryEntry} must match.
+ *
+ * <p>A query starts out matching every entry, and each {@code with} method returns a copy
+ * with one more criterion, so queries can be built up step by step and shared freely.
+ * Titles, usernames and prompts are lower-cased, and keywords split into their words,
+ * so two queries asking for the same entries are equal.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ *     DiaryQuery query = DiaryQuery.all()
+ *         .withAuthors(List.of(author))
+ *         .withLabels(List.of(RecipeLabel.VEGAN), List.of(), List.of())
+ *         .withPeriod(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31))
+ *         .withPrompt("garlic");
+ *     DiaryPage page = RegisterHandler.getDiaryRegister().query(query, 10, null);
+ * </pre>
+ *
+ * @param title    the lower-cased title of the entries, or null to match any title.
+ * @param authors  the lower-cased usernames of which the author must be one,
+ *                 empty to match any author.
+ * @param allOf    the labels that every entry must carry.
+ * @param anyOf    the labels of which every entry must carry at least one, ignored if empty.
+ * @param noneOf   the labels that no entry may carry.
+ * @param start    the first date of the period, or null to match any date.
+ * @param end      the last date of the period, or null to match any date.
+ * @param prompt   the lower-cased text the content must contain, or null to match any content.
+ * @param keywords the words the title or content must contain, empty to match any words.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record DiaryQuery(String title, Set<String> authors, Set<RecipeLabel> allOf,
+                         Set<RecipeLabel> anyOf, Set<RecipeLabel> noneOf, LocalDate start,
+                         LocalDate end, String prompt, Set<String> keywords) {
+
+  /**
+   * The criteria a query can combine, ordered from the cheapest to check on a single entry
+   * to the most costly one.
+   */
+  public enum Criterion {
+    PERIOD, LABELS, AUTHOR, TITLE, KEYWORDS, PROMPT
+  }
+
+  private static final DiaryQuery ALL =
+      new DiaryQuery(null, Set.of(), Set.of(), Set.of(), Set.of(), null, null, null, Set.of());
+
+  /**
+   * Creates a query, normalizing and copying its criteria.
+   *
+   * @throws IllegalArgumentException if only one end of the period is given.
+   */
+  public DiaryQuery {
+    if ((start == null) != (end == null)) {
+      throw new IllegalArgumentException("A period needs both a start and an end date.");
+    }
+    title = title == null ? null : title.toLowerCase();
+    authors = authors.stream().map(String::toLowerCase).collect(Collectors.toUnmodifiableSet());
+    allOf = Set.copyOf(allOf);
+    anyOf = Set.copyOf(anyOf);
+    noneOf = Set.copyOf(noneOf);
+    prompt = prompt == null ? null : TrigramIndex.normalize(prompt);
+    keywords = Set.copyOf(keywords);
+  }
+
+  /**
+   * Returns the query matching every entry, which the {@code with} methods build upon.
+   *
+   * @return a query without criteria.
+   */
+  public static DiaryQuery all() {
+    return ALL;
+  }
+
+  /**
+   * Returns a copy of the query that only matches entries with the given title.
+   *
+   * @param title the title, ignoring case.
+   * @return the narrowed query.
+   * @throws IllegalArgumentException if the title is blank.
+   */
+  public DiaryQuery withTitle(String title) {
+    requireNonBlank(title, "title");
+    return new DiaryQuery(title, this.authors, this.allOf, this.anyOf, this.noneOf, this.start,
+        this.end, this.prompt, this.keywords);
+  }
+
+  /**
+   * Returns a copy of the query that only matches entries written by any of the given authors.
+   *
+   * @param authors the {@link Author}s whose entries to match.
+   * @return the narrowed query.
+   * @throws IllegalArgumentException if no author is given.
+   */
+  public DiaryQuery withAuthors(Collection<Author> authors) {
+    if (authors.isEmpty()) {
+      throw new IllegalArgumentException("At least one author must be given.");
+    }
+    Set<String> usernames = authors.stream().map(Author::getUsername).collect(Collectors.toSet());
+    return new DiaryQuery(this.title, usernames, this.allOf, this.anyOf, this.noneOf, this.start,
+        this.end, this.prompt, this.keywords);
+  }
+
+  /**
+   * Returns a copy of the query that only matches entries whose labels match a combination
+   * of {@link RecipeLabel}s, e.g. "vegan AND glutenfree AND NOT soyfree".
+   *
+   * @param allOf  the labels that every entry must carry.
+   * @param anyOf  the labels of which every entry must carry at least one, ignored if empty.
+   * @param noneOf the labels that no entry may carry.
+   * @return the narrowed query.
+   * @throws IllegalArgumentException if no label is given at all.
+   */
+  public DiaryQuery withLabels(Collection<RecipeLabel> allOf, Collection<RecipeLabel> anyOf,
+                               Collection<RecipeLabel> noneOf) {
+    if (allOf.isEmpty() && anyOf.isEmpty() && noneOf.isEmpty()) {
+      throw new IllegalArgumentException("At least one label must be given.");
+    }
+    return new DiaryQuery(this.title, this.authors, Set.copyOf(allOf), Set.copyOf(anyOf),
+        Set.copyOf(noneOf), this.start, this.end, this.prompt, this.keywords);
+  }
+
+  /**
+   * Returns a copy of the query that only matches entries dated between two dates,
+   * both included.
+   *
+   * @param start the first date of the period.
+   * @param end   the last date of the period.
+   * @return the narrowed query.
+   * @throws IllegalArgumentException if a date is missing.
+   */
+  public DiaryQuery withPeriod(LocalDate start, LocalDate end) {
+    if (start == null || end == null) {
+      throw new IllegalArgumentException("A period needs both a start and an end date.");
+    }
+    return new DiaryQuery(this.title, this.authors, this.allOf, this.anyOf, this.noneOf, start,
+        end, this.prompt, this.keywords);
+  }
+
+  /**
+   * Returns a copy of the query that only matches entries whose content contains the prompt.
+   *
+   * @param prompt the text to look for, ignoring case.
+   * @return the narrowed query.
+   * @throws IllegalArgumentException if the prompt is blank.
+   */
+  public DiaryQuery withPrompt(String prompt) {
+    requireNonBlank(prompt, "prompt");
+    return new DiaryQuery(this.title, this.authors, this.allOf, this.anyOf, this.noneOf,
+        this.start, this.end, prompt, this.keywords);
+  }
+
+  /**
+   * Returns a copy of the query that only matches entries whose title or content contains
+   * every word of the input as a whole word, ignoring case.
+   *
+   * @param keywords a string of one or more words.
+   * @return the narrowed query.
+   * @throws IllegalArgumentException if the input holds no words.
+   */
+  public DiaryQuery withKeywords(String keywords) {
+    Set<String> words = KeywordIndex.tokenize(keywords);
+    if (words.isEmpty()) {
+      throw new IllegalArgumentException("At least one keyword must be given.");
+    }
+    return new DiaryQuery(this.title, this.authors, this.allOf, this.anyOf, this.noneOf,
+        this.start, this.end, this.prompt, words);
+  }
+
+  /**
+   * Returns the criteria the query combines.
+   *
+   * @return the {@link Criterion} values of the query, empty if it matches every entry.
+   */
+  public Set<Criterion> criteria() {
+    EnumSet<Criterion> criteria = EnumSet.noneOf(Criterion.class);
+    if (this.start != null) {
+      criteria.add(Criterion.PERIOD);
+    }
+    if (!this.allOf.isEmpty() || !this.anyOf.isEmpty() || !this.noneOf.isEmpty()) {
+      criteria.add(Criterion.LABELS);
+    }
+    if (!this.authors.isEmpty()) {
+      criteria.add(Criterion.AUTHOR);
+    }
+    if (this.title != null) {
+      criteria.add(Criterion.TITLE);
+    }
+    if (!this.keywords.isEmpty()) {
+      criteria.add(Criterion.KEYWORDS);
+    }
+    if (this.prompt != null) {
+      criteria.add(Criterion.PROMPT);
+    }
+    return criteria;
+  }
+
+  /**
+   * Checks whether the labels of an entry match the label criterion of the query.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to check.
+   * @return true if the entry carries every label of allOf, one of anyOf and none of noneOf.
+   */
+  boolean matchesLabels(DiaryEntry diaryEntry) {
+    int mask = RecipeLabel.maskOf(diaryEntry.getRecipeLabels());
+    int anyMask = RecipeLabel.maskOf(this.anyOf);
+    int allMask = RecipeLabel.maskOf(this.allOf);
+    return (mask & allMask) == allMask
+        && (anyMask == 0 || (mask & anyMask) != 0)
+        && (mask & RecipeLabel.maskOf(this.noneOf)) == 0;
+  }
+
+  /**
+   * Throws if a string criterion is null or blank.
+   *
+   * @param value the value of the criterion.
+   * @param name  the name of the criterion, used in the message.
+   * @throws IllegalArgumentException if the value is null or blank.
+   */
+  private static void requireNonBlank(String value, String name) {
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("The " + name + " cannot be blank.");
+    }
+  }
+
+}
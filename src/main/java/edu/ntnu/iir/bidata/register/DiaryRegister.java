@@ -1,14 +1,30 @@
 package main.java.edu.ntnu.iir.bidata.register;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
 import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.models.EditHistory;
+import main.java.edu.ntnu.iir.bidata.models.VersionClock;
+import main.java.edu.ntnu.iir.bidata.register.DiaryQuery.Criterion;
 
 /**
  * Represents the {@link DiaryEntry} register.
@@ -18,6 +34,17 @@ import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
  * throughout the runtime of the program.
  * </p>
  *
+ * <p>The register may be used from several threads at once. Reads are lock-free and go
+ * through concurrent maps. Writes lock one of a fixed set of stripes, chosen by the
+ * username of the {@link Author}, so writers of different authors run in parallel while the
+ * indexes of a single entry are always updated as a whole.
+ * </p>
+ *
+ * <p>Long-running reads can open a {@link DiarySnapshot} instead, which sees the register as it
+ * was at a single point in time. Every add and remove is stamped with a sequence number of the
+ * {@link VersionClock}, and removed entries are kept aside until no open snapshot can see them.
+ * </p>
+ *
  * @author Kevin Holswilder
  * @see <a href="https://www.geeksforgeeks.org/java/singleton-class-java/">Singleton Method Design Pattern in Java</a>
  * @since 2025/10/16
@@ -25,15 +52,124 @@ import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
 
 public class DiaryRegister {
 
-  private static DiaryRegister instance;
+  private static final int LOCK_STRIPES = 64;
+
+  private final ConcurrentHashMap<UUID, DiaryEntry> diaryEntries;
+
+  /**
+   * Secondary indexes, kept in sync by {@link #addDiaryEntry(DiaryEntry)}
+   * and {@link #removeDiaryEntry(UUID)}.
+   */
+  private final ConcurrentHashMap<String, Set<DiaryEntry>> titleIndex;
+  private final ConcurrentHashMap<String, Set<DiaryEntry>> authorIndex;
+
+  /**
+   * Index of every {@link DiaryEntry} ordered by date, then by ID.
+   */
+  private final ConcurrentSkipListMap<DateKey, DiaryEntry> dateIndex;
+
+  /**
+   * Unique index on the normalized username and title of a {@link DiaryEntry}.
+   */
+  private final ConcurrentHashMap<TitleAuthorKey, DiaryEntry> titleAuthorIndex;
+
+  /**
+   * Bitmap index of the {@link RecipeLabel}s of each {@link DiaryEntry}.
+   */
+  private final LabelIndex labelIndex;
+
+  /**
+   * Inverted index of the words in the title and content of each {@link DiaryEntry}.
+   */
+  private final KeywordIndex keywordIndex;
+
+  /**
+   * Trigram index of the lower-cased content of each {@link DiaryEntry}.
+   */
+  private final TrigramIndex trigramIndex;
+
+  /**
+   * Index of the distinct lower-cased titles, searched by edit distance.
+   */
+  private final FuzzyTitleIndex fuzzyTitleIndex;
+
+  /**
+   * Index of the lower-cased titles of each {@link Author}, keyed by their lower-cased username,
+   * so the titles of a single author are searched without walking those of every other author.
+   */
+  private final ConcurrentHashMap<String, FuzzyTitleIndex> authorFuzzyTitleIndexes;
+
+  /**
+   * Statistics of each {@link Author}, keyed by their lower-cased username.
+   */
+  private final ConcurrentHashMap<String, AuthorStatistics> authorStatistics;
+
+  /**
+   * History of the line edits of each {@link DiaryEntry} whose content was edited, keyed by its ID.
+   */
+  private final ConcurrentHashMap<UUID, EditHistory> editHistories;
 
-  private final HashMap<UUID, DiaryEntry> diaryEntries;
+  /**
+   * Sequence number at which each registered {@link DiaryEntry} was added, keyed by its ID.
+   */
+  private final ConcurrentHashMap<UUID, Long> addedAt;
+
+  /**
+   * Removed entries that an open {@link DiarySnapshot} may still be able to see.
+   */
+  private final ConcurrentLinkedQueue<RemovedEntry> removedEntries;
+
+  /**
+   * Lock stripes guarding the writes of the authors whose username hashes to them.
+   */
+  private final Object[] locks;
+
+  /**
+   * Pages of query results, kept while the versions below that they depend on are unchanged.
+   */
+  private final QueryCache queryCache;
+
+  /**
+   * Versions raised after an entry is added or removed, a label changes, or content changes.
+   */
+  private final AtomicLong entriesVersion;
+  private final AtomicLong labelsVersion;
+  private final AtomicLong contentVersion;
 
   /**
    * Private constructor to prevent instantiation.
    */
   private DiaryRegister() {
-    this.diaryEntries = new HashMap<>();
+    this.diaryEntries = new ConcurrentHashMap<>();
+    this.titleIndex = new ConcurrentHashMap<>();
+    this.authorIndex = new ConcurrentHashMap<>();
+    this.dateIndex = new ConcurrentSkipListMap<>();
+    this.titleAuthorIndex = new ConcurrentHashMap<>();
+    this.labelIndex = new LabelIndex();
+    this.keywordIndex = new KeywordIndex(this.labelIndex);
+    this.trigramIndex = new TrigramIndex(this.labelIndex);
+    this.fuzzyTitleIndex = new FuzzyTitleIndex();
+    this.authorFuzzyTitleIndexes = new ConcurrentHashMap<>();
+    this.authorStatistics = new ConcurrentHashMap<>();
+    this.editHistories = new ConcurrentHashMap<>();
+    this.addedAt = new ConcurrentHashMap<>();
+    this.removedEntries = new ConcurrentLinkedQueue<>();
+    this.locks = new Object[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      this.locks[i] = new Object();
+    }
+    this.queryCache = new QueryCache();
+    this.entriesVersion = new AtomicLong();
+    this.labelsVersion = new AtomicLong();
+    this.contentVersion = new AtomicLong();
+  }
+
+  /**
+   * Holds the instance of the register. The class loader creates it exactly once,
+   * the first time the holder is used, and safely publishes it to every thread.
+   */
+  private static final class InstanceHolder {
+    private static final DiaryRegister INSTANCE = new DiaryRegister();
   }
 
   /**
@@ -42,19 +178,119 @@ public class DiaryRegister {
    * @return the single instance of the register.
    */
   static DiaryRegister getInstance() {
-    if (instance == null) {
-      instance = new DiaryRegister();
-    }
-    return instance;
+    return InstanceHolder.INSTANCE;
   }
 
   /**
    * Adds the given {@link DiaryEntry} to the register.
    *
+   * <p>An entry is rejected if it is already registered, or if its {@link Author}
+   * already has an entry with the same title.
+   *
    * @param diaryEntry takes in a {@link DiaryEntry} to add to the register.
+   * @return true if the entry was added, false if it was rejected.
    */
-  public void addDiaryEntry(DiaryEntry diaryEntry) {
-    this.diaryEntries.putIfAbsent(diaryEntry.getId(), diaryEntry);
+  public boolean addDiaryEntry(DiaryEntry diaryEntry) {
+    String username = normalize(diaryEntry.getAuthor().getUsername());
+    synchronized (this.lockFor(username)) {
+      if (this.diaryEntries.containsKey(diaryEntry.getId())) {
+        return false;
+      }
+      TitleAuthorKey key = TitleAuthorKey.of(diaryEntry.getTitle(), diaryEntry.getAuthor());
+      if (this.titleAuthorIndex.putIfAbsent(key, diaryEntry) != null) {
+        return false;
+      }
+      long sequence = VersionClock.begin();
+      try {
+        this.index(diaryEntry, username, sequence);
+        // Indexed after it is published, so a label query never finds an unknown entry.
+        this.labelIndex.add(diaryEntry);
+      } finally {
+        VersionClock.commit(sequence);
+      }
+      this.entriesVersion.incrementAndGet();
+      return true;
+    }
+  }
+
+  /**
+   * Adds several {@link DiaryEntry} objects to the register at once.
+   *
+   * <p>The entries are grouped by the lock stripe of their {@link Author}, and every group is
+   * added under a single hold of its stripe and a single sequence number of the
+   * {@link VersionClock}, with the labels of the whole group indexed in one go once the group is
+   * published. An entry is rejected for the same reasons as in
+   * {@link #addDiaryEntry(DiaryEntry)}, so of several entries with the same title and author
+   * only the first is added.
+   * </p>
+   *
+   * @param diaryEntries takes in the {@link DiaryEntry} objects to add to the register.
+   * @return the entries that were added, in the order they were given per {@link Author}.
+   */
+  public List<DiaryEntry> addDiaryEntries(Collection<DiaryEntry> diaryEntries) {
+    Map<Object, List<DiaryEntry>> entriesByLock = new LinkedHashMap<>();
+    for (DiaryEntry diaryEntry : diaryEntries) {
+      entriesByLock.computeIfAbsent(this.lockFor(normalize(diaryEntry.getAuthor().getUsername())),
+          it -> new ArrayList<>()).add(diaryEntry);
+    }
+    List<DiaryEntry> added = new ArrayList<>();
+    for (Map.Entry<Object, List<DiaryEntry>> group : entriesByLock.entrySet()) {
+      synchronized (group.getKey()) {
+        Set<UUID> acceptedIds = new HashSet<>();
+        List<DiaryEntry> accepted = new ArrayList<>();
+        for (DiaryEntry diaryEntry : group.getValue()) {
+          if (!this.diaryEntries.containsKey(diaryEntry.getId())
+              && acceptedIds.add(diaryEntry.getId())
+              && this.titleAuthorIndex.putIfAbsent(
+                  TitleAuthorKey.of(diaryEntry.getTitle(), diaryEntry.getAuthor()),
+                  diaryEntry) == null) {
+            accepted.add(diaryEntry);
+          }
+        }
+        if (accepted.isEmpty()) {
+          continue;
+        }
+        long sequence = VersionClock.begin();
+        try {
+          for (DiaryEntry diaryEntry : accepted) {
+            this.index(diaryEntry, normalize(diaryEntry.getAuthor().getUsername()), sequence);
+          }
+          this.labelIndex.addAll(accepted);
+        } finally {
+          VersionClock.commit(sequence);
+        }
+        this.entriesVersion.incrementAndGet();
+        added.addAll(accepted);
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Adds a {@link DiaryEntry} to every index but the label index, and publishes it.
+   *
+   * <p><i>Callers must hold the lock stripe of the author and the given sequence number.</i></p>
+   *
+   * @param diaryEntry the {@link DiaryEntry} to index.
+   * @param username   the normalized username of the {@link Author} of the entry.
+   * @param sequence   the sequence number at which the entry is added.
+   */
+  private void index(DiaryEntry diaryEntry, String username, long sequence) {
+    addToIndex(this.titleIndex, normalize(diaryEntry.getTitle()), diaryEntry);
+    this.fuzzyTitleIndex.add(normalize(diaryEntry.getTitle()));
+    this.authorFuzzyTitleIndexes.computeIfAbsent(username, it -> new FuzzyTitleIndex())
+        .add(normalize(diaryEntry.getTitle()));
+    addToIndex(this.authorIndex, username, diaryEntry);
+    this.dateIndex.put(DateKey.of(diaryEntry), diaryEntry);
+    // Only reserved here, the entry becomes live in the label index once it is published.
+    int ordinal = this.labelIndex.reserve(diaryEntry);
+    this.keywordIndex.add(ordinal, diaryEntry);
+    this.trigramIndex.add(ordinal, diaryEntry);
+    this.authorStatistics.computeIfAbsent(username, it -> new AuthorStatistics())
+        .countAdded(diaryEntry);
+    this.addedAt.put(diaryEntry.getId(), sequence);
+    // Published last, so an entry found in the register is already fully indexed.
+    this.diaryEntries.put(diaryEntry.getId(), diaryEntry);
   }
 
   /**
@@ -63,7 +299,170 @@ public class DiaryRegister {
    * @param diaryId takes in the ID of a {@link DiaryEntry} to remove.
    */
   public void removeDiaryEntry(UUID diaryId) {
-    this.diaryEntries.remove(diaryId);
+    DiaryEntry diaryEntry = this.diaryEntries.get(diaryId);
+    if (diaryEntry != null) {
+      this.removeDiaryEntry(diaryEntry);
+    }
+  }
+
+  /**
+   * Removes the {@link DiaryEntry} of the given {@link Author} with the given title.
+   *
+   * @param title  takes in the title of the {@link DiaryEntry} to remove.
+   * @param author takes in the {@link Author} of the {@link DiaryEntry} to remove.
+   * @return true if an entry was removed, false if no entry was found.
+   */
+  public boolean removeDiaryEntry(String title, Author author) {
+    DiaryEntry diaryEntry = this.titleAuthorIndex.get(TitleAuthorKey.of(title, author));
+    return diaryEntry != null && this.removeDiaryEntry(diaryEntry);
+  }
+
+  /**
+   * Removes a registered {@link DiaryEntry} from the register and all of its indexes.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to remove.
+   * @return true if the entry was removed, false if it was no longer registered.
+   */
+  private boolean removeDiaryEntry(DiaryEntry diaryEntry) {
+    String username = normalize(diaryEntry.getAuthor().getUsername());
+    synchronized (this.lockFor(username)) {
+      if (this.diaryEntries.get(diaryEntry.getId()) != diaryEntry) {
+        return false;
+      }
+      long sequence = VersionClock.begin();
+      int ordinal;
+      try {
+        // Kept aside before it is unpublished, so a snapshot never misses the entry.
+        this.removedEntries.add(
+            new RemovedEntry(diaryEntry, this.addedAt.get(diaryEntry.getId()), sequence));
+        this.addedAt.remove(diaryEntry.getId());
+        // Dropped from the labels before it is unpublished, as it was added to them after.
+        ordinal = this.labelIndex.remove(diaryEntry);
+        // Unpublished first, so an entry found in the register is still fully indexed.
+        this.diaryEntries.remove(diaryEntry.getId());
+      } finally {
+        VersionClock.commit(sequence);
+      }
+      removeFromIndex(this.titleIndex, normalize(diaryEntry.getTitle()), diaryEntry);
+      this.fuzzyTitleIndex.remove(normalize(diaryEntry.getTitle()));
+      this.authorFuzzyTitleIndexes.computeIfPresent(username, (it, index) -> {
+        index.remove(normalize(diaryEntry.getTitle()));
+        return index.isEmpty() ? null : index;
+      });
+      removeFromIndex(this.authorIndex, username, diaryEntry);
+      this.dateIndex.remove(DateKey.of(diaryEntry));
+      this.keywordIndex.remove(ordinal, diaryEntry);
+      this.trigramIndex.remove(ordinal, diaryEntry);
+      // Released last, so the ordinal is not reused while a text index still refers to it.
+      this.labelIndex.release(diaryEntry);
+      this.editHistories.remove(diaryEntry.getId());
+      this.authorStatistics.computeIfPresent(username, (it, statistics) -> {
+        statistics.countRemoved(diaryEntry);
+        return statistics.isEmpty() ? null : statistics;
+      });
+      this.titleAuthorIndex
+          .remove(TitleAuthorKey.of(diaryEntry.getTitle(), diaryEntry.getAuthor()), diaryEntry);
+      this.entriesVersion.incrementAndGet();
+    }
+    this.reclaim();
+    return true;
+  }
+
+  /**
+   * Adds a {@link RecipeLabel} to a {@link DiaryEntry}, keeping the label index up to date.
+   *
+   * @param diaryEntry  takes in the {@link DiaryEntry} to add the label to.
+   * @param recipeLabel takes in the {@link RecipeLabel} to add.
+   * @return true if the label was added, false if the entry already carried it.
+   */
+  public boolean addRecipeLabel(DiaryEntry diaryEntry, RecipeLabel recipeLabel) {
+    synchronized (this.lockFor(normalize(diaryEntry.getAuthor().getUsername()))) {
+      if (diaryEntry.hasRecipeLabel(recipeLabel)) {
+        return false;
+      }
+      diaryEntry.addRecipeLabel(recipeLabel);
+      this.labelIndex.addLabel(diaryEntry, recipeLabel);
+      this.labelsVersion.incrementAndGet();
+      AuthorStatistics statistics = this.getRegisteredStatistics(diaryEntry);
+      if (statistics != null) {
+        statistics.countLabelAdded(recipeLabel);
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Removes a {@link RecipeLabel} from a {@link DiaryEntry}, keeping the label index up to date.
+   *
+   * @param diaryEntry  takes in the {@link DiaryEntry} to remove the label from.
+   * @param recipeLabel takes in the {@link RecipeLabel} to remove.
+   * @return true if the label was removed, false if the entry did not carry it.
+   */
+  public boolean removeRecipeLabel(DiaryEntry diaryEntry, RecipeLabel recipeLabel) {
+    synchronized (this.lockFor(normalize(diaryEntry.getAuthor().getUsername()))) {
+      if (!diaryEntry.hasRecipeLabel(recipeLabel)) {
+        return false;
+      }
+      diaryEntry.removeRecipeLabel(recipeLabel);
+      this.labelIndex.removeLabel(diaryEntry, recipeLabel);
+      this.labelsVersion.incrementAndGet();
+      AuthorStatistics statistics = this.getRegisteredStatistics(diaryEntry);
+      if (statistics != null) {
+        statistics.countLabelRemoved(recipeLabel);
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Replaces a line of the content of a {@link DiaryEntry}, keeping the text indexes up to date.
+   * The edit of a registered entry is added to its {@link EditHistory}.
+   *
+   * @param diaryEntry takes in the {@link DiaryEntry} to edit.
+   * @param lineNumber takes in the line number of the content to be replaced.
+   * @param newContent takes in the new content of the line.
+   */
+  public void editContentLine(DiaryEntry diaryEntry, int lineNumber, String newContent) {
+    synchronized (this.lockFor(normalize(diaryEntry.getAuthor().getUsername()))) {
+      EditHistory editHistory = this.editHistories.get(diaryEntry.getId());
+      if (editHistory == null && this.diaryEntries.get(diaryEntry.getId()) == diaryEntry) {
+        editHistory = new EditHistory(diaryEntry.getContentLines());
+      }
+      String oldContent = diaryEntry.getContent();
+      diaryEntry.setContentLine(lineNumber, newContent);
+      if (editHistory != null) {
+        editHistory.record(lineNumber - 1, newContent, diaryEntry.getContentLines());
+        this.editHistories.putIfAbsent(diaryEntry.getId(), editHistory);
+      }
+      int ordinal = this.labelIndex.ordinalOf(diaryEntry);
+      if (ordinal >= 0) {
+        this.keywordIndex.update(ordinal, diaryEntry, oldContent);
+        this.trigramIndex.update(ordinal, diaryEntry, oldContent);
+      }
+      this.contentVersion.incrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the {@link EditHistory} of the line edits of a {@link DiaryEntry}.
+   *
+   * @param diaryEntry takes in a {@link DiaryEntry}.
+   * @return the {@link EditHistory} of the entry, which only holds its current content
+   *     if it was never edited.
+   */
+  public EditHistory getEditHistory(DiaryEntry diaryEntry) {
+    EditHistory editHistory = this.editHistories.get(diaryEntry.getId());
+    return editHistory != null ? editHistory : new EditHistory(diaryEntry.getContentLines());
+  }
+
+  /**
+   * Returns the {@link DiaryEntry} with the given ID.
+   *
+   * @param diaryId takes in the ID of a {@link DiaryEntry}.
+   * @return the {@link DiaryEntry} with the given ID, or null if no entry is found.
+   */
+  public DiaryEntry getDiaryEntryById(UUID diaryId) {
+    return this.diaryEntries.get(diaryId);
   }
 
   /**
@@ -73,8 +472,78 @@ public class DiaryRegister {
    * @return a list with {@link DiaryEntry} objects where the title matches the given string.
    */
   public List<DiaryEntry> getDiaryEntriesByTitle(String title) {
-    return this.getDiaryEntryStream().filter(it -> it.getTitle().equalsIgnoreCase(title))
-        .toList();
+    return lookup(this.titleIndex, normalize(title));
+  }
+
+  /**
+   * Returns a page of the {@link DiaryEntry} objects where the input matches the title.
+   *
+   * @param title     takes in a string.
+   * @param pageSize  takes in the maximum number of entries on the page.
+   * @param pageToken takes in the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries whose title matches the given string.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  public DiaryPage getDiaryEntriesByTitle(String title, int pageSize, String pageToken) {
+    PageCollector collector = new PageCollector(pageSize, pageToken);
+    this.titleIndex.getOrDefault(normalize(title), Collections.emptySet())
+        .forEach(collector::offer);
+    return collector.toPage();
+  }
+
+  /**
+   * Returns the registered titles closest to the input, for suggestions when no title matches.
+   *
+   * <p>Titles are compared case-insensitively by their Levenshtein distance, the number of
+   * characters inserted, deleted or replaced to turn one into the other. The closest titles come
+   * first, and titles at the same distance come in alphabetical order.
+   * </p>
+   *
+   * @param title       takes in a string.
+   * @param maxDistance takes in the largest distance of a returned title from the input.
+   * @param limit       takes in the maximum number of titles to return.
+   * @return a list of at most the limit of titles, as written in an entry carrying them.
+   * @throws IllegalArgumentException if the distance is negative, or the limit is not positive.
+   */
+  public List<String> getSimilarTitles(String title, int maxDistance, int limit) {
+    checkSimilarTitleBounds(maxDistance, limit);
+    List<String> similarTitles = new ArrayList<>();
+    for (String similarTitle : this.fuzzyTitleIndex.search(normalize(title), maxDistance, limit)) {
+      // The title may have lost its last entry since the search.
+      this.titleIndex.getOrDefault(similarTitle, Collections.emptySet()).stream().findAny()
+          .ifPresent(diaryEntry -> similarTitles.add(diaryEntry.getTitle()));
+    }
+    return similarTitles;
+  }
+
+  /**
+   * Returns the titles of the given {@link Author} closest to the input, for suggestions when
+   * the author has no entry with the title. Only the titles of the author are searched,
+   * compared as in {@link #getSimilarTitles(String, int, int)}.
+   *
+   * @param title       takes in a string.
+   * @param author      takes in the {@link Author} whose titles to search.
+   * @param maxDistance takes in the largest distance of a returned title from the input.
+   * @param limit       takes in the maximum number of titles to return.
+   * @return a list of at most the limit of titles, as written in the entries of the author.
+   * @throws IllegalArgumentException if the distance is negative, or the limit is not positive.
+   */
+  public List<String> getSimilarTitles(String title, Author author, int maxDistance,
+      int limit) {
+    checkSimilarTitleBounds(maxDistance, limit);
+    FuzzyTitleIndex index = this.authorFuzzyTitleIndexes.get(normalize(author.getUsername()));
+    if (index == null) {
+      return List.of();
+    }
+    List<String> similarTitles = new ArrayList<>();
+    for (String similarTitle : index.search(normalize(title), maxDistance, limit)) {
+      // The entry may have been removed since the search.
+      DiaryEntry diaryEntry = this.getDiaryEntryByTitleAndAuthor(similarTitle, author);
+      if (diaryEntry != null) {
+        similarTitles.add(diaryEntry.getTitle());
+      }
+    }
+    return similarTitles;
   }
 
   /**
@@ -86,11 +555,7 @@ public class DiaryRegister {
    *     returns null if no entry is found.
    */
   public DiaryEntry getDiaryEntryByTitleAndAuthor(String title, Author author) {
-    return this.getDiaryEntryStream()
-        .filter(it -> it.getTitle().equalsIgnoreCase(title)
-            && it.getAuthor().getUsername().equalsIgnoreCase(author.getUsername()))
-        .findFirst()
-        .orElse(null);
+    return this.titleAuthorIndex.get(TitleAuthorKey.of(title, author));
   }
 
   /**
@@ -100,9 +565,7 @@ public class DiaryRegister {
    * @return a list with {@link DiaryEntry} objects where the date matches the given date.
    */
   public List<DiaryEntry> getDiaryEntryByDate(LocalDate date) {
-    return this.getDiaryEntryStream()
-        .filter(it -> it.getDate().equals(date))
-        .toList();
+    return this.getDiaryEntriesBetweenPeriod(date, date);
   }
 
   /**
@@ -114,23 +577,126 @@ public class DiaryRegister {
    * @return a list with {@link DiaryEntry} objects where the date is between the given dates.
    */
   public List<DiaryEntry> getDiaryEntriesBetweenPeriod(LocalDate start, LocalDate end) {
-    return this.getDiaryEntryStream()
-        .filter(it -> !it.getDate().isBefore(start) && !it.getDate().isAfter(end))
-        .toList();
+    if (start.isAfter(end)) {
+      return List.of();
+    }
+    return List.copyOf(this.dateIndex.subMap(DateKey.first(start), true, DateKey.last(end), true)
+        .values());
+  }
+
+  /**
+   * Returns a page of the {@link DiaryEntry} objects where the date
+   * is in between the start and end date.
+   *
+   * <p>The date index is already ordered the way pages are, so only the entries of the page
+   * and the one after it are read, starting right after the token.
+   *
+   * @param start     takes in a {@link LocalDate} of the start of the period.
+   * @param end       takes in a {@link LocalDate} of the end of the period.
+   * @param pageSize  takes in the maximum number of entries on the page.
+   * @param pageToken takes in the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries whose date is between the given dates.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  public DiaryPage getDiaryEntriesBetweenPeriod(LocalDate start, LocalDate end, int pageSize,
+                                                String pageToken) {
+    PageCollector collector = new PageCollector(pageSize, pageToken);
+    this.collectBetween(DateKey.first(start), DateKey.last(end), collector, it -> true);
+    return collector.toPage();
   }
 
   /**
    * Returns a list of {@link DiaryEntry} objects where the content contains the input.
    *
+   * <p>Prompts of at least three characters are narrowed down through the trigram index
+   * before the content of the remaining candidates is checked.
+   *
    * @param prompt takes in a string.
    * @return a list with {@link DiaryEntry} objects where the content contains the given string.
    */
   public List<DiaryEntry> getDiaryEntriesByPrompt(String prompt) {
-    return this.getDiaryEntryStream()
-        .filter(it -> it.getContent().toLowerCase().contains(prompt.toLowerCase()))
+    String normalizedPrompt = TrigramIndex.normalize(prompt);
+    Collection<DiaryEntry> candidates = normalizedPrompt.length() < TrigramIndex.TRIGRAM_LENGTH
+        ? this.diaryEntries.values()
+        : this.trigramIndex.candidates(normalizedPrompt);
+    return candidates.stream()
+        .filter(it -> TrigramIndex.normalize(it.getContent()).contains(normalizedPrompt))
         .toList();
   }
 
+  /**
+   * Returns a page of the {@link DiaryEntry} objects where the content contains the input.
+   * The content is only checked for candidates that could still end up on the page.
+   *
+   * @param prompt    takes in a string.
+   * @param pageSize  takes in the maximum number of entries on the page.
+   * @param pageToken takes in the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries whose content contains the given string.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  public DiaryPage getDiaryEntriesByPrompt(String prompt, int pageSize, String pageToken) {
+    PageCollector collector = new PageCollector(pageSize, pageToken);
+    String normalizedPrompt = TrigramIndex.normalize(prompt);
+    Consumer<DiaryEntry> check = it -> {
+      if (collector.accepts(it)
+          && TrigramIndex.normalize(it.getContent()).contains(normalizedPrompt)) {
+        collector.offer(it);
+      }
+    };
+    if (normalizedPrompt.length() < TrigramIndex.TRIGRAM_LENGTH) {
+      this.diaryEntries.values().forEach(check);
+    } else {
+      this.trigramIndex.forEachCandidate(normalizedPrompt, check);
+    }
+    return collector.toPage();
+  }
+
+  /**
+   * Returns a list of {@link DiaryEntry} objects whose title or content contains
+   * every word of the input as a whole word, ignoring case.
+   *
+   * @param prompt takes in a string of one or more words.
+   * @return a list with {@link DiaryEntry} objects containing every word of the given string.
+   */
+  public List<DiaryEntry> getDiaryEntriesByKeywords(String prompt) {
+    return this.keywordIndex.search(prompt);
+  }
+
+  /**
+   * Returns a page of the {@link DiaryEntry} objects whose title or content contains
+   * every word of the input as a whole word, ignoring case.
+   *
+   * @param prompt    takes in a string of one or more words.
+   * @param pageSize  takes in the maximum number of entries on the page.
+   * @param pageToken takes in the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries containing every word of the given string.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  public DiaryPage getDiaryEntriesByKeywords(String prompt, int pageSize, String pageToken) {
+    PageCollector collector = new PageCollector(pageSize, pageToken);
+    this.keywordIndex.forEachMatch(prompt, collector::offer);
+    return collector.toPage();
+  }
+
+  /**
+   * Returns the {@link DiaryEntry} objects most relevant to the input, the most relevant first.
+   *
+   * <p>Every entry whose title or content contains any word of the input is scored with BM25,
+   * where words in the title count more than words in the content, and only the best-scoring
+   * entries are kept while scoring, instead of sorting every match.
+   *
+   * @param prompt takes in a string of one or more words.
+   * @param limit  takes in the maximum number of entries to return.
+   * @return a list of at most the limit of {@link DiaryEntry} objects, the most relevant first.
+   * @throws IllegalArgumentException if the limit is not positive.
+   */
+  public List<DiaryEntry> getDiaryEntriesByRelevance(String prompt, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("The limit must be at least 1.");
+    }
+    return this.keywordIndex.searchRanked(prompt, limit);
+  }
+
   /**
    * Returns a list of {@link DiaryEntry} objects where the recipe labels
    * contain the given {@link RecipeLabel}.
@@ -139,9 +705,45 @@ public class DiaryRegister {
    * @return a list with {@link DiaryEntry} objects whose list of labels match the given label.
    */
   public List<DiaryEntry> getDiaryEntriesByLabel(RecipeLabel recipeLabel) {
-    return this.getDiaryEntryStream()
-        .filter(it -> it.getRecipeLabels().contains(recipeLabel))
-        .toList();
+    return this.labelIndex.query(List.of(recipeLabel), List.of(), List.of());
+  }
+
+  /**
+   * Returns a list of {@link DiaryEntry} objects matching a combination of {@link RecipeLabel}s,
+   * e.g. "vegan AND glutenfree AND NOT soyfree".
+   *
+   * @param allOf  takes in the labels that every entry must carry.
+   * @param anyOf  takes in the labels of which every entry must carry at least one,
+   *               ignored if empty.
+   * @param noneOf takes in the labels that no entry may carry.
+   * @return a list with {@link DiaryEntry} objects whose labels match the combination.
+   */
+  public List<DiaryEntry> getDiaryEntriesByLabels(Collection<RecipeLabel> allOf,
+                                                  Collection<RecipeLabel> anyOf,
+                                                  Collection<RecipeLabel> noneOf) {
+    return this.labelIndex.query(allOf, anyOf, noneOf);
+  }
+
+  /**
+   * Returns a page of the {@link DiaryEntry} objects matching a combination of
+   * {@link RecipeLabel}s, e.g. "vegan AND glutenfree AND NOT soyfree".
+   *
+   * @param allOf     takes in the labels that every entry must carry.
+   * @param anyOf     takes in the labels of which every entry must carry at least one,
+   *                  ignored if empty.
+   * @param noneOf    takes in the labels that no entry may carry.
+   * @param pageSize  takes in the maximum number of entries on the page.
+   * @param pageToken takes in the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries whose labels match the combination.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  public DiaryPage getDiaryEntriesByLabels(Collection<RecipeLabel> allOf,
+                                           Collection<RecipeLabel> anyOf,
+                                           Collection<RecipeLabel> noneOf, int pageSize,
+                                           String pageToken) {
+    PageCollector collector = new PageCollector(pageSize, pageToken);
+    this.labelIndex.forEachMatch(allOf, anyOf, noneOf, collector::offer);
+    return collector.toPage();
   }
 
   /**
@@ -151,9 +753,187 @@ public class DiaryRegister {
    * @return a list of {@link DiaryEntry} objects where the input matches the given {@link Author}.
    */
   public List<DiaryEntry> getDiaryEntriesByAuthor(Author author) {
-    return this.getDiaryEntryStream()
-        .filter(it -> it.getAuthor().getUsername().equalsIgnoreCase(author.getUsername()))
-        .toList();
+    return lookup(this.authorIndex, normalize(author.getUsername()));
+  }
+
+  /**
+   * Returns a page of the {@link DiaryEntry} objects written by any of the given authors.
+   *
+   * @param authors   takes in the {@link Author}s whose entries to return.
+   * @param pageSize  takes in the maximum number of entries on the page.
+   * @param pageToken takes in the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries written by the given authors.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  public DiaryPage getDiaryEntriesByAuthors(Collection<Author> authors, int pageSize,
+                                            String pageToken) {
+    PageCollector collector = new PageCollector(pageSize, pageToken);
+    for (Author author : authors) {
+      this.authorIndex.getOrDefault(normalize(author.getUsername()), Collections.emptySet())
+          .forEach(collector::offer);
+    }
+    return collector.toPage();
+  }
+
+  /**
+   * Returns a page of the {@link DiaryEntry} objects matching every criterion of a
+   * {@link DiaryQuery}, e.g. "written by this author AND vegan AND in 2025 AND mentions garlic".
+   *
+   * <p>The query is answered the way {@link #planQuery(DiaryQuery)} describes. Only the index
+   * of the most selective criterion is read, and its entries are checked against the other
+   * criteria one by one, the cheapest first, and only if they could still end up on the page.
+   * If the period drives the query, or there are no criteria, the date index is read in page
+   * order, and reading stops as soon as the page is complete.
+   * </p>
+   *
+   * <p>Pages are cached, and a cached page is served until an entry is added or removed, or
+   * until a label or content changes that the criteria of the query depend on.
+   * </p>
+   *
+   * @param query     takes in a {@link DiaryQuery}.
+   * @param pageSize  takes in the maximum number of entries on the page.
+   * @param pageToken takes in the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries matching every criterion of the query.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  public DiaryPage query(DiaryQuery query, int pageSize, String pageToken) {
+    QueryCache.Key key = new QueryCache.Key(query, pageSize, pageToken);
+    // Read before the page is computed, so a change made meanwhile makes the page stale.
+    QueryCache.Versions versions = new QueryCache.Versions(this.entriesVersion.get(),
+        this.labelsVersion.get(), this.contentVersion.get());
+    DiaryPage page = this.queryCache.get(key, versions);
+    if (page == null) {
+      page = this.runQuery(query, pageSize, pageToken);
+      this.queryCache.put(key, page, versions);
+    }
+    return page;
+  }
+
+  /**
+   * Returns the counters of the cache of {@link #query(DiaryQuery, int, String)} results.
+   *
+   * @return the {@link QueryCacheStatistics} of the register.
+   */
+  public QueryCacheStatistics getQueryCacheStatistics() {
+    return this.queryCache.getStatistics();
+  }
+
+  /**
+   * Computes a page of the results of a {@link DiaryQuery}, bypassing the cache.
+   *
+   * @param query     the {@link DiaryQuery} to run.
+   * @param pageSize  the maximum number of entries on the page.
+   * @param pageToken the token of the page, or null for the first page.
+   * @return a {@link DiaryPage} of entries matching every criterion of the query.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  private DiaryPage runQuery(DiaryQuery query, int pageSize, String pageToken) {
+    PageCollector collector = new PageCollector(pageSize, pageToken);
+    QueryPlan plan = this.planQuery(query);
+    Predicate<DiaryEntry> filter = it -> collector.accepts(it)
+        && this.matchesAll(query, plan.filters(), it);
+    Consumer<DiaryEntry> check = it -> {
+      if (filter.test(it)) {
+        collector.offer(it);
+      }
+    };
+    if (plan.isFullScan()) {
+      this.collectBetween(DateKey.first(LocalDate.MIN), DateKey.last(LocalDate.MAX), collector,
+          filter);
+      return collector.toPage();
+    }
+    switch (plan.driver()) {
+      case PERIOD -> this.collectBetween(DateKey.first(query.start()), DateKey.last(query.end()),
+          collector, filter);
+      case LABELS ->
+          this.labelIndex.forEachMatch(query.allOf(), query.anyOf(), query.noneOf(), check);
+      case AUTHOR -> query.authors().forEach(username -> this.authorIndex
+          .getOrDefault(username, Collections.emptySet()).forEach(check));
+      case TITLE -> this.titleIndex.getOrDefault(query.title(), Collections.emptySet())
+          .forEach(check);
+      case KEYWORDS -> this.keywordIndex.forEachMatch(query.keywords(), check);
+      case PROMPT -> {
+        if (query.prompt().length() < TrigramIndex.TRIGRAM_LENGTH) {
+          this.diaryEntries.values().forEach(check);
+        } else {
+          this.trigramIndex.forEachCandidate(query.prompt(), check);
+        }
+      }
+      default -> throw new IllegalStateException("Unknown criterion: " + plan.driver());
+    }
+    return collector.toPage();
+  }
+
+  /**
+   * Returns how a {@link DiaryQuery} would be answered, without running it.
+   *
+   * <p>The number of entries matching each criterion on its own is read from the statistics
+   * its index already keeps: the size of a title or author bucket, the number of set bits of
+   * the label bitmaps, and the length of the shortest posting list of the keywords or of the
+   * trigrams of the prompt. A prompt shorter than a trigram cannot be looked up, and counts as
+   * every entry. The date index keeps no counts, so the entries of the period are counted, but
+   * only until the period is known to match more entries than another criterion.
+   * </p>
+   *
+   * <p>The criterion with the fewest entries drives the query, with ties going to the period
+   * since its entries are read in page order. The rest are checked as filters.
+   * </p>
+   *
+   * @param query takes in a {@link DiaryQuery}.
+   * @return the {@link QueryPlan} of the query.
+   */
+  public QueryPlan planQuery(DiaryQuery query) {
+    Set<Criterion> criteria = query.criteria();
+    Criterion driver = null;
+    long estimate = this.diaryEntries.size();
+    for (Criterion criterion : criteria) {
+      if (criterion == Criterion.PERIOD) {
+        continue;
+      }
+      long candidates = this.estimate(query, criterion);
+      if (driver == null || candidates < estimate) {
+        driver = criterion;
+        estimate = candidates;
+      }
+    }
+    if (criteria.contains(Criterion.PERIOD)) {
+      // A period on its own is read in page order anyway, so counting it would be wasted.
+      long candidates = driver == null
+          ? estimate : this.countBetweenPeriod(query.start(), query.end(), estimate);
+      if (candidates <= estimate) {
+        driver = Criterion.PERIOD;
+        estimate = candidates;
+      }
+    }
+
+    List<Criterion> filters = new ArrayList<>();
+    for (Criterion criterion : criteria) {
+      if (criterion != driver || criterion == Criterion.PROMPT) {
+        filters.add(criterion);
+      }
+    }
+    return new QueryPlan(driver, estimate, List.copyOf(filters));
+  }
+
+  /**
+   * Returns the statistics of the {@link DiaryEntry} objects written by an {@link Author}.
+   *
+   * @param author takes in an {@link Author}.
+   * @return the {@link AuthorStatistics} of the author, or null if they have no entries.
+   */
+  public AuthorStatistics getAuthorStatistics(Author author) {
+    return this.authorStatistics.get(normalize(author.getUsername()));
+  }
+
+  /**
+   * Returns the number of {@link DiaryEntry} objects written by an {@link Author}.
+   *
+   * @param author takes in an {@link Author}.
+   * @return the number of entries written by the author.
+   */
+  public int getDiaryEntryCountByAuthor(Author author) {
+    AuthorStatistics statistics = this.getAuthorStatistics(author);
+    return statistics == null ? 0 : statistics.getEntryCount();
   }
 
   /**
@@ -171,7 +951,393 @@ public class DiaryRegister {
    * @return a sorted list of {@link DiaryEntry} objects by date.
    */
   public List<DiaryEntry> getDiaryEntriesSortedByDate() {
-    return this.getDiaryEntryStream().sorted(Comparator.comparing(DiaryEntry::getDate)).toList();
+    return List.copyOf(this.dateIndex.values());
+  }
+
+  /**
+   * Returns an estimate of the heap taken up by the {@link DiaryEntry} objects in the register.
+   *
+   * @return the {@link FootprintReport} of the register.
+   */
+  public FootprintReport getFootprintReport() {
+    return FootprintReport.of(this.diaryEntries.values());
+  }
+
+  /**
+   * Opens a {@link DiarySnapshot} of the register as it is now.
+   * The snapshot must be closed once it is no longer used.
+   *
+   * @return a new {@link DiarySnapshot} of the register.
+   */
+  public DiarySnapshot openSnapshot() {
+    return new DiarySnapshot(this, VersionClock.pin());
+  }
+
+  /**
+   * Returns the entries that were registered at the given sequence number,
+   * as read-only views of how they were at that point.
+   *
+   * @param sequence the pinned sequence number to read at.
+   * @return a list of read-only {@link DiaryEntry} views.
+   */
+  List<DiaryEntry> getDiaryEntriesAt(long sequence) {
+    Map<UUID, DiaryEntry> visible = new HashMap<>();
+    for (DiaryEntry diaryEntry : this.diaryEntries.values()) {
+      Long added = this.addedAt.get(diaryEntry.getId());
+      if (added != null && added <= sequence) {
+        visible.put(diaryEntry.getId(), diaryEntry);
+      }
+    }
+    // Read after the live entries, so an entry removed in between is found here instead.
+    for (RemovedEntry removed : this.removedEntries) {
+      if (removed.isVisibleAt(sequence)) {
+        visible.putIfAbsent(removed.diaryEntry().getId(), removed.diaryEntry());
+      }
+    }
+    return visible.values().stream().map(it -> it.atSequence(sequence)).toList();
+  }
+
+  /**
+   * Returns the next entries in date order that were registered at the given sequence number,
+   * as read-only views of how they were at that point.
+   *
+   * <p>Only up to the given number of keys of the date index are read at a time, along with the
+   * removed entries whose keys fall in the same range, so a whole register can be walked through
+   * in constant memory by passing the last entry of every chunk to the next call.
+   * </p>
+   *
+   * @param sequence the pinned sequence number to read at.
+   * @param after    the last entry of the previous chunk, or null to start at the first entry.
+   * @param limit    the number of keys of the date index to read at a time.
+   * @return the next read-only {@link DiaryEntry} views ordered by date and ID,
+   *         or an empty list once every entry has been returned.
+   */
+  List<DiaryEntry> getDiaryEntriesSortedByDateAt(long sequence, DiaryEntry after, int limit) {
+    DateKey from = after == null ? null : DateKey.of(after);
+    while (true) {
+      TreeMap<DateKey, DiaryEntry> visible = new TreeMap<>();
+      DateKey to = null;
+      int count = 0;
+      for (Map.Entry<DateKey, DiaryEntry> indexed
+          : (from == null ? this.dateIndex : this.dateIndex.tailMap(from, false)).entrySet()) {
+        Long added = this.addedAt.get(indexed.getValue().getId());
+        if (added != null && added <= sequence) {
+          visible.put(indexed.getKey(), indexed.getValue());
+        }
+        to = indexed.getKey();
+        if (++count == limit) {
+          break;
+        }
+      }
+      // A chunk that is not full ends the index, so every later removed entry belongs to it.
+      DateKey last = count == limit ? to : null;
+      // Read after the live entries, so an entry removed in between is found here instead.
+      for (RemovedEntry removed : this.removedEntries) {
+        DateKey key = DateKey.of(removed.diaryEntry());
+        if (removed.isVisibleAt(sequence) && (from == null || key.compareTo(from) > 0)
+            && (last == null || key.compareTo(last) <= 0)) {
+          visible.putIfAbsent(key, removed.diaryEntry());
+        }
+      }
+      if (!visible.isEmpty() || last == null) {
+        return visible.values().stream().map(it -> it.atSequence(sequence)).toList();
+      }
+      from = last;
+    }
+  }
+
+  /**
+   * Drops the removed entries that no open or future {@link DiarySnapshot} can see anymore.
+   */
+  void reclaim() {
+    long oldestNeeded = VersionClock.oldestNeeded();
+    this.removedEntries.removeIf(it -> it.removedAt() <= oldestNeeded);
+  }
+
+  /**
+   * Returns the statistics of the author of a {@link DiaryEntry},
+   * if the entry itself is registered.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to look up.
+   * @return the {@link AuthorStatistics} of the author, or null if the entry is not registered.
+   */
+  private AuthorStatistics getRegisteredStatistics(DiaryEntry diaryEntry) {
+    if (this.diaryEntries.get(diaryEntry.getId()) != diaryEntry) {
+      return null;
+    }
+    return this.authorStatistics.get(normalize(diaryEntry.getAuthor().getUsername()));
+  }
+
+  /**
+   * Offers the entries of the date index between two keys to a collector in page order,
+   * starting after the cursor of the collector and stopping once its page is complete.
+   *
+   * @param from      the lowest key to read.
+   * @param to        the highest key to read.
+   * @param collector the {@link PageCollector} of the page.
+   * @param filter    checks whether an entry is offered to the collector.
+   */
+  private void collectBetween(DateKey from, DateKey to, PageCollector collector,
+                              Predicate<DiaryEntry> filter) {
+    if (collector.hasCursor()) {
+      DateKey cursor = new DateKey(collector.getCursorEpochDay(), collector.getCursorId());
+      from = cursor.compareTo(from) > 0 ? cursor : from;
+    }
+    if (from.compareTo(to) > 0) {
+      return;
+    }
+    for (DiaryEntry diaryEntry : this.dateIndex.subMap(from, true, to, true).values()) {
+      if (filter.test(diaryEntry)) {
+        collector.offer(diaryEntry);
+      }
+      if (collector.isFull()) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of entries matching a single criterion of a query, or an upper bound
+   * of it, as kept by the index of the criterion. Periods are counted by
+   * {@link #countBetweenPeriod(LocalDate, LocalDate, long)} instead.
+   *
+   * @param query     the {@link DiaryQuery} holding the criterion.
+   * @param criterion the {@link Criterion} to estimate.
+   * @return the estimated number of matching entries.
+   */
+  private long estimate(DiaryQuery query, Criterion criterion) {
+    return switch (criterion) {
+      case LABELS -> this.labelIndex.count(query.allOf(), query.anyOf(), query.noneOf());
+      case AUTHOR -> query.authors().stream()
+          .mapToLong(it -> this.authorIndex.getOrDefault(it, Collections.emptySet()).size())
+          .sum();
+      case TITLE -> this.titleIndex.getOrDefault(query.title(), Collections.emptySet()).size();
+      case KEYWORDS -> this.keywordIndex.estimate(query.keywords());
+      case PROMPT -> query.prompt().length() < TrigramIndex.TRIGRAM_LENGTH
+          ? this.diaryEntries.size() : this.trigramIndex.estimate(query.prompt());
+      default -> this.diaryEntries.size();
+    };
+  }
+
+  /**
+   * Counts the entries dated between two dates, but stops counting once there are more than
+   * the limit, as the exact number is then of no use.
+   *
+   * @param start the first date of the period.
+   * @param end   the last date of the period.
+   * @param limit the number of entries beyond which counting stops.
+   * @return the number of entries, or the limit plus one if there are more.
+   */
+  private long countBetweenPeriod(LocalDate start, LocalDate end, long limit) {
+    if (start.isAfter(end)) {
+      return 0;
+    }
+    long count = 0;
+    for (DateKey ignored : this.dateIndex.subMap(DateKey.first(start), true, DateKey.last(end),
+        true).keySet()) {
+      if (++count > limit) {
+        break;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks an entry against the given criteria of a query, in order,
+   * stopping at the first one it does not match.
+   *
+   * @param query      the {@link DiaryQuery} holding the criteria.
+   * @param criteria   the criteria to check.
+   * @param diaryEntry the {@link DiaryEntry} to check.
+   * @return true if the entry matches every given criterion.
+   */
+  private boolean matchesAll(DiaryQuery query, List<Criterion> criteria, DiaryEntry diaryEntry) {
+    for (Criterion criterion : criteria) {
+      boolean isMatch = switch (criterion) {
+        case PERIOD -> diaryEntry.getEpochDay() >= query.start().toEpochDay()
+            && diaryEntry.getEpochDay() <= query.end().toEpochDay();
+        case LABELS -> query.matchesLabels(diaryEntry);
+        case AUTHOR -> query.authors().contains(normalize(diaryEntry.getAuthor().getUsername()));
+        case TITLE -> normalize(diaryEntry.getTitle()).equals(query.title());
+        case KEYWORDS -> this.keywordIndex.containsAll(diaryEntry, query.keywords());
+        case PROMPT -> TrigramIndex.normalize(diaryEntry.getContent()).contains(query.prompt());
+      };
+      if (!isMatch) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the lock stripe guarding the writes of an author.
+   *
+   * @param username the normalized username of the {@link Author}.
+   * @return the lock of the author.
+   */
+  private Object lockFor(String username) {
+    return this.locks[Math.floorMod(username.hashCode(), LOCK_STRIPES)];
+  }
+
+  /**
+   * Normalizes a string key used by the secondary indexes.
+   *
+   * @param key the key to normalize.
+   * @return the lower-cased key.
+   */
+  private static String normalize(String key) {
+    return key.toLowerCase();
+  }
+
+  /**
+   * Checks the bounds of a search for similar titles.
+   *
+   * @param maxDistance the largest distance of a returned title.
+   * @param limit       the maximum number of titles to return.
+   * @throws IllegalArgumentException if the distance is negative, or the limit is not positive.
+   */
+  private static void checkSimilarTitleBounds(int maxDistance, int limit) {
+    if (maxDistance < 0) {
+      throw new IllegalArgumentException("The distance must be at least 0.");
+    }
+    if (limit < 1) {
+      throw new IllegalArgumentException("The limit must be at least 1.");
+    }
+  }
+
+  /**
+   * Adds a {@link DiaryEntry} to the bucket of the given key in an index.
+   *
+   * @param index      the index to add the entry to.
+   * @param key        the key of the bucket.
+   * @param diaryEntry the {@link DiaryEntry} to add.
+   * @param <K>        the type of the index key.
+   */
+  private static <K> void addToIndex(Map<K, Set<DiaryEntry>> index, K key,
+                                     DiaryEntry diaryEntry) {
+    index.compute(key, (it, bucket) -> {
+      Set<DiaryEntry> entries = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+      entries.add(diaryEntry);
+      return entries;
+    });
+  }
+
+  /**
+   * Removes a {@link DiaryEntry} from the bucket of the given key in an index,
+   * dropping the bucket once it is empty.
+   *
+   * @param index      the index to remove the entry from.
+   * @param key        the key of the bucket.
+   * @param diaryEntry the {@link DiaryEntry} to remove.
+   * @param <K>        the type of the index key.
+   */
+  private static <K> void removeFromIndex(Map<K, Set<DiaryEntry>> index, K key,
+                                          DiaryEntry diaryEntry) {
+    index.computeIfPresent(key, (it, bucket) -> {
+      bucket.remove(diaryEntry);
+      return bucket.isEmpty() ? null : bucket;
+    });
+  }
+
+  /**
+   * Returns the entries stored under the given key in an index.
+   *
+   * @param index the index to look in.
+   * @param key   the key of the bucket.
+   * @param <K>   the type of the index key.
+   * @return a list of {@link DiaryEntry} objects, empty if the key is not indexed.
+   */
+  private static <K> List<DiaryEntry> lookup(Map<K, Set<DiaryEntry>> index, K key) {
+    return List.copyOf(index.getOrDefault(key, Collections.emptySet()));
+  }
+
+  /**
+   * Key of the unique (author, title) index, holding the normalized username and title.
+   *
+   * @param username the normalized username of the {@link Author}.
+   * @param title    the normalized title of the {@link DiaryEntry}.
+   */
+  private record TitleAuthorKey(String username, String title) {
+
+    /**
+     * Creates a key from a raw title and {@link Author}.
+     *
+     * @param title  the title of the {@link DiaryEntry}.
+     * @param author the {@link Author} of the {@link DiaryEntry}.
+     * @return the normalized key.
+     */
+    static TitleAuthorKey of(String title, Author author) {
+      return new TitleAuthorKey(normalize(author.getUsername()), normalize(title));
+    }
+  }
+
+  /**
+   * A removed {@link DiaryEntry}, along with the sequence numbers at which it was added
+   * and removed.
+   *
+   * @param diaryEntry the removed {@link DiaryEntry}.
+   * @param addedAt    the sequence number at which the entry was added.
+   * @param removedAt  the sequence number at which the entry was removed.
+   */
+  private record RemovedEntry(DiaryEntry diaryEntry, long addedAt, long removedAt) {
+
+    /**
+     * Checks whether a snapshot at the given sequence number still sees the entry.
+     *
+     * @param sequence the sequence number of the snapshot.
+     * @return true if the entry was added at or before, and removed after the sequence number.
+     */
+    boolean isVisibleAt(long sequence) {
+      return this.addedAt <= sequence && sequence < this.removedAt;
+    }
+  }
+
+  /**
+   * Key of the date index, ordering entries by epoch day and then by ID.
+   *
+   * @param epochDay the epoch day of the {@link DiaryEntry} date.
+   * @param id       the ID of the {@link DiaryEntry}.
+   */
+  private record DateKey(long epochDay, UUID id) implements Comparable<DateKey> {
+
+    private static final UUID FIRST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final UUID LAST_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Creates the key of a {@link DiaryEntry}.
+     *
+     * @param diaryEntry the {@link DiaryEntry} to create the key of.
+     * @return the key of the entry.
+     */
+    static DateKey of(DiaryEntry diaryEntry) {
+      return new DateKey(diaryEntry.getEpochDay(), diaryEntry.getId());
+    }
+
+    /**
+     * Creates a key ordered before every entry on the given date.
+     *
+     * @param date the date of the key.
+     * @return the lowest key of the date.
+     */
+    static DateKey first(LocalDate date) {
+      return new DateKey(date.toEpochDay(), FIRST_ID);
+    }
+
+    /**
+     * Creates a key ordered after every entry on the given date.
+     *
+     * @param date the date of the key.
+     * @return the highest key of the date.
+     */
+    static DateKey last(LocalDate date) {
+      return new DateKey(date.toEpochDay(), LAST_ID);
+    }
+
+    @Override
+    public int compareTo(DateKey other) {
+      int compared = Long.compare(this.epochDay, other.epochDay);
+      return compared != 0 ? compared : this.id.compareTo(other.id);
+    }
   }
 
   /**
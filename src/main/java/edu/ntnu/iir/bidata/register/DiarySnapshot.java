@@ -0,0 +1,163 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.models.VersionClock;
+
+/**
+ * Represents a consistent, point-in-time view of the {@link DiaryRegister}.
+ *
+ * <p>A snapshot pins a sequence number of the {@link VersionClock} when it is opened.
+ * Every read through the snapshot returns the entries that were registered at that point,
+ * as read-only views of their content and labels at that point, no matter what writers
+ * do in the meantime. Writers are never blocked by an open snapshot.
+ * </p>
+ *
+ * <p>A snapshot keeps older versions of edited and removed entries alive, so it should be
+ * closed as soon as the read is done, preferably through a try-with-resources statement.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @see DiaryRegister#openSnapshot()
+ * @since 2026/10/17
+ */
+
+public final class DiarySnapshot implements AutoCloseable {
+
+  /**
+   * The number of keys of the date index read at a time while streaming in date order.
+   */
+  static final int STREAM_CHUNK_SIZE = 1024;
+
+  private final DiaryRegister register;
+  private final long sequence;
+  private boolean isClosed;
+
+  /**
+   * Creates a snapshot of the register at a pinned sequence number.
+   *
+   * @param register the {@link DiaryRegister} to read from.
+   * @param sequence the sequence number pinned through {@link VersionClock#pin()}.
+   */
+  DiarySnapshot(DiaryRegister register, long sequence) {
+    this.register = register;
+    this.sequence = sequence;
+    this.isClosed = false;
+  }
+
+  /**
+   * Returns the sequence number the snapshot reads at.
+   *
+   * @return the pinned sequence number.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Returns a list of every {@link DiaryEntry} in the snapshot.
+   *
+   * @return a list of read-only {@link DiaryEntry} views.
+   */
+  public List<DiaryEntry> getDiaryEntries() {
+    this.ensureOpen();
+    return this.register.getDiaryEntriesAt(this.sequence);
+  }
+
+  /**
+   * Returns a list of every {@link DiaryEntry} in the snapshot, sorted by their date.
+   *
+   * @return a sorted list of read-only {@link DiaryEntry} views.
+   */
+  public List<DiaryEntry> getDiaryEntriesSortedByDate() {
+    return this.streamDiaryEntriesSortedByDate().toList();
+  }
+
+  /**
+   * Returns a lazy stream of every {@link DiaryEntry} in the snapshot, sorted by their date.
+   *
+   * <p>The entries are read from the date index of the register a chunk at a time while the
+   * stream is consumed, so walking through the stream takes the same memory however large the
+   * register is. The stream must be consumed before the snapshot is closed.
+   * </p>
+   *
+   * @return a sequential stream of read-only {@link DiaryEntry} views, ordered by date and ID.
+   */
+  public Stream<DiaryEntry> streamDiaryEntriesSortedByDate() {
+    this.ensureOpen();
+    Iterator<DiaryEntry> iterator = new Iterator<>() {
+      private List<DiaryEntry> chunk = List.of();
+      private int position = 0;
+      private boolean isExhausted = false;
+
+      @Override
+      public boolean hasNext() {
+        if (this.position == this.chunk.size() && !this.isExhausted) {
+          DiarySnapshot.this.ensureOpen();
+          DiaryEntry after = this.chunk.isEmpty() ? null : this.chunk.getLast();
+          this.chunk = DiarySnapshot.this.register.getDiaryEntriesSortedByDateAt(
+              DiarySnapshot.this.sequence, after, STREAM_CHUNK_SIZE);
+          this.position = 0;
+          this.isExhausted = this.chunk.isEmpty();
+        }
+        return this.position < this.chunk.size();
+      }
+
+      @Override
+      public DiaryEntry next() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return this.chunk.get(this.position++);
+      }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Returns a list of every {@link DiaryEntry} in the snapshot written by an {@link Author}.
+   *
+   * @param author takes in an {@link Author}.
+   * @return a list of read-only {@link DiaryEntry} views written by the given {@link Author}.
+   */
+  public List<DiaryEntry> getDiaryEntriesByAuthor(Author author) {
+    String username = author.getUsername();
+    return this.getDiaryEntries().stream()
+        .filter(it -> it.getAuthor().getUsername().equalsIgnoreCase(username))
+        .toList();
+  }
+
+  /**
+   * Releases the snapshot, allowing the versions only it needed to be reclaimed.
+   * Closing a snapshot more than once has no effect.
+   */
+  @Override
+  public synchronized void close() {
+    if (this.isClosed) {
+      return;
+    }
+    this.isClosed = true;
+    VersionClock.unpin(this.sequence);
+    this.register.reclaim();
+  }
+
+  /**
+   * Ensures the snapshot has not been closed yet.
+   *
+   * @throws IllegalStateException if the snapshot is closed.
+   */
+  private synchronized void ensureOpen() {
+    if (this.isClosed) {
+      throw new IllegalStateException("The snapshot is closed.");
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents an estimate of the heap taken up by the {@link DiaryEntry} objects of a register.
+ *
+ * <p>The estimate counts the fixed overhead of every entry: the entry itself, its ID and its
+ * retained versions. It assumes a 64-bit JVM with compressed references, that is 12-byte object
+ * headers, 4-byte references and objects aligned to 8 bytes. Titles, content and the indexes of
+ * the register are left out, as they do not depend on the layout of an entry. Labels and dates
+ * take no objects of their own, as they are kept as a bitmask and an epoch day.
+ * </p>
+ *
+ * <p>Authors should be interned, so every entry of an author refers to the same
+ * {@link Author}. More author objects than usernames means some entries hold a copy.
+ * </p>
+ *
+ * @param entryCount      the number of entries.
+ * @param versionCount    the number of retained versions of all entries together.
+ * @param authorObjects   the number of distinct {@link Author} objects the entries refer to.
+ * @param authorUsernames the number of distinct usernames of those authors.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record FootprintReport(int entryCount, long versionCount, int authorObjects,
+                             int authorUsernames) {
+
+  /**
+   * The estimated size of a {@link DiaryEntry}: a header, four references and an int.
+   */
+  public static final int ENTRY_BYTES = 32;
+
+  /**
+   * The estimated size of the ID of an entry: a header and two longs.
+   */
+  public static final int ID_BYTES = 32;
+
+  /**
+   * The estimated size of a version: a header, a long, two references and a short.
+   */
+  public static final int VERSION_BYTES = 32;
+
+  /**
+   * Creates a report of the given entries.
+   *
+   * @param diaryEntries the entries to report on.
+   * @return the {@link FootprintReport} of the entries.
+   */
+  public static FootprintReport of(Collection<DiaryEntry> diaryEntries) {
+    long versionCount = 0;
+    Set<Author> authorObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+    Set<String> authorUsernames = new HashSet<>();
+    for (DiaryEntry diaryEntry : diaryEntries) {
+      versionCount += diaryEntry.getRetainedVersionCount();
+      if (authorObjects.add(diaryEntry.getAuthor())) {
+        authorUsernames.add(diaryEntry.getAuthor().getUsername().toLowerCase());
+      }
+    }
+    return new FootprintReport(diaryEntries.size(), versionCount, authorObjects.size(),
+        authorUsernames.size());
+  }
+
+  /**
+   * Returns the estimated overhead of all entries together.
+   *
+   * @return the estimated bytes.
+   */
+  public long estimatedBytes() {
+    return (long) this.entryCount * (ENTRY_BYTES + ID_BYTES) + this.versionCount * VERSION_BYTES;
+  }
+
+  /**
+   * Returns the estimated overhead of a single entry on average.
+   *
+   * @return the estimated bytes per entry, or 0 if there are no entries.
+   */
+  public double estimatedBytesPerEntry() {
+    return this.entryCount == 0 ? 0 : (double) this.estimatedBytes() / this.entryCount;
+  }
+
+  /**
+   * Checks whether every author is referred to through a single shared object.
+   *
+   * @return true if there are no duplicate author objects.
+   */
+  public boolean areAuthorsInterned() {
+    return this.authorObjects == this.authorUsernames;
+  }
+
+  /**
+   * Returns a formatted summary of the report.
+   *
+   * @return the summary.
+   */
+  @Override
+  public String toString() {
+    return String.format("%d entries, %d versions, %.1f bytes per entry, %d bytes in total,"
+            + " %d author objects for %d authors", this.entryCount, this.versionCount,
+        this.estimatedBytesPerEntry(), this.estimatedBytes(), this.authorObjects,
+        this.authorUsernames);
+  }
+
+}
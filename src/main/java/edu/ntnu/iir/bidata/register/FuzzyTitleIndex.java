@@ -0,0 +1,169 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents the index of the titles of the {@link DiaryRegister} by edit distance,
+ * so titles with typos can still be found.
+ *
+ * <p>The distinct lower-cased titles are kept in sorted order, which makes them the leaves of an
+ * implicit trie: titles sharing a prefix are neighbours. A search walks that trie with the rows
+ * of the Levenshtein matrix, one row per character of the walked title, where each row holds the
+ * distances between the walked prefix and every prefix of the searched title. Titles sharing a
+ * prefix with the previously walked title reuse its rows, and once every distance in a row
+ * exceeds the limit, no title starting with that prefix can match, so all of them are skipped
+ * with a single lookup. Only the prefixes close to the searched title are ever visited.
+ * </p>
+ *
+ * <p>Each title counts the entries carrying it, and is dropped once no entry carries it. The
+ * titles are held in a concurrent map, so searches never block adds and removes, and see each
+ * title either before or after it changed.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @see <a href="https://en.wikipedia.org/wiki/Levenshtein_automaton">Levenshtein automaton</a>
+ * @since 2026/10/17
+ */
+
+class FuzzyTitleIndex {
+
+  private final ConcurrentSkipListMap<String, Integer> entryCounts;
+
+  /**
+   * Creates an empty index.
+   */
+  FuzzyTitleIndex() {
+    this.entryCounts = new ConcurrentSkipListMap<>();
+  }
+
+  /**
+   * Counts an entry carrying the given title, adding the title if it is new.
+   *
+   * @param title the lower-cased title of a {@link DiaryEntry}.
+   */
+  void add(String title) {
+    this.entryCounts.merge(title, 1, Integer::sum);
+  }
+
+  /**
+   * Uncounts an entry carrying the given title, dropping the title once no entry carries it.
+   *
+   * @param title the lower-cased title of a removed {@link DiaryEntry}.
+   */
+  void remove(String title) {
+    this.entryCounts.computeIfPresent(title, (it, count) -> count == 1 ? null : count - 1);
+  }
+
+  /**
+   * Checks whether no entry carries any title of the index.
+   *
+   * @return true if the index holds no titles.
+   */
+  boolean isEmpty() {
+    return this.entryCounts.isEmpty();
+  }
+
+  /**
+   * Returns the titles within the given edit distance of a prompt, the closest first,
+   * and titles at the same distance in alphabetical order.
+   *
+   * @param prompt      the lower-cased prompt.
+   * @param maxDistance the largest number of inserted, deleted or replaced characters.
+   * @param limit       the maximum number of titles to return.
+   * @return the closest lower-cased titles.
+   */
+  List<String> search(String prompt, int maxDistance, int limit) {
+    List<Match> matches = new ArrayList<>();
+    int[][] rows = new int[prompt.length() + 2][];
+    rows[0] = new int[prompt.length() + 1];
+    for (int j = 0; j <= prompt.length(); j++) {
+      rows[0][j] = j;
+    }
+    String walked = "";
+    int depth = 0;
+    String title = this.entryCounts.isEmpty() ? null : this.entryCounts.ceilingKey("");
+    while (title != null) {
+      // The rows of the prefix shared with the previously walked title are still valid.
+      depth = commonPrefixLength(title, walked, depth);
+      walked = title;
+      boolean isPruned = false;
+      while (depth < title.length() && !isPruned) {
+        depth++;
+        if (depth == rows.length) {
+          rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        isPruned = fillRow(rows, depth, title.charAt(depth - 1), prompt) > maxDistance;
+      }
+      if (isPruned) {
+        // U+FFFF is a noncharacter, so this is the first title not starting with the prefix.
+        title = this.entryCounts.higherKey(title.substring(0, depth) + Character.MAX_VALUE);
+        continue;
+      }
+      int distance = rows[depth][prompt.length()];
+      if (distance <= maxDistance) {
+        matches.add(new Match(title, distance));
+      }
+      title = this.entryCounts.higherKey(title);
+    }
+    matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::title));
+    return matches.stream().limit(limit).map(Match::title).toList();
+  }
+
+  /**
+   * Fills a row of the Levenshtein matrix from the row above it.
+   *
+   * @param rows      the rows of the matrix, where the row above the given one is filled.
+   * @param depth     the number of characters of the walked title the row covers.
+   * @param character the last character of the walked prefix.
+   * @param prompt    the searched title.
+   * @return the smallest distance in the row, which no later row can fall below.
+   */
+  private static int fillRow(int[][] rows, int depth, char character, String prompt) {
+    int[] previous = rows[depth - 1];
+    int[] current = rows[depth];
+    if (current == null) {
+      current = new int[prompt.length() + 1];
+      rows[depth] = current;
+    }
+    current[0] = depth;
+    int rowMinimum = depth;
+    for (int j = 1; j <= prompt.length(); j++) {
+      int replaced = previous[j - 1] + (character == prompt.charAt(j - 1) ? 0 : 1);
+      current[j] = Math.min(replaced, Math.min(previous[j], current[j - 1]) + 1);
+      rowMinimum = Math.min(rowMinimum, current[j]);
+    }
+    return rowMinimum;
+  }
+
+  /**
+   * Returns the length of the prefix two strings share, up to a maximum.
+   *
+   * @param first     the first string.
+   * @param second    the second string.
+   * @param maxLength the largest length to compare.
+   * @return the length of the shared prefix.
+   */
+  private static int commonPrefixLength(String first, String second, int maxLength) {
+    int end = Math.min(maxLength, Math.min(first.length(), second.length()));
+    int length = 0;
+    while (length < end && first.charAt(length) == second.charAt(length)) {
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * A title within the distance of a prompt.
+   *
+   * @param title    the lower-cased title.
+   * @param distance the distance of the title from the prompt.
+   */
+  private record Match(String title, int distance) {
+  }
+
+}
@@ -0,0 +1,470 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents the inverted keyword index of the {@link DiaryRegister}.
+ *
+ * <p>The title and content of each {@link DiaryEntry} are split into lower-cased words,
+ * and every word keeps a {@link PostingList} of the ordinals of the entries containing it,
+ * as assigned by the {@link LabelIndex}, along with how often each entry contains the word.
+ * The length of each entry is kept in an array indexed by its ordinal, so entries can be ranked
+ * by relevance without looking anything else up. Nothing else is kept per entry: the words of
+ * an entry are counted again from its content when it is removed, and from its previous
+ * content when it is edited.
+ * </p>
+ *
+ * <p>Relevance is scored with BM25, where an occurrence in the title weighs as much as
+ * {@link #TITLE_WEIGHT} occurrences in the content, both for the frequency of a word and for
+ * the length of an entry. The number of entries containing a word is the size of its posting
+ * list, and the total length of all entries is kept up to date on every change, so scoring
+ * never has to go through the register.
+ * </p>
+ *
+ * <p>Posting lists are only created and dropped inside atomic map operations, so searches may
+ * run while other entries are being indexed. Searches resolve the ordinals they read to live
+ * entries, and check their matches again if an ordinal was released in the meantime, since it
+ * may then belong to another entry. Changes to a single entry are expected to be serialized by
+ * the {@link DiaryRegister}.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @see <a href="https://en.wikipedia.org/wiki/Okapi_BM25">Okapi BM25</a>
+ * @since 2026/10/17
+ */
+
+class KeywordIndex {
+
+  /**
+   * The number of content occurrences that a single title occurrence of a word weighs as.
+   */
+  static final int TITLE_WEIGHT = 3;
+
+  /**
+   * How quickly repeated occurrences of a word stop adding to the score.
+   */
+  private static final double K1 = 1.2;
+
+  /**
+   * How much the score of a word is lowered in entries longer than average.
+   */
+  private static final double B = 0.75;
+
+  private final LabelIndex labelIndex;
+  private final ConcurrentHashMap<String, PostingList> postings;
+
+  /**
+   * The length of each indexed entry by ordinal, replaced by a larger copy while holding the
+   * monitor of the index. A length is written before the postings of its entry, so a reader that
+   * found an ordinal in a posting list also sees its length.
+   */
+  private volatile int[] lengths;
+  private final AtomicInteger entryCount;
+  private final AtomicLong totalLength;
+
+  /**
+   * Creates an empty keyword index.
+   *
+   * @param labelIndex the {@link LabelIndex} that assigns and resolves the ordinals of entries.
+   */
+  KeywordIndex(LabelIndex labelIndex) {
+    this.labelIndex = labelIndex;
+    this.postings = new ConcurrentHashMap<>();
+    this.lengths = new int[16];
+    this.entryCount = new AtomicInteger();
+    this.totalLength = new AtomicLong();
+  }
+
+  /**
+   * Splits a text into its distinct lower-cased words,
+   * where a word is a run of letters or digits.
+   *
+   * @param text the text to split.
+   * @return the distinct words of the text, in order of first appearance.
+   */
+  static Set<String> tokenize(String text) {
+    Set<String> words = new LinkedHashSet<>();
+    forEachWord(text, words::add);
+    return words;
+  }
+
+  /**
+   * Hands every lower-cased word of a text to the given action, repeated words included,
+   * where a word is a run of letters or digits.
+   *
+   * @param text   the text to split.
+   * @param action is given every word of the text, in order.
+   */
+  private static void forEachWord(String text, Consumer<String> action) {
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean isWordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (isWordCharacter && start < 0) {
+        start = i;
+      } else if (!isWordCharacter && start >= 0) {
+        action.accept(text.substring(start, i).toLowerCase());
+        start = -1;
+      }
+    }
+  }
+
+  /**
+   * Counts how often each word occurs in a title and content, weighing title occurrences
+   * by {@link #TITLE_WEIGHT}.
+   *
+   * @param title   the title to count the words of.
+   * @param content the content to count the words of.
+   * @return the weighed frequency of each distinct word.
+   */
+  private static Map<String, Integer> frequencies(String title, String content) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    forEachWord(title, it -> frequencies.merge(it, TITLE_WEIGHT, Integer::sum));
+    forEachWord(content, it -> frequencies.merge(it, 1, Integer::sum));
+    return frequencies;
+  }
+
+  /**
+   * Returns the length of an entry, which is the sum of the weighed frequencies of its words.
+   *
+   * @param frequencies the weighed frequency of each distinct word of the entry.
+   * @return the weighed number of words in the entry.
+   */
+  private static int lengthOf(Map<String, Integer> frequencies) {
+    int length = 0;
+    for (int frequency : frequencies.values()) {
+      length += frequency;
+    }
+    return length;
+  }
+
+  /**
+   * Indexes the title and content of a {@link DiaryEntry}.
+   *
+   * @param ordinal    the ordinal of the entry, reserved in the {@link LabelIndex}.
+   * @param diaryEntry the {@link DiaryEntry} to index.
+   */
+  void add(int ordinal, DiaryEntry diaryEntry) {
+    Map<String, Integer> frequencies = frequencies(diaryEntry.getTitle(), diaryEntry.getContent());
+    int length = lengthOf(frequencies);
+    this.setLength(ordinal, length);
+    this.totalLength.addAndGet(length);
+    this.entryCount.incrementAndGet();
+    frequencies.forEach((word, frequency) -> this.addPosting(word, ordinal, frequency));
+  }
+
+  /**
+   * Removes a {@link DiaryEntry} from the posting lists of all of its words.
+   *
+   * @param ordinal    the ordinal of the entry.
+   * @param diaryEntry the {@link DiaryEntry} to remove, with the content it was indexed with.
+   */
+  void remove(int ordinal, DiaryEntry diaryEntry) {
+    Map<String, Integer> frequencies = frequencies(diaryEntry.getTitle(), diaryEntry.getContent());
+    for (String word : frequencies.keySet()) {
+      this.removePosting(word, ordinal);
+    }
+    this.totalLength.addAndGet(-lengthOf(frequencies));
+    this.entryCount.decrementAndGet();
+    this.setLength(ordinal, 0);
+  }
+
+  /**
+   * Re-indexes a {@link DiaryEntry} after its content changed, dropping it from the posting
+   * lists of words it no longer contains, and only touching the others where a frequency changed.
+   *
+   * @param ordinal    the ordinal of the entry.
+   * @param diaryEntry the {@link DiaryEntry} whose content changed.
+   * @param oldContent the content the entry was indexed with before it changed.
+   */
+  void update(int ordinal, DiaryEntry diaryEntry, String oldContent) {
+    Map<String, Integer> oldFrequencies = frequencies(diaryEntry.getTitle(), oldContent);
+    Map<String, Integer> newFrequencies =
+        frequencies(diaryEntry.getTitle(), diaryEntry.getContent());
+    int newLength = lengthOf(newFrequencies);
+    this.setLength(ordinal, newLength);
+    this.totalLength.addAndGet(newLength - lengthOf(oldFrequencies));
+    for (String word : oldFrequencies.keySet()) {
+      if (!newFrequencies.containsKey(word)) {
+        this.removePosting(word, ordinal);
+      }
+    }
+    newFrequencies.forEach((word, frequency) -> {
+      if (!frequency.equals(oldFrequencies.get(word))) {
+        this.addPosting(word, ordinal, frequency);
+      }
+    });
+  }
+
+  /**
+   * Returns the entries containing every word of the prompt, by intersecting the posting lists
+   * of the words, starting from the shortest one.
+   *
+   * @param prompt the words to search for.
+   * @return a list of {@link DiaryEntry} objects containing every word,
+   *     empty if the prompt has no words.
+   */
+  List<DiaryEntry> search(String prompt) {
+    List<DiaryEntry> matches = new ArrayList<>();
+    this.forEachMatch(prompt, matches::add);
+    return matches;
+  }
+
+  /**
+   * Hands every entry containing every word of the prompt to the given action,
+   * without collecting them.
+   *
+   * @param prompt the words to search for.
+   * @param action is given every matching {@link DiaryEntry}, in ordinal order.
+   */
+  void forEachMatch(String prompt, Consumer<DiaryEntry> action) {
+    this.forEachMatch(tokenize(prompt), action);
+  }
+
+  /**
+   * Hands every entry containing every one of the given words to the given action. The
+   * ordinals of the shortest posting list are copied, and filtered against the other lists,
+   * so no list is locked while the action runs.
+   *
+   * @param words  the lower-cased words to search for.
+   * @param action is given every matching {@link DiaryEntry}, in ordinal order.
+   */
+  void forEachMatch(Set<String> words, Consumer<DiaryEntry> action) {
+    long releaseCount = this.labelIndex.getReleaseCount();
+    List<PostingList> lists = new ArrayList<>();
+    for (String word : words) {
+      PostingList posting = this.postings.get(word);
+      if (posting == null) {
+        return;
+      }
+      lists.add(posting);
+    }
+    if (lists.isEmpty()) {
+      return;
+    }
+    lists.sort(Comparator.comparingInt(PostingList::size));
+
+    int[] candidates = lists.getFirst().ordinals();
+    int count = candidates.length;
+    for (int i = 1; i < lists.size() && count > 0; i++) {
+      count = lists.get(i).retainAll(candidates, count);
+    }
+    List<DiaryEntry> matches = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      DiaryEntry diaryEntry = this.labelIndex.liveEntryAt(candidates[i]);
+      if (diaryEntry != null) {
+        matches.add(diaryEntry);
+      }
+    }
+    boolean isReused = this.labelIndex.getReleaseCount() != releaseCount;
+    for (DiaryEntry diaryEntry : matches) {
+      if (!isReused || this.containsAll(diaryEntry, words)) {
+        action.accept(diaryEntry);
+      }
+    }
+  }
+
+  /**
+   * Returns the entries containing any word of the prompt, ranked by their BM25 score.
+   *
+   * <p>The postings of every word of the prompt are copied, and merged by ordinal, so each entry
+   * is scored as a whole, for every word it contains, exactly once. The best entries are kept
+   * in a heap holding at most the limit, so neither the scores of all matches nor the matches
+   * themselves are ever collected or sorted. Entries with the same score are ordered by date
+   * and then by ID.
+   * </p>
+   *
+   * @param prompt the words to search for.
+   * @param limit  the maximum number of entries to return.
+   * @return the best-scoring {@link DiaryEntry} objects, best first,
+   *     empty if the prompt has no indexed words.
+   */
+  List<DiaryEntry> searchRanked(String prompt, int limit) {
+    long releaseCount = this.labelIndex.getReleaseCount();
+    Set<String> words = tokenize(prompt);
+    int entryCount = Math.max(0, this.entryCount.get());
+    long[][] lists = new long[words.size()][];
+    double[] idfs = new double[words.size()];
+    int i = 0;
+    for (String word : words) {
+      PostingList posting = this.postings.get(word);
+      lists[i] = posting == null ? new long[0] : posting.postings();
+      int documentFrequency = lists[i].length;
+      idfs[i] = Math.log(1 + (entryCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+      i++;
+    }
+    double averageLength = Math.max(1, (double) this.totalLength.get() / Math.max(1, entryCount));
+    // Read after the postings, so it holds the length of every ordinal in them.
+    int[] entryLengths = this.lengths;
+
+    // The worst of the kept entries is at the head, so it is the one replaced.
+    PriorityQueue<ScoredEntry> best =
+        new PriorityQueue<>(limit + 1, ScoredEntry.RANKING.reversed());
+    int[] cursors = new int[lists.length];
+    while (true) {
+      int ordinal = Integer.MAX_VALUE;
+      for (int j = 0; j < lists.length; j++) {
+        if (cursors[j] < lists[j].length) {
+          ordinal = Math.min(ordinal, (int) (lists[j][cursors[j]] >>> 32));
+        }
+      }
+      if (ordinal == Integer.MAX_VALUE) {
+        break;
+      }
+      int length = ordinal < entryLengths.length ? entryLengths[ordinal] : 0;
+      double norm = K1 * (1 - B + B * length / averageLength);
+      double score = 0;
+      for (int j = 0; j < lists.length; j++) {
+        if (cursors[j] < lists[j].length && (int) (lists[j][cursors[j]] >>> 32) == ordinal) {
+          double frequency = (int) lists[j][cursors[j]];
+          score += idfs[j] * frequency * (K1 + 1) / (frequency + norm);
+          cursors[j]++;
+        }
+      }
+      if (best.size() >= limit && score < best.peek().score()) {
+        continue;
+      }
+      DiaryEntry diaryEntry = this.labelIndex.liveEntryAt(ordinal);
+      if (diaryEntry == null) {
+        continue;
+      }
+      best.offer(new ScoredEntry(diaryEntry, score));
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+    boolean isReused = this.labelIndex.getReleaseCount() != releaseCount;
+    return best.stream()
+        .filter(it -> !isReused || this.containsAny(it.diaryEntry(), words))
+        .sorted(ScoredEntry.RANKING)
+        .map(ScoredEntry::diaryEntry)
+        .toList();
+  }
+
+  /**
+   * Returns an upper bound of the number of entries containing every one of the given words,
+   * which is the length of the shortest of their posting lists.
+   *
+   * @param words the lower-cased words to search for.
+   * @return the upper bound, 0 if a word is not indexed or no words are given.
+   */
+  int estimate(Set<String> words) {
+    int estimate = words.isEmpty() ? 0 : Integer.MAX_VALUE;
+    for (String word : words) {
+      PostingList posting = this.postings.get(word);
+      estimate = Math.min(estimate, posting == null ? 0 : posting.size());
+    }
+    return estimate;
+  }
+
+  /**
+   * Checks whether the title or content of an indexed entry contains every one of the
+   * given words, by looking its ordinal up in their posting lists.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to check.
+   * @param words      the lower-cased words to look for.
+   * @return true if the entry is indexed and contains every word.
+   */
+  boolean containsAll(DiaryEntry diaryEntry, Set<String> words) {
+    int ordinal = this.labelIndex.ordinalOf(diaryEntry);
+    if (ordinal < 0) {
+      return false;
+    }
+    for (String word : words) {
+      PostingList posting = this.postings.get(word);
+      if (posting == null || !posting.contains(ordinal)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether the title or content of an indexed entry contains any of the given words.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to check.
+   * @param words      the lower-cased words to look for.
+   * @return true if the entry is indexed and contains at least one of the words.
+   */
+  private boolean containsAny(DiaryEntry diaryEntry, Set<String> words) {
+    int ordinal = this.labelIndex.ordinalOf(diaryEntry);
+    for (String word : words) {
+      PostingList posting = this.postings.get(word);
+      if (ordinal >= 0 && posting != null && posting.contains(ordinal)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sets the length of the entry with the given ordinal, growing the array of lengths if needed.
+   *
+   * @param ordinal the ordinal of the entry.
+   * @param length  the length of the entry.
+   */
+  private synchronized void setLength(int ordinal, int length) {
+    int[] entryLengths = this.lengths;
+    if (ordinal >= entryLengths.length) {
+      entryLengths = Arrays.copyOf(entryLengths, Math.max(ordinal + 1, entryLengths.length * 2));
+    }
+    entryLengths[ordinal] = length;
+    this.lengths = entryLengths;
+  }
+
+  /**
+   * Adds an ordinal to the posting list of a word, or replaces its frequency.
+   *
+   * @param word      the word of the posting list.
+   * @param ordinal   the ordinal of the entry.
+   * @param frequency the weighed frequency of the word in the entry.
+   */
+  private void addPosting(String word, int ordinal, int frequency) {
+    this.postings.compute(word, (it, posting) -> {
+      PostingList list = posting != null ? posting : new PostingList(true);
+      list.put(ordinal, frequency);
+      return list;
+    });
+  }
+
+  /**
+   * Removes an ordinal from the posting list of a word,
+   * dropping the list once it is empty.
+   *
+   * @param word    the word of the posting list.
+   * @param ordinal the ordinal of the entry.
+   */
+  private void removePosting(String word, int ordinal) {
+    this.postings.computeIfPresent(word, (it, posting) -> posting.remove(ordinal) == 0
+        ? null : posting);
+  }
+
+  /**
+   * An entry along with its relevance score.
+   *
+   * @param diaryEntry the scored {@link DiaryEntry}.
+   * @param score      the BM25 score of the entry.
+   */
+  private record ScoredEntry(DiaryEntry diaryEntry, double score) {
+
+    /**
+     * Orders the best-scoring entries first, and entries with the same score by date and ID.
+     */
+    static final Comparator<ScoredEntry> RANKING =
+        Comparator.comparingDouble(ScoredEntry::score).reversed()
+            .thenComparing(ScoredEntry::diaryEntry, PageCollector.ORDER);
+  }
+
+}
@@ -0,0 +1,323 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents the {@link RecipeLabel} index of the {@link DiaryRegister}.
+ *
+ * <p>Each registered {@link DiaryEntry} is given a dense ordinal, and each {@link RecipeLabel}
+ * keeps a bitmap of the ordinals of the entries that carry it. Ordinals of removed entries are
+ * reused, which keeps the bitmaps dense, so label combinations are answered with bitwise
+ * operations instead of inspecting the labels of every entry.
+ * </p>
+ *
+ * <p>The {@link KeywordIndex} and {@link TrigramIndex} key their posting lists by the same
+ * ordinals. An entry is therefore given its ordinal with {@link #reserve(DiaryEntry)} before
+ * it is indexed anywhere, but only becomes live, and found by any index, once it is added here
+ * after it is published. A removed entry stops being live right away, while its ordinal is only
+ * released for reuse once the other indexes dropped it. Live entries are also kept in a table
+ * that resolves an ordinal without taking the monitor, and every release is counted, so a
+ * search can tell whether an ordinal it read may have been reused before it was resolved.
+ * </p>
+ *
+ * <p>The bitmaps are not thread-safe, so every method holds the monitor of the index while it
+ * reads or changes them. Changes only flip bits, while queries combine bitmaps and copy out the
+ * references of the matching entries, which takes time in proportion to the number of matches.
+ * Matches are handed to the caller only after the monitor is released, so a slow caller never
+ * holds up other changes or queries.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+class LabelIndex {
+
+  private final HashMap<UUID, Integer> ordinals;
+  private final ArrayList<DiaryEntry> entries;
+  private final ArrayDeque<Integer> freeOrdinals;
+  private final BitSet liveOrdinals;
+  private final EnumMap<RecipeLabel, BitSet> postings;
+
+  /**
+   * The live entries by ordinal, replaced by a larger copy while holding the monitor.
+   */
+  private volatile AtomicReferenceArray<DiaryEntry> liveEntries;
+  private volatile long releaseCount;
+
+  /**
+   * Creates an empty label index.
+   */
+  LabelIndex() {
+    this.ordinals = new HashMap<>();
+    this.entries = new ArrayList<>();
+    this.freeOrdinals = new ArrayDeque<>();
+    this.liveOrdinals = new BitSet();
+    this.postings = new EnumMap<>(RecipeLabel.class);
+    for (RecipeLabel label : RecipeLabel.values()) {
+      this.postings.put(label, new BitSet());
+    }
+    this.liveEntries = new AtomicReferenceArray<>(16);
+  }
+
+  /**
+   * Assigns an ordinal to the {@link DiaryEntry} without making it live,
+   * or returns the ordinal it already has.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to assign an ordinal to.
+   * @return the ordinal of the entry.
+   */
+  synchronized int reserve(DiaryEntry diaryEntry) {
+    Integer reserved = this.ordinals.get(diaryEntry.getId());
+    if (reserved != null) {
+      return reserved;
+    }
+    int ordinal;
+    if (this.freeOrdinals.isEmpty()) {
+      ordinal = this.entries.size();
+      this.entries.add(diaryEntry);
+    } else {
+      ordinal = this.freeOrdinals.pop();
+      this.entries.set(ordinal, diaryEntry);
+    }
+    this.ordinals.put(diaryEntry.getId(), ordinal);
+    return ordinal;
+  }
+
+  /**
+   * Makes the {@link DiaryEntry} live and indexes its current labels,
+   * assigning it an ordinal if it has none yet.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to index.
+   */
+  synchronized void add(DiaryEntry diaryEntry) {
+    this.makeLive(diaryEntry);
+  }
+
+  /**
+   * Makes several {@link DiaryEntry} objects live and indexes their current labels,
+   * holding the monitor of the index only once.
+   *
+   * @param diaryEntries the {@link DiaryEntry} objects to index.
+   */
+  synchronized void addAll(Collection<DiaryEntry> diaryEntries) {
+    diaryEntries.forEach(this::makeLive);
+  }
+
+  /**
+   * Makes the {@link DiaryEntry} live and indexes its current labels.
+   *
+   * <p><i>Callers must hold the monitor of the index.</i></p>
+   *
+   * @param diaryEntry the {@link DiaryEntry} to index.
+   */
+  private void makeLive(DiaryEntry diaryEntry) {
+    int ordinal = this.reserve(diaryEntry);
+    this.liveOrdinals.set(ordinal);
+    for (RecipeLabel label : diaryEntry.getRecipeLabels()) {
+      this.postings.get(label).set(ordinal);
+    }
+    AtomicReferenceArray<DiaryEntry> table = this.liveEntries;
+    if (ordinal >= table.length()) {
+      AtomicReferenceArray<DiaryEntry> grown =
+          new AtomicReferenceArray<>(Math.max(ordinal + 1, table.length() * 2));
+      for (int i = 0; i < table.length(); i++) {
+        grown.set(i, table.get(i));
+      }
+      table = grown;
+      this.liveEntries = grown;
+    }
+    table.set(ordinal, diaryEntry);
+  }
+
+  /**
+   * Removes the {@link DiaryEntry} from every bitmap, so it is no longer live,
+   * while keeping its ordinal until it is released.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to remove.
+   * @return the ordinal of the entry, or -1 if it has none.
+   */
+  synchronized int remove(DiaryEntry diaryEntry) {
+    Integer ordinal = this.ordinals.get(diaryEntry.getId());
+    if (ordinal == null) {
+      return -1;
+    }
+    for (BitSet bitmap : this.postings.values()) {
+      bitmap.clear(ordinal);
+    }
+    this.liveOrdinals.clear(ordinal);
+    if (ordinal < this.liveEntries.length()) {
+      this.liveEntries.set(ordinal, null);
+    }
+    return ordinal;
+  }
+
+  /**
+   * Frees the ordinal of a removed {@link DiaryEntry} for reuse,
+   * once no other index refers to it anymore.
+   *
+   * @param diaryEntry the removed {@link DiaryEntry}.
+   */
+  synchronized void release(DiaryEntry diaryEntry) {
+    Integer ordinal = this.ordinals.remove(diaryEntry.getId());
+    if (ordinal == null) {
+      return;
+    }
+    this.entries.set(ordinal, null);
+    this.freeOrdinals.push(ordinal);
+    this.releaseCount++;
+  }
+
+  /**
+   * Returns the ordinal of the {@link DiaryEntry}.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to look up.
+   * @return the ordinal of the entry, or -1 if it has none.
+   */
+  synchronized int ordinalOf(DiaryEntry diaryEntry) {
+    Integer ordinal = this.ordinals.get(diaryEntry.getId());
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  /**
+   * Returns the live entry with the given ordinal, without taking the monitor of the index.
+   *
+   * @param ordinal the ordinal to resolve.
+   * @return the live {@link DiaryEntry}, or null if no live entry has the ordinal.
+   */
+  DiaryEntry liveEntryAt(int ordinal) {
+    AtomicReferenceArray<DiaryEntry> table = this.liveEntries;
+    return ordinal < table.length() ? table.get(ordinal) : null;
+  }
+
+  /**
+   * Returns the number of ordinals released so far. If it is unchanged between reading an
+   * ordinal from another index and resolving it, the ordinal was not reused in between.
+   *
+   * @return the number of released ordinals.
+   */
+  long getReleaseCount() {
+    return this.releaseCount;
+  }
+
+  /**
+   * Marks the {@link DiaryEntry} as carrying the given label.
+   *
+   * @param diaryEntry the {@link DiaryEntry} that gained the label.
+   * @param label      the {@link RecipeLabel} that was added.
+   */
+  synchronized void addLabel(DiaryEntry diaryEntry, RecipeLabel label) {
+    Integer ordinal = this.ordinals.get(diaryEntry.getId());
+    if (ordinal != null) {
+      this.postings.get(label).set(ordinal);
+    }
+  }
+
+  /**
+   * Marks the {@link DiaryEntry} as no longer carrying the given label.
+   *
+   * @param diaryEntry the {@link DiaryEntry} that lost the label.
+   * @param label      the {@link RecipeLabel} that was removed.
+   */
+  synchronized void removeLabel(DiaryEntry diaryEntry, RecipeLabel label) {
+    Integer ordinal = this.ordinals.get(diaryEntry.getId());
+    if (ordinal != null) {
+      this.postings.get(label).clear(ordinal);
+    }
+  }
+
+  /**
+   * Returns the entries matching a combination of labels.
+   *
+   * @param allOf  labels that every result must carry.
+   * @param anyOf  labels of which every result must carry at least one, ignored if empty.
+   * @param noneOf labels that no result may carry.
+   * @return a list of matching {@link DiaryEntry} objects, in ordinal order.
+   */
+  List<DiaryEntry> query(Collection<RecipeLabel> allOf, Collection<RecipeLabel> anyOf,
+                         Collection<RecipeLabel> noneOf) {
+    List<DiaryEntry> matches = new ArrayList<>();
+    this.forEachMatch(allOf, anyOf, noneOf, matches::add);
+    return matches;
+  }
+
+  /**
+   * Hands every entry matching a combination of labels to the given action, without
+   * collecting them into a list. The matches are copied out while the monitor of the index is
+   * held, and the action is only run once it is released.
+   *
+   * @param allOf  labels that every result must carry.
+   * @param anyOf  labels of which every result must carry at least one, ignored if empty.
+   * @param noneOf labels that no result may carry.
+   * @param action is given every matching {@link DiaryEntry}, in ordinal order.
+   */
+  void forEachMatch(Collection<RecipeLabel> allOf, Collection<RecipeLabel> anyOf,
+                    Collection<RecipeLabel> noneOf, Consumer<DiaryEntry> action) {
+    DiaryEntry[] matches;
+    synchronized (this) {
+      BitSet result = this.match(allOf, anyOf, noneOf);
+      matches = new DiaryEntry[result.cardinality()];
+      int count = 0;
+      for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+        matches[count++] = this.entries.get(i);
+      }
+    }
+    for (DiaryEntry match : matches) {
+      action.accept(match);
+    }
+  }
+
+  /**
+   * Counts the entries matching a combination of labels, without reading any of them.
+   *
+   * @param allOf  labels that every result must carry.
+   * @param anyOf  labels of which every result must carry at least one, ignored if empty.
+   * @param noneOf labels that no result may carry.
+   * @return the number of matching {@link DiaryEntry} objects.
+   */
+  synchronized int count(Collection<RecipeLabel> allOf, Collection<RecipeLabel> anyOf,
+                         Collection<RecipeLabel> noneOf) {
+    return this.match(allOf, anyOf, noneOf).cardinality();
+  }
+
+  /**
+   * Combines the bitmaps of a combination of labels.
+   *
+   * <p><i>Callers must hold the monitor of the index.</i></p>
+   *
+   * @param allOf  labels that every result must carry.
+   * @param anyOf  labels of which every result must carry at least one, ignored if empty.
+   * @param noneOf labels that no result may carry.
+   * @return a new bitmap of the ordinals of the matching entries.
+   */
+  private BitSet match(Collection<RecipeLabel> allOf, Collection<RecipeLabel> anyOf,
+                       Collection<RecipeLabel> noneOf) {
+    BitSet result = (BitSet) this.liveOrdinals.clone();
+    for (RecipeLabel label : allOf) {
+      result.and(this.postings.get(label));
+    }
+    if (!anyOf.isEmpty()) {
+      BitSet union = new BitSet();
+      for (RecipeLabel label : anyOf) {
+        union.or(this.postings.get(label));
+      }
+      result.and(union);
+    }
+    for (RecipeLabel label : noneOf) {
+      result.andNot(this.postings.get(label));
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,181 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Collects a single {@link DiaryPage} out of the matches of a query, in any order.
+ *
+ * <p>Matches at or before the cursor of the page token are ignored, and of the rest only the
+ * first page size plus one are kept in a bounded heap, ordered by date and then by ID. The
+ * extra match only tells whether another page follows. Collecting a page therefore takes the
+ * same memory however many entries match, and indexes can hand over their matches one by one
+ * instead of building a list of them.
+ * </p>
+ *
+ * <p>The page token is the epoch day and ID of the last entry of a page, encoded as URL-safe
+ * Base64, so it cannot be mistaken for anything a user would type.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+final class PageCollector {
+
+  /**
+   * The order of the results of every query, by date and then by ID.
+   */
+  static final Comparator<DiaryEntry> ORDER =
+      Comparator.comparingLong(DiaryEntry::getEpochDay).thenComparing(DiaryEntry::getId);
+
+  private static final int TOKEN_BYTES = Long.BYTES * 3;
+
+  private final int pageSize;
+  private final boolean hasCursor;
+  private final long cursorEpochDay;
+  private final UUID cursorId;
+
+  /**
+   * The kept matches, with the last one in {@link #ORDER} at the head.
+   */
+  private final PriorityQueue<DiaryEntry> matches;
+
+  /**
+   * Creates a collector of the page following the given token.
+   *
+   * @param pageSize  the maximum number of entries on the page.
+   * @param pageToken the token of the page, or null for the first page.
+   * @throws IllegalArgumentException if the page size is not positive, or the token is invalid.
+   */
+  PageCollector(int pageSize, String pageToken) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("The page size must be at least 1.");
+    }
+    this.pageSize = pageSize;
+    this.matches = new PriorityQueue<>(pageSize + 1, ORDER.reversed());
+    if (pageToken == null) {
+      this.hasCursor = false;
+      this.cursorEpochDay = 0;
+      this.cursorId = null;
+      return;
+    }
+    ByteBuffer cursor;
+    try {
+      cursor = ByteBuffer.wrap(Base64.getUrlDecoder().decode(pageToken));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("The page token is invalid.", e);
+    }
+    if (cursor.remaining() != TOKEN_BYTES) {
+      throw new IllegalArgumentException("The page token is invalid.");
+    }
+    this.hasCursor = true;
+    this.cursorEpochDay = cursor.getLong();
+    this.cursorId = new UUID(cursor.getLong(), cursor.getLong());
+  }
+
+  /**
+   * Checks whether the token pointed past a previous page.
+   *
+   * @return true if the page does not start at the first match.
+   */
+  boolean hasCursor() {
+    return this.hasCursor;
+  }
+
+  /**
+   * Returns the epoch day of the last entry of the previous page.
+   *
+   * @return the epoch day of the cursor, only meaningful if {@link #hasCursor()}.
+   */
+  long getCursorEpochDay() {
+    return this.cursorEpochDay;
+  }
+
+  /**
+   * Returns the ID of the last entry of the previous page.
+   *
+   * @return the ID of the cursor, or null if there is no cursor.
+   */
+  UUID getCursorId() {
+    return this.cursorId;
+  }
+
+  /**
+   * Checks whether an entry would be kept if it matches, so that costly checks of whether it
+   * matches can be skipped for entries that could not end up on the page anyway.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to check.
+   * @return true if the entry follows the cursor and precedes the last kept match.
+   */
+  boolean accepts(DiaryEntry diaryEntry) {
+    if (this.hasCursor) {
+      int compared = Long.compare(diaryEntry.getEpochDay(), this.cursorEpochDay);
+      if (compared < 0 || compared == 0 && diaryEntry.getId().compareTo(this.cursorId) <= 0) {
+        return false;
+      }
+    }
+    return !this.isFull() || ORDER.compare(diaryEntry, this.matches.peek()) < 0;
+  }
+
+  /**
+   * Offers a match, which is kept if it follows the cursor and is among the first matches.
+   *
+   * @param diaryEntry the matching {@link DiaryEntry}.
+   */
+  void offer(DiaryEntry diaryEntry) {
+    if (!this.accepts(diaryEntry)) {
+      return;
+    }
+    if (this.isFull()) {
+      this.matches.poll();
+    }
+    this.matches.offer(diaryEntry);
+  }
+
+  /**
+   * Checks whether the page and the match that follows it have been found.
+   * Only sources offering their matches in {@link #ORDER} may stop offering once it is.
+   *
+   * @return true if more matches than the page size have been kept.
+   */
+  boolean isFull() {
+    return this.matches.size() > this.pageSize;
+  }
+
+  /**
+   * Returns the collected page.
+   *
+   * @return the {@link DiaryPage} of the kept matches.
+   */
+  DiaryPage toPage() {
+    List<DiaryEntry> entries = new ArrayList<>(this.matches);
+    entries.sort(ORDER);
+    if (entries.size() <= this.pageSize) {
+      return new DiaryPage(List.copyOf(entries), null);
+    }
+    entries.removeLast();
+    return new DiaryPage(List.copyOf(entries), tokenOf(entries.getLast()));
+  }
+
+  /**
+   * Returns the token of the page following the given entry.
+   *
+   * @param diaryEntry the last {@link DiaryEntry} of a page.
+   * @return the opaque page token.
+   */
+  private static String tokenOf(DiaryEntry diaryEntry) {
+    ByteBuffer cursor = ByteBuffer.allocate(TOKEN_BYTES)
+        .putLong(diaryEntry.getEpochDay())
+        .putLong(diaryEntry.getId().getMostSignificantBits())
+        .putLong(diaryEntry.getId().getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.array());
+  }
+
+}
@@ -0,0 +1,329 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.Arrays;
+
+/**
+ * Represents a posting list of the text indexes of the {@link DiaryRegister}: the sorted
+ * ordinals, assigned by the {@link LabelIndex}, of the entries containing a word or trigram,
+ * each optionally along with how often the entry contains it.
+ *
+ * <p>The ordinals are kept in primitive arrays instead of a set of entries, so a posting costs
+ * four bytes, or eight with its frequency. The arrays are split into sorted blocks of at most
+ * {@link #BLOCK_CAPACITY} ordinals, so adding or removing an ordinal in the middle of a long
+ * list, as happens when a freed ordinal is reused, only shifts a single block. New ordinals are
+ * usually the highest ones, and are appended to the last block.
+ * </p>
+ *
+ * <p>The arrays are not thread-safe, so every method holds the monitor of the list. Readers
+ * copy the ordinals out, or filter their own candidates against the list, and never run any
+ * code of the caller while holding it.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+final class PostingList {
+
+  /**
+   * The maximum number of ordinals in a block, after which it is split in two.
+   */
+  static final int BLOCK_CAPACITY = 128;
+
+  private final boolean hasFrequencies;
+  private int[][] ordinalBlocks;
+  private int[][] frequencyBlocks;
+  private int[] blockSizes;
+  private int blockCount;
+  private int size;
+
+  /**
+   * Creates an empty posting list.
+   *
+   * @param hasFrequencies whether the list keeps a frequency along with each ordinal.
+   */
+  PostingList(boolean hasFrequencies) {
+    this.hasFrequencies = hasFrequencies;
+    this.ordinalBlocks = new int[1][];
+    this.frequencyBlocks = hasFrequencies ? new int[1][] : null;
+    this.blockSizes = new int[1];
+  }
+
+  /**
+   * Adds an ordinal to the list, or replaces its frequency if it is already in the list.
+   *
+   * @param ordinal   the ordinal of the entry.
+   * @param frequency how often the entry contains the word, ignored if the list keeps none.
+   */
+  synchronized void put(int ordinal, int frequency) {
+    if (this.blockCount == 0) {
+      this.insertBlock(0, new int[1], this.hasFrequencies ? new int[1] : null, 0);
+    }
+    int block = this.findBlock(ordinal);
+    int position = Arrays.binarySearch(this.ordinalBlocks[block], 0, this.blockSizes[block],
+        ordinal);
+    if (position >= 0) {
+      if (this.hasFrequencies) {
+        this.frequencyBlocks[block][position] = frequency;
+      }
+      return;
+    }
+    position = -position - 1;
+    if (this.blockSizes[block] == BLOCK_CAPACITY) {
+      this.splitBlock(block);
+      if (position > BLOCK_CAPACITY / 2) {
+        block++;
+        position -= BLOCK_CAPACITY / 2;
+      }
+    }
+    this.insertAt(block, position, ordinal, frequency);
+    this.size++;
+  }
+
+  /**
+   * Removes an ordinal from the list.
+   *
+   * @param ordinal the ordinal of the entry.
+   * @return the number of ordinals left in the list.
+   */
+  synchronized int remove(int ordinal) {
+    if (this.blockCount == 0) {
+      return 0;
+    }
+    int block = this.findBlock(ordinal);
+    int blockSize = this.blockSizes[block];
+    int position = Arrays.binarySearch(this.ordinalBlocks[block], 0, blockSize, ordinal);
+    if (position < 0) {
+      return this.size;
+    }
+    if (blockSize == 1) {
+      this.removeBlock(block);
+    } else {
+      int moved = blockSize - position - 1;
+      System.arraycopy(this.ordinalBlocks[block], position + 1, this.ordinalBlocks[block],
+          position, moved);
+      if (this.hasFrequencies) {
+        System.arraycopy(this.frequencyBlocks[block], position + 1, this.frequencyBlocks[block],
+            position, moved);
+      }
+      this.blockSizes[block]--;
+    }
+    return --this.size;
+  }
+
+  /**
+   * Returns the number of ordinals in the list.
+   *
+   * @return the size of the list.
+   */
+  synchronized int size() {
+    return this.size;
+  }
+
+  /**
+   * Checks whether the list contains an ordinal.
+   *
+   * @param ordinal the ordinal of the entry.
+   * @return true if the entry is in the list.
+   */
+  synchronized boolean contains(int ordinal) {
+    if (this.blockCount == 0) {
+      return false;
+    }
+    int block = this.findBlock(ordinal);
+    return Arrays.binarySearch(this.ordinalBlocks[block], 0, this.blockSizes[block], ordinal)
+        >= 0;
+  }
+
+  /**
+   * Returns a sorted copy of the ordinals in the list.
+   *
+   * @return the ordinals of the entries in the list, in ascending order.
+   */
+  synchronized int[] ordinals() {
+    int[] ordinals = new int[this.size];
+    int offset = 0;
+    for (int block = 0; block < this.blockCount; block++) {
+      System.arraycopy(this.ordinalBlocks[block], 0, ordinals, offset, this.blockSizes[block]);
+      offset += this.blockSizes[block];
+    }
+    return ordinals;
+  }
+
+  /**
+   * Returns a copy of the postings, each packed into a long with the ordinal in the upper and
+   * the frequency in the lower half, so both are copied consistently.
+   *
+   * @return the packed postings, in ascending order of their ordinals.
+   */
+  synchronized long[] postings() {
+    long[] postings = new long[this.size];
+    int offset = 0;
+    for (int block = 0; block < this.blockCount; block++) {
+      for (int i = 0; i < this.blockSizes[block]; i++) {
+        int frequency = this.hasFrequencies ? this.frequencyBlocks[block][i] : 1;
+        postings[offset++] = (long) this.ordinalBlocks[block][i] << 32 | frequency;
+      }
+    }
+    return postings;
+  }
+
+  /**
+   * Keeps only the candidates that are in the list, moving them to the front of the array.
+   *
+   * @param candidates the candidate ordinals, in ascending order.
+   * @param count      the number of candidates at the front of the array.
+   * @return the number of candidates that were kept.
+   */
+  synchronized int retainAll(int[] candidates, int count) {
+    int kept = 0;
+    int block = 0;
+    int position = 0;
+    for (int i = 0; i < count && block < this.blockCount; i++) {
+      int candidate = candidates[i];
+      // Candidates ascend, so the search resumes where the previous one ended.
+      while (block < this.blockCount
+          && this.ordinalBlocks[block][this.blockSizes[block] - 1] < candidate) {
+        block++;
+        position = 0;
+      }
+      if (block == this.blockCount) {
+        break;
+      }
+      int found = Arrays.binarySearch(this.ordinalBlocks[block], position,
+          this.blockSizes[block], candidate);
+      if (found >= 0) {
+        candidates[kept++] = candidate;
+        position = found + 1;
+      } else {
+        position = -found - 1;
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Returns the block an ordinal belongs in: the last block starting at or below it,
+   * or the first block if every block starts above it.
+   *
+   * <p><i>Callers must hold the monitor of the list, which must have a block.</i></p>
+   *
+   * @param ordinal the ordinal to look up.
+   * @return the index of the block.
+   */
+  private int findBlock(int ordinal) {
+    int low = 0;
+    int high = this.blockCount - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.ordinalBlocks[middle][0] <= ordinal) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Inserts an ordinal into a block that is not full, growing the arrays of the block if needed.
+   *
+   * <p><i>Callers must hold the monitor of the list.</i></p>
+   *
+   * @param block     the index of the block.
+   * @param position  the position of the ordinal in the block.
+   * @param ordinal   the ordinal to insert.
+   * @param frequency the frequency of the ordinal.
+   */
+  private void insertAt(int block, int position, int ordinal, int frequency) {
+    int blockSize = this.blockSizes[block];
+    if (blockSize == this.ordinalBlocks[block].length) {
+      int capacity = Math.min(BLOCK_CAPACITY, blockSize * 2);
+      this.ordinalBlocks[block] = Arrays.copyOf(this.ordinalBlocks[block], capacity);
+      if (this.hasFrequencies) {
+        this.frequencyBlocks[block] = Arrays.copyOf(this.frequencyBlocks[block], capacity);
+      }
+    }
+    int moved = blockSize - position;
+    System.arraycopy(this.ordinalBlocks[block], position, this.ordinalBlocks[block],
+        position + 1, moved);
+    this.ordinalBlocks[block][position] = ordinal;
+    if (this.hasFrequencies) {
+      System.arraycopy(this.frequencyBlocks[block], position, this.frequencyBlocks[block],
+          position + 1, moved);
+      this.frequencyBlocks[block][position] = frequency;
+    }
+    this.blockSizes[block]++;
+  }
+
+  /**
+   * Moves the upper half of a full block into a new block right after it.
+   *
+   * <p><i>Callers must hold the monitor of the list.</i></p>
+   *
+   * @param block the index of the full block.
+   */
+  private void splitBlock(int block) {
+    int half = BLOCK_CAPACITY / 2;
+    int[] upperOrdinals = new int[BLOCK_CAPACITY];
+    System.arraycopy(this.ordinalBlocks[block], half, upperOrdinals, 0, half);
+    int[] upperFrequencies = null;
+    if (this.hasFrequencies) {
+      upperFrequencies = new int[BLOCK_CAPACITY];
+      System.arraycopy(this.frequencyBlocks[block], half, upperFrequencies, 0, half);
+    }
+    this.blockSizes[block] = half;
+    this.insertBlock(block + 1, upperOrdinals, upperFrequencies, half);
+  }
+
+  /**
+   * Inserts a block at the given index, growing the table of blocks if needed.
+   *
+   * <p><i>Callers must hold the monitor of the list.</i></p>
+   *
+   * @param block       the index of the new block.
+   * @param ordinals    the ordinals of the block.
+   * @param frequencies the frequencies of the block, or null if the list keeps none.
+   * @param blockSize   the number of ordinals in the block.
+   */
+  private void insertBlock(int block, int[] ordinals, int[] frequencies, int blockSize) {
+    if (this.blockCount == this.ordinalBlocks.length) {
+      int capacity = this.blockCount * 2;
+      this.ordinalBlocks = Arrays.copyOf(this.ordinalBlocks, capacity);
+      this.blockSizes = Arrays.copyOf(this.blockSizes, capacity);
+      if (this.hasFrequencies) {
+        this.frequencyBlocks = Arrays.copyOf(this.frequencyBlocks, capacity);
+      }
+    }
+    int moved = this.blockCount - block;
+    System.arraycopy(this.ordinalBlocks, block, this.ordinalBlocks, block + 1, moved);
+    System.arraycopy(this.blockSizes, block, this.blockSizes, block + 1, moved);
+    this.ordinalBlocks[block] = ordinals;
+    this.blockSizes[block] = blockSize;
+    if (this.hasFrequencies) {
+      System.arraycopy(this.frequencyBlocks, block, this.frequencyBlocks, block + 1, moved);
+      this.frequencyBlocks[block] = frequencies;
+    }
+    this.blockCount++;
+  }
+
+  /**
+   * Removes an emptied block from the table of blocks.
+   *
+   * <p><i>Callers must hold the monitor of the list.</i></p>
+   *
+   * @param block the index of the block.
+   */
+  private void removeBlock(int block) {
+    int moved = this.blockCount - block - 1;
+    System.arraycopy(this.ordinalBlocks, block + 1, this.ordinalBlocks, block, moved);
+    System.arraycopy(this.blockSizes, block + 1, this.blockSizes, block, moved);
+    if (this.hasFrequencies) {
+      System.arraycopy(this.frequencyBlocks, block + 1, this.frequencyBlocks, block, moved);
+      this.frequencyBlocks[this.blockCount - 1] = null;
+    }
+    this.blockCount--;
+    this.ordinalBlocks[this.blockCount] = null;
+  }
+
+}
@@ -0,0 +1,142 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import main.java.edu.ntnu.iir.bidata.register.DiaryQuery.Criterion;
+
+/**
+ * Caches the pages of {@link DiaryQuery} results, evicting the least recently used page once
+ * the cache is full.
+ *
+ * <p>Every page is stamped with the versions of the register at the time it was computed: one
+ * that changes whenever an entry is added or removed, one whenever a label changes, and one
+ * whenever content changes. A page is only served while the versions its query depends on are
+ * unchanged, so a label edit leaves cached title searches alone, while any added or removed
+ * entry invalidates every page. The versions must be read before a page is computed, and be
+ * raised only after a change is installed, so a page computed during a change is never served.
+ * </p>
+ *
+ * <p>Every method holds the monitor of the cache, which only guards map operations and
+ * counters. Pages are computed outside of it.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+final class QueryCache {
+
+  /**
+   * The maximum number of cached pages.
+   */
+  static final int CAPACITY = 1024;
+
+  private final LinkedHashMap<Key, CachedPage> pages;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private long invalidationCount;
+
+  /**
+   * Creates an empty cache.
+   */
+  QueryCache() {
+    this.pages = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns the cached page of a query, if it is still valid at the given versions.
+   * A page that is no longer valid is dropped.
+   *
+   * @param key      the {@link Key} of the page.
+   * @param versions the current {@link Versions} of the register.
+   * @return the cached {@link DiaryPage}, or null if there is no valid page.
+   */
+  synchronized DiaryPage get(Key key, Versions versions) {
+    CachedPage cached = this.pages.get(key);
+    if (cached != null && !cached.versions().isValidAt(versions, key.query().criteria())) {
+      this.pages.remove(key);
+      this.invalidationCount++;
+      cached = null;
+    }
+    if (cached == null) {
+      this.missCount++;
+      return null;
+    }
+    this.hitCount++;
+    return cached.page();
+  }
+
+  /**
+   * Caches the page of a query, evicting the least recently used page if the cache is full.
+   *
+   * @param key      the {@link Key} of the page.
+   * @param page     the computed {@link DiaryPage}.
+   * @param versions the {@link Versions} of the register read before the page was computed.
+   */
+  synchronized void put(Key key, DiaryPage page, Versions versions) {
+    this.pages.put(key, new CachedPage(page, versions));
+    Iterator<Key> eldest = this.pages.keySet().iterator();
+    while (this.pages.size() > CAPACITY) {
+      eldest.next();
+      eldest.remove();
+      this.evictionCount++;
+    }
+  }
+
+  /**
+   * Returns the counters of the cache.
+   *
+   * @return the {@link QueryCacheStatistics} of the cache.
+   */
+  synchronized QueryCacheStatistics getStatistics() {
+    return new QueryCacheStatistics(this.hitCount, this.missCount, this.evictionCount,
+        this.invalidationCount, this.pages.size(), CAPACITY);
+  }
+
+  /**
+   * Key of a cached page.
+   *
+   * @param query     the {@link DiaryQuery} of the page.
+   * @param pageSize  the maximum number of entries on the page.
+   * @param pageToken the token of the page, or null for the first page.
+   */
+  record Key(DiaryQuery query, int pageSize, String pageToken) {
+  }
+
+  /**
+   * The versions of the register, each raised after a change of its kind is installed.
+   *
+   * @param entries the version of the set of registered entries.
+   * @param labels  the version of the labels of the registered entries.
+   * @param content the version of the content of the registered entries.
+   */
+  record Versions(long entries, long labels, long content) {
+
+    /**
+     * Checks whether a page computed at these versions is still valid at the current ones,
+     * only comparing the versions that the criteria of its query depend on.
+     *
+     * @param current  the current {@link Versions} of the register.
+     * @param criteria the criteria of the query of the page.
+     * @return true if nothing the query depends on has changed.
+     */
+    boolean isValidAt(Versions current, Set<Criterion> criteria) {
+      return this.entries == current.entries
+          && (this.labels == current.labels || !criteria.contains(Criterion.LABELS))
+          && (this.content == current.content || !criteria.contains(Criterion.KEYWORDS)
+              && !criteria.contains(Criterion.PROMPT));
+    }
+  }
+
+  /**
+   * A cached page, along with the versions of the register it was computed at.
+   *
+   * @param page     the cached {@link DiaryPage}.
+   * @param versions the {@link Versions} the page was computed at.
+   */
+  private record CachedPage(DiaryPage page, Versions versions) {
+  }
+
+}
@@ -0,0 +1,30 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+/**
+ * Represents the counters of the cache of {@link DiaryQuery} results of the
+ * {@link DiaryRegister}, counted since the program started.
+ *
+ * @param hitCount          the number of pages served from the cache.
+ * @param missCount         the number of pages that had to be computed.
+ * @param evictionCount     the number of pages dropped because the cache was full.
+ * @param invalidationCount the number of pages dropped because the register changed.
+ * @param size              the number of pages in the cache.
+ * @param capacity          the maximum number of pages in the cache.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record QueryCacheStatistics(long hitCount, long missCount, long evictionCount,
+                                   long invalidationCount, int size, int capacity) {
+
+  /**
+   * Returns the share of lookups that were served from the cache.
+   *
+   * @return the hit rate between 0 and 1, or 0 if nothing was looked up yet.
+   */
+  public double hitRate() {
+    long lookupCount = this.hitCount + this.missCount;
+    return lookupCount == 0 ? 0 : (double) this.hitCount / lookupCount;
+  }
+
+}
@@ -0,0 +1,37 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.List;
+import main.java.edu.ntnu.iir.bidata.register.DiaryQuery.Criterion;
+
+/**
+ * Represents how the {@link DiaryRegister} answers a {@link DiaryQuery}.
+ *
+ * <p>The candidates are read from the index of the most selective criterion, the driver,
+ * and every candidate is then checked against the remaining criteria, the filters, from the
+ * cheapest to the most costly one. A prompt is always among the filters, since its trigram
+ * index only narrows the candidates down.
+ * </p>
+ *
+ * @param driver              the {@link Criterion} whose index provides the candidates,
+ *                            or null if the query has no criteria and every entry is read.
+ * @param estimatedCandidates the number of candidates the driver provides, which is exact for
+ *                            titles, authors, labels and counted periods, and an upper bound
+ *                            otherwise.
+ * @param filters             the criteria checked on every candidate, in the order they are
+ *                            checked.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record QueryPlan(Criterion driver, long estimatedCandidates, List<Criterion> filters) {
+
+  /**
+   * Checks whether the plan reads every entry of the register.
+   *
+   * @return true if the query has no criteria to read the candidates from.
+   */
+  public boolean isFullScan() {
+    return this.driver == null;
+  }
+
+}
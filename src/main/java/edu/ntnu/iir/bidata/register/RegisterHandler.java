@@ -3,6 +3,10 @@ package main.java.edu.ntnu.iir.bidata.register;
 /**
  * RegisterHandler class that provides access to the local register instances.
  *
+ * <p>Both registers are safe to share between threads,
+ * so the instances returned here may be used from any session or background job.
+ * </p>
+ *
  * @author Kevin Holswilder
  * @since 2025/10/16
  */
@@ -0,0 +1,214 @@
+package main.java.edu.ntnu.iir.bidata.register;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Represents the trigram index over the lower-cased content of each {@link DiaryEntry}.
+ *
+ * <p>Every run of three characters in the content keeps a {@link PostingList} of the ordinals,
+ * as assigned by the {@link LabelIndex}, of the entries that contain it. An entry can only
+ * contain a prompt if it contains every trigram of the prompt, so intersecting those posting
+ * lists narrows the candidates down before the actual substring check is done. The trigrams of
+ * an entry are not kept, but taken again from its content when it is removed, and from its
+ * previous content when it is edited.
+ * </p>
+ *
+ * <p>Posting lists are only created and dropped inside atomic map operations, so searches may
+ * run while other entries are being indexed. A candidate may be resolved from an ordinal that
+ * was reused in the meantime, which the substring check of every candidate rules out. Changes
+ * to a single entry are expected to be serialized by the {@link DiaryRegister}.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+class TrigramIndex {
+
+  static final int TRIGRAM_LENGTH = 3;
+
+  private final LabelIndex labelIndex;
+  private final ConcurrentHashMap<Long, PostingList> postings;
+
+  /**
+   * Creates an empty trigram index.
+   *
+   * @param labelIndex the {@link LabelIndex} that assigns and resolves the ordinals of entries.
+   */
+  TrigramIndex(LabelIndex labelIndex) {
+    this.labelIndex = labelIndex;
+    this.postings = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the sorted, distinct trigrams of an already normalized text,
+   * each packed into a single long.
+   *
+   * @param text the normalized text.
+   * @return the trigrams of the text, empty if the text is shorter than a trigram.
+   */
+  static long[] trigrams(String text) {
+    if (text.length() < TRIGRAM_LENGTH) {
+      return new long[0];
+    }
+    long[] trigrams = new long[text.length() - TRIGRAM_LENGTH + 1];
+    for (int i = 0; i < trigrams.length; i++) {
+      trigrams[i] = ((long) text.charAt(i) << 32)
+          | ((long) text.charAt(i + 1) << 16)
+          | text.charAt(i + 2);
+    }
+    return Arrays.stream(trigrams).sorted().distinct().toArray();
+  }
+
+  /**
+   * Normalizes a text the same way for both content and prompts.
+   *
+   * @param text the text to normalize.
+   * @return the lower-cased text.
+   */
+  static String normalize(String text) {
+    return text.toLowerCase();
+  }
+
+  /**
+   * Indexes the content of a {@link DiaryEntry}.
+   *
+   * @param ordinal    the ordinal of the entry, reserved in the {@link LabelIndex}.
+   * @param diaryEntry the {@link DiaryEntry} to index.
+   */
+  void add(int ordinal, DiaryEntry diaryEntry) {
+    for (long trigram : trigrams(normalize(diaryEntry.getContent()))) {
+      this.addPosting(trigram, ordinal);
+    }
+  }
+
+  /**
+   * Removes a {@link DiaryEntry} from the posting lists of all of its trigrams.
+   *
+   * @param ordinal    the ordinal of the entry.
+   * @param diaryEntry the {@link DiaryEntry} to remove, with the content it was indexed with.
+   */
+  void remove(int ordinal, DiaryEntry diaryEntry) {
+    for (long trigram : trigrams(normalize(diaryEntry.getContent()))) {
+      this.removePosting(trigram, ordinal);
+    }
+  }
+
+  /**
+   * Re-indexes a {@link DiaryEntry} after its content changed,
+   * only touching the posting lists of trigrams that were added or removed.
+   *
+   * @param ordinal    the ordinal of the entry.
+   * @param diaryEntry the {@link DiaryEntry} whose content changed.
+   * @param oldContent the content the entry was indexed with before it changed.
+   */
+  void update(int ordinal, DiaryEntry diaryEntry, String oldContent) {
+    long[] oldTrigrams = trigrams(normalize(oldContent));
+    long[] newTrigrams = trigrams(normalize(diaryEntry.getContent()));
+    for (long trigram : oldTrigrams) {
+      if (Arrays.binarySearch(newTrigrams, trigram) < 0) {
+        this.removePosting(trigram, ordinal);
+      }
+    }
+    for (long trigram : newTrigrams) {
+      if (Arrays.binarySearch(oldTrigrams, trigram) < 0) {
+        this.addPosting(trigram, ordinal);
+      }
+    }
+  }
+
+  /**
+   * Returns the entries containing every trigram of the normalized prompt.
+   * The candidates still have to be checked for the prompt itself.
+   *
+   * @param normalizedPrompt the normalized prompt, at least {@link #TRIGRAM_LENGTH} long.
+   * @return a list of candidate {@link DiaryEntry} objects.
+   */
+  List<DiaryEntry> candidates(String normalizedPrompt) {
+    List<DiaryEntry> candidates = new ArrayList<>();
+    this.forEachCandidate(normalizedPrompt, candidates::add);
+    return candidates;
+  }
+
+  /**
+   * Hands every entry containing every trigram of the normalized prompt to the given action,
+   * without collecting them. The ordinals of the shortest posting list are copied, and filtered
+   * against the other lists, so no list is locked while the action runs. The candidates still
+   * have to be checked for the prompt itself.
+   *
+   * @param normalizedPrompt the normalized prompt, at least {@link #TRIGRAM_LENGTH} long.
+   * @param action           is given every candidate {@link DiaryEntry}, in ordinal order.
+   */
+  void forEachCandidate(String normalizedPrompt, Consumer<DiaryEntry> action) {
+    List<PostingList> lists = new ArrayList<>();
+    for (long trigram : trigrams(normalizedPrompt)) {
+      PostingList posting = this.postings.get(trigram);
+      if (posting == null) {
+        return;
+      }
+      lists.add(posting);
+    }
+    lists.sort(Comparator.comparingInt(PostingList::size));
+
+    int[] candidates = lists.getFirst().ordinals();
+    int count = candidates.length;
+    for (int i = 1; i < lists.size() && count > 0; i++) {
+      count = lists.get(i).retainAll(candidates, count);
+    }
+    for (int i = 0; i < count; i++) {
+      DiaryEntry diaryEntry = this.labelIndex.liveEntryAt(candidates[i]);
+      if (diaryEntry != null) {
+        action.accept(diaryEntry);
+      }
+    }
+  }
+
+  /**
+   * Returns an upper bound of the number of candidates of the normalized prompt,
+   * which is the length of the shortest posting list of its trigrams.
+   *
+   * @param normalizedPrompt the normalized prompt, at least {@link #TRIGRAM_LENGTH} long.
+   * @return the upper bound, 0 if a trigram of the prompt is not indexed.
+   */
+  int estimate(String normalizedPrompt) {
+    int estimate = Integer.MAX_VALUE;
+    for (long trigram : trigrams(normalizedPrompt)) {
+      PostingList posting = this.postings.get(trigram);
+      estimate = Math.min(estimate, posting == null ? 0 : posting.size());
+    }
+    return estimate;
+  }
+
+  /**
+   * Adds an ordinal to the posting list of a trigram.
+   *
+   * @param trigram the trigram of the posting list.
+   * @param ordinal the ordinal of the entry.
+   */
+  private void addPosting(long trigram, int ordinal) {
+    this.postings.compute(trigram, (it, posting) -> {
+      PostingList list = posting != null ? posting : new PostingList(false);
+      list.put(ordinal, 0);
+      return list;
+    });
+  }
+
+  /**
+   * Removes an ordinal from the posting list of a trigram,
+   * dropping the list once it is empty.
+   *
+   * @param trigram the trigram of the posting list.
+   * @param ordinal the ordinal of the entry.
+   */
+  private void removePosting(long trigram, int ordinal) {
+    this.postings.computeIfPresent(trigram, (it, posting) -> posting.remove(ordinal) == 0
+        ? null : posting);
+  }
+
+}
@@ -1,9 +1,14 @@
 package main.java.edu.ntnu.iir.bidata.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
 import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.persistence.RegisterLog;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 
 /**
@@ -14,11 +19,16 @@ import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
  * <p>This singleton allows users the following actions:
  * <ul>
  *     <li>Create a new {@link DiaryEntry}.</li>
+ *     <li>Create many {@link DiaryEntry} objects at once, such as when importing recipes.</li>
  *     <li>Delete an existing {@link DiaryEntry}.</li>
  *     <li>Edit the line of a {@link DiaryEntry} its content.</li>
  *     <li>Manage the {@link RecipeLabel}s of a {@link DiaryEntry} object</li>
  * </ul>
  *
+ * <p>Every change is applied and recorded through the {@link RegisterLog},
+ * and is durable by the time the method returns.
+ * </p>
+ *
  * @author Kevin Holswilder
  * @see <a href="https://www.geeksforgeeks.org/java/singleton-class-java/">Singleton Method Design Pattern in Java</a>
  * @since 2025/12/01
@@ -26,24 +36,27 @@ import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 
 public class DiaryService {
 
-  private static DiaryService instance;
-
   /**
    * Private constructor to prevent instantiation.
    */
   private DiaryService() {
   }
 
+  /**
+   * Holds the instance of the diary service. The class loader creates it exactly once,
+   * the first time the holder is used, and safely publishes it to every thread.
+   */
+  private static final class InstanceHolder {
+    private static final DiaryService INSTANCE = new DiaryService();
+  }
+
   /**
    * Returns the instance of the diary service.
    *
    * @return The single instance of the {@link DiaryService} class.
    */
   public static DiaryService getInstance() {
-    if (instance == null) {
-      instance = new DiaryService();
-    }
-    return instance;
+    return InstanceHolder.INSTANCE;
   }
 
   /**
@@ -53,7 +66,8 @@ public class DiaryService {
    * @param content The content of the diary entry.
    * @param author  The author of the diary entry.
    * @param labels  The labels of the diary entry.
-   * @return A new {@link DiaryEntry} object.
+   * @return A new {@link DiaryEntry} object,
+   *     or null if the author already has a diary entry with the same title.
    */
   public DiaryEntry createDiaryEntry(String title, String content, Author author,
                                      List<RecipeLabel> labels) {
@@ -63,8 +77,47 @@ public class DiaryService {
         diaryEntry.addRecipeLabel(label);
       }
     }
-    RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry);
-    return diaryEntry;
+    RegisterLog log = RegisterLog.getInstance();
+    boolean isCreated = log.record(author,
+        () -> RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry)
+            ? log.logDiaryEntryCreated(diaryEntry) : RegisterLog.REJECTED);
+    return isCreated ? diaryEntry : null;
+  }
+
+  /**
+   * Adds several new {@link DiaryEntry} objects to the register at once.
+   *
+   * <p>The entries of each {@link Author} are added and recorded as a single change, and the
+   * method only waits once for all of their records to be forced to disk. An entry is rejected
+   * if its author already has a diary entry with the same title.
+   * </p>
+   *
+   * @param diaryEntries The diary entries to add, whose authors are registered.
+   * @return The diary entries that were added.
+   */
+  public List<DiaryEntry> createDiaryEntries(List<DiaryEntry> diaryEntries) {
+    Map<Author, List<DiaryEntry>> entriesByAuthor = new LinkedHashMap<>();
+    for (DiaryEntry diaryEntry : diaryEntries) {
+      entriesByAuthor.computeIfAbsent(diaryEntry.getAuthor(), it -> new ArrayList<>())
+          .add(diaryEntry);
+    }
+    RegisterLog log = RegisterLog.getInstance();
+    List<DiaryEntry> created = new ArrayList<>();
+    long lastLsn = 0;
+    for (Map.Entry<Author, List<DiaryEntry>> group : entriesByAuthor.entrySet()) {
+      long lsn = log.apply(group.getKey(), () -> {
+        long last = RegisterLog.REJECTED;
+        for (DiaryEntry diaryEntry
+            : RegisterHandler.getDiaryRegister().addDiaryEntries(group.getValue())) {
+          last = log.logDiaryEntryCreated(diaryEntry);
+          created.add(diaryEntry);
+        }
+        return last;
+      });
+      lastLsn = Math.max(lastLsn, lsn);
+    }
+    log.awaitDurable(lastLsn);
+    return created;
   }
 
   /**
@@ -75,14 +128,15 @@ public class DiaryService {
    * @return True if the diary entry was deleted, false otherwise.
    */
   public boolean deleteDiaryEntry(String title, Author author) {
-    DiaryEntry diaryEntry =
-        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor(title, author);
-    if (diaryEntry != null) {
-      RegisterHandler.getDiaryRegister().removeDiaryEntry(diaryEntry.getId());
-      return true;
-    } else {
-      return false;
-    }
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    RegisterLog log = RegisterLog.getInstance();
+    return log.record(author, () -> {
+      DiaryEntry diaryEntry = register.getDiaryEntryByTitleAndAuthor(title, author);
+      if (diaryEntry == null || !register.removeDiaryEntry(title, author)) {
+        return RegisterLog.REJECTED;
+      }
+      return log.logDiaryEntryDeleted(diaryEntry);
+    });
   }
 
   /**
@@ -93,7 +147,11 @@ public class DiaryService {
    * @param content    The new content of the line.
    */
   public void editContentLine(DiaryEntry entry, int lineNumber, String content) {
-    entry.setContentLine(lineNumber, content);
+    RegisterLog log = RegisterLog.getInstance();
+    log.record(entry.getAuthor(), () -> {
+      RegisterHandler.getDiaryRegister().editContentLine(entry, lineNumber, content);
+      return log.logContentLineEdited(entry, lineNumber, content);
+    });
   }
 
   /**
@@ -104,11 +162,10 @@ public class DiaryService {
    * @return True if the label was added successfully, false otherwise.
    */
   public boolean addLabel(DiaryEntry entry, RecipeLabel label) {
-    if (entry.getRecipeLabels().contains(label)) {
-      return false;
-    }
-    entry.addRecipeLabel(label);
-    return true;
+    RegisterLog log = RegisterLog.getInstance();
+    return log.record(entry.getAuthor(),
+        () -> RegisterHandler.getDiaryRegister().addRecipeLabel(entry, label)
+            ? log.logLabelAdded(entry, label) : RegisterLog.REJECTED);
   }
 
   /**
@@ -119,11 +176,10 @@ public class DiaryService {
    * @return True if the label was removed successfully, false otherwise.
    */
   public boolean removeLabel(DiaryEntry entry, RecipeLabel label) {
-    if (!entry.getRecipeLabels().contains(label)) {
-      return false;
-    }
-    entry.removeRecipeLabel(label);
-    return true;
+    RegisterLog log = RegisterLog.getInstance();
+    return log.record(entry.getAuthor(),
+        () -> RegisterHandler.getDiaryRegister().removeRecipeLabel(entry, label)
+            ? log.logLabelRemoved(entry, label) : RegisterLog.REJECTED);
   }
 
 }
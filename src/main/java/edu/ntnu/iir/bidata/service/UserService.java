@@ -1,6 +1,7 @@
 package main.java.edu.ntnu.iir.bidata.service;
 
 import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.persistence.RegisterLog;
 import main.java.edu.ntnu.iir.bidata.register.AuthorRegister;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 
@@ -41,10 +42,41 @@ public class UserService {
    */
   public void register(String username, String name, String surname) {
     Author author = new Author(username, name, surname);
-    RegisterHandler.getAuthorRegister().addAuthor(author);
+    AuthorRegister register = RegisterHandler.getAuthorRegister();
+    RegisterLog log = RegisterLog.getInstance();
+    log.record(author, () -> {
+      register.addAuthor(author);
+      return register.getAuthorByUsername(username) == author
+          ? log.logAuthorRegistered(author) : RegisterLog.REJECTED;
+    });
     System.out.println("Thank you for registering, " + author.getName() + "!");
   }
 
+  /**
+   * Returns the registered {@link Author} with the given username,
+   * and registers a new one first if there is none.
+   *
+   * @param username the username of the author.
+   * @param name     the name of the author, used if the author is new.
+   * @param surname  the surname of the author, used if the author is new.
+   * @return the registered {@link Author} with the username.
+   */
+  public Author registerIfAbsent(String username, String name, String surname) {
+    AuthorRegister register = RegisterHandler.getAuthorRegister();
+    Author registered = register.getAuthorByUsername(username);
+    if (registered != null) {
+      return registered;
+    }
+    Author author = new Author(username, name, surname);
+    RegisterLog log = RegisterLog.getInstance();
+    log.record(author, () -> {
+      register.addAuthor(author);
+      return register.getAuthorByUsername(username) == author
+          ? log.logAuthorRegistered(author) : RegisterLog.REJECTED;
+    });
+    return register.getAuthorByUsername(username);
+  }
+
   /**
    * Returns the current user.
    *
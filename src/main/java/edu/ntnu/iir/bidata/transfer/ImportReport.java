@@ -0,0 +1,62 @@
+package main.java.edu.ntnu.iir.bidata.transfer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Represents the outcome of an import of a recipe file.
+ *
+ * @param rowCount      the number of rows read from the file.
+ * @param importedCount the number of rows that were added to the register.
+ * @param rejectedRows  every row that was rejected, ordered by line number.
+ * @param duration      the time the import took.
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public record ImportReport(long rowCount, long importedCount, List<RejectedRow> rejectedRows,
+                           Duration duration) {
+
+  /**
+   * Returns the number of rows read per second.
+   *
+   * @return the throughput of the import, or 0 if it took no measurable time.
+   */
+  public double rowsPerSecond() {
+    long nanos = this.duration.toNanos();
+    return nanos == 0 ? 0 : this.rowCount * 1e9 / nanos;
+  }
+
+  /**
+   * Returns a formatted summary of the report.
+   *
+   * @return the summary.
+   */
+  @Override
+  public String toString() {
+    return String.format("%d rows read, %d imported, %d rejected in %d ms (%.0f rows per second)",
+        this.rowCount, this.importedCount, this.rejectedRows.size(), this.duration.toMillis(),
+        this.rowsPerSecond());
+  }
+
+  /**
+   * A row that was rejected, along with the reason.
+   *
+   * @param lineNumber the line of the file the row starts at.
+   * @param reason     the reason the row was rejected.
+   */
+  public record RejectedRow(long lineNumber, String reason) {
+
+    /**
+     * Returns a formatted string representation of the rejected row.
+     *
+     * @return the line number with the reason.
+     */
+    @Override
+    public String toString() {
+      return "Line " + this.lineNumber + ": " + this.reason;
+    }
+
+  }
+
+}
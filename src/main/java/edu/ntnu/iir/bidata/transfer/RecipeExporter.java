@@ -0,0 +1,140 @@
+package main.java.edu.ntnu.iir.bidata.transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiarySnapshot;
+import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+
+/**
+ * Exports every {@link DiaryEntry} of the {@link DiaryRegister} to a file, sorted by date.
+ *
+ * <p>The entries are read from a {@link DiarySnapshot}, so edits made during the export are not
+ * mixed in, and streamed from the date index straight into a buffered writer of the file, a
+ * chunk of entries at a time. The export therefore takes the same memory however large the
+ * register is. A file whose name ends with {@link FileFormat#GZIP_EXTENSION} is gzip-compressed
+ * while it is written.
+ * </p>
+ *
+ * <p>The file is first written next to its target under a temporary name, and only moved into
+ * place once it is complete, so a failed export never leaves a partial file behind.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ *     long count = new RecipeExporter(Path.of("recipes.csv.gz"), FileFormat.CSV).run();
+ *     System.out.println(count + " recipes exported");
+ * </pre>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class RecipeExporter {
+
+  /**
+   * The size of the buffers between the entries and the file, in bytes.
+   */
+  public static final int BUFFER_SIZE = 1 << 16;
+
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  private final Path file;
+  private final RecipeWriter writer;
+
+  /**
+   * Creates an exporter to the given file in a built-in format.
+   *
+   * @param file   the file to export to, which is replaced if it exists.
+   * @param format the {@link FileFormat} to write.
+   */
+  public RecipeExporter(Path file, FileFormat format) {
+    this(file, RecipeWriter.of(format));
+  }
+
+  /**
+   * Creates an exporter to the given file through any {@link RecipeWriter}.
+   *
+   * @param file   the file to export to, which is replaced if it exists.
+   * @param writer the {@link RecipeWriter} of the format to write.
+   */
+  public RecipeExporter(Path file, RecipeWriter writer) {
+    this.file = file;
+    this.writer = writer;
+  }
+
+  /**
+   * Exports every entry of the register to the file.
+   *
+   * @return the number of entries that were exported.
+   * @throws IOException if the file cannot be written.
+   */
+  public long run() throws IOException {
+    Path temporary = this.file.resolveSibling(this.file.getFileName() + TEMPORARY_SUFFIX);
+    long count;
+    try (DiarySnapshot snapshot = RegisterHandler.getDiaryRegister().openSnapshot();
+         Writer out = open(temporary, FileFormat.isCompressed(this.file))) {
+      count = write(snapshot.streamDiaryEntriesSortedByDate(), this.writer, out);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+    Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return count;
+  }
+
+  /**
+   * Writes a stream of entries through a {@link RecipeWriter}, starting with its header.
+   * The stream of entries is consumed one entry at a time, and the writer is not closed.
+   *
+   * @param diaryEntries the entries to write.
+   * @param writer       the {@link RecipeWriter} of the format to write.
+   * @param out          the stream to write to.
+   * @return the number of entries that were written.
+   * @throws IOException if the stream cannot be written to.
+   */
+  public static long write(Stream<DiaryEntry> diaryEntries, RecipeWriter writer, Writer out)
+      throws IOException {
+    writer.writeHeader(out);
+    long count = 0;
+    for (Iterator<DiaryEntry> iterator = diaryEntries.iterator(); iterator.hasNext(); count++) {
+      writer.write(iterator.next(), out);
+    }
+    return count;
+  }
+
+  /**
+   * Opens a buffered UTF-8 writer of a file, which compresses what is written if asked to.
+   *
+   * @param file       the file to write, which is replaced if it exists.
+   * @param compressed whether to gzip-compress the file.
+   * @return the writer of the file.
+   * @throws IOException if the file cannot be opened.
+   */
+  private static Writer open(Path file, boolean compressed) throws IOException {
+    OutputStream out = Files.newOutputStream(file);
+    if (compressed) {
+      try {
+        out = new GZIPOutputStream(out, BUFFER_SIZE);
+      } catch (IOException e) {
+        out.close();
+        throw e;
+      }
+    }
+    return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+}
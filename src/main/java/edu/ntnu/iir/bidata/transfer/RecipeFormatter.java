@@ -0,0 +1,195 @@
+package main.java.edu.ntnu.iir.bidata.transfer;
+
+import java.io.IOException;
+import java.io.Writer;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Writes {@link DiaryEntry} objects in one of the built-in {@link FileFormat}s.
+ *
+ * <p>JSON Lines and CSV are written with the fields of {@link RecipeParser#COLUMNS}, so an
+ * exported file can be imported again as it is. Labels are written by their lower-cased names,
+ * and dates in ISO-8601 format. Plain text is written the way entries are shown in the console.
+ * </p>
+ *
+ * <p>Every value is escaped straight into the stream, so writing an entry creates no
+ * intermediate strings besides the ones the entry already holds.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+final class RecipeFormatter implements RecipeWriter {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final FileFormat format;
+
+  /**
+   * Creates a writer of the given format.
+   *
+   * @param format the {@link FileFormat} to write.
+   */
+  RecipeFormatter(FileFormat format) {
+    this.format = format;
+  }
+
+  @Override
+  public void writeHeader(Writer out) throws IOException {
+    if (this.format == FileFormat.CSV) {
+      out.write(String.join(",", RecipeParser.COLUMNS));
+      out.write('\n');
+    }
+  }
+
+  @Override
+  public void write(DiaryEntry diaryEntry, Writer out) throws IOException {
+    switch (this.format) {
+      case TEXT -> {
+        out.write(diaryEntry.toString());
+        out.write('\n');
+      }
+      case JSON_LINES -> writeJsonLine(diaryEntry, out);
+      case CSV -> writeCsvRow(diaryEntry, out);
+      default -> throw new IllegalStateException("Unknown format: " + this.format);
+    }
+  }
+
+  /**
+   * Writes an entry as a single JSON object on its own line.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to write.
+   * @param out        the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  private static void writeJsonLine(DiaryEntry diaryEntry, Writer out) throws IOException {
+    Author author = diaryEntry.getAuthor();
+    out.write("{\"title\":");
+    writeJsonString(diaryEntry.getTitle(), out);
+    out.write(",\"content\":");
+    writeJsonString(diaryEntry.getContent(), out);
+    out.write(",\"username\":");
+    writeJsonString(author.getUsername(), out);
+    out.write(",\"name\":");
+    writeJsonString(author.getName(), out);
+    out.write(",\"surname\":");
+    writeJsonString(author.getSurname(), out);
+    out.write(",\"date\":\"");
+    out.write(diaryEntry.getDate().toString());
+    out.write("\",\"labels\":[");
+    boolean isFirst = true;
+    for (RecipeLabel label : diaryEntry.getRecipeLabels()) {
+      if (!isFirst) {
+        out.write(',');
+      }
+      out.write('"');
+      out.write(label.name().toLowerCase());
+      out.write('"');
+      isFirst = false;
+    }
+    out.write("]}\n");
+  }
+
+  /**
+   * Writes a JSON string, escaping quotes, backslashes and control characters.
+   *
+   * @param value the string to write.
+   * @param out   the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  private static void writeJsonString(String value, Writer out) throws IOException {
+    out.write('"');
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c != '"' && c != '\\' && c >= ' ') {
+        continue;
+      }
+      out.write(value, start, i - start);
+      start = i + 1;
+      switch (c) {
+        case '"' -> out.write("\\\"");
+        case '\\' -> out.write("\\\\");
+        case '\n' -> out.write("\\n");
+        case '\r' -> out.write("\\r");
+        case '\t' -> out.write("\\t");
+        case '\b' -> out.write("\\b");
+        case '\f' -> out.write("\\f");
+        default -> {
+          out.write("\\u00");
+          out.write(HEX_DIGITS[c >> 4]);
+          out.write(HEX_DIGITS[c & 0xF]);
+        }
+      }
+    }
+    out.write(value, start, value.length() - start);
+    out.write('"');
+  }
+
+  /**
+   * Writes an entry as a CSV record, whose labels are separated by semicolons.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to write.
+   * @param out        the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  private static void writeCsvRow(DiaryEntry diaryEntry, Writer out) throws IOException {
+    Author author = diaryEntry.getAuthor();
+    writeCsvValue(diaryEntry.getTitle(), out);
+    out.write(',');
+    writeCsvValue(diaryEntry.getContent(), out);
+    out.write(',');
+    writeCsvValue(author.getUsername(), out);
+    out.write(',');
+    writeCsvValue(author.getName(), out);
+    out.write(',');
+    writeCsvValue(author.getSurname(), out);
+    out.write(',');
+    out.write(diaryEntry.getDate().toString());
+    out.write(',');
+    boolean isFirst = true;
+    for (RecipeLabel label : diaryEntry.getRecipeLabels()) {
+      if (!isFirst) {
+        out.write(';');
+      }
+      out.write(label.name().toLowerCase());
+      isFirst = false;
+    }
+    out.write('\n');
+  }
+
+  /**
+   * Writes a CSV value, quoting it the way RFC 4180 describes if it holds a comma,
+   * a quote or a line break.
+   *
+   * @param value the value to write.
+   * @param out   the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  private static void writeCsvValue(String value, Writer out) throws IOException {
+    boolean needsQuotes = false;
+    for (int i = 0; i < value.length() && !needsQuotes; i++) {
+      char c = value.charAt(i);
+      needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!needsQuotes) {
+      out.write(value);
+      return;
+    }
+    out.write('"');
+    int start = 0;
+    for (int quote = value.indexOf('"'); quote >= 0; quote = value.indexOf('"', quote + 1)) {
+      // Writes up to and including the quote, and then the quote once more to escape it.
+      out.write(value, start, quote + 1 - start);
+      out.write('"');
+      start = quote + 1;
+    }
+    out.write(value, start, value.length() - start);
+    out.write('"');
+  }
+
+}
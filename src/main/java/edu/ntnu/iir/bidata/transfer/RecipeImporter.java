@@ -0,0 +1,482 @@
+package main.java.edu.ntnu.iir.bidata.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.register.AuthorRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+import main.java.edu.ntnu.iir.bidata.service.DiaryService;
+import main.java.edu.ntnu.iir.bidata.service.UserService;
+
+/**
+ * Imports the recipes of a JSON Lines or CSV file into the {@link DiaryRegister} and
+ * {@link AuthorRegister}, as a pipeline of three stages. A gzip-compressed file is
+ * decompressed while it is read.
+ *
+ * <p>A reader thread streams the file and cuts it into chunks of {@link #CHUNK_ROWS} rows.
+ * Every chunk is parsed by a pool of parser threads into new {@link DiaryEntry} objects, and
+ * the parsed chunks are handed on in the order of the file through a bounded queue, so the
+ * reader never runs far ahead of the rest. The calling thread then adds the entries in batches
+ * of {@link #BATCH_ROWS} through {@link DiaryService#createDiaryEntries(List)}, which indexes
+ * and records a whole batch at once and only waits for the disk once per batch.
+ * </p>
+ *
+ * <p>Authors that are not registered yet are registered as soon as their first row is parsed,
+ * which needs their name and surname. A row that cannot be parsed, or whose author already has
+ * a recipe with its title, is rejected and reported along with its line number, while the
+ * rest of the file is still imported. As rows are added in the order of the file, the first of
+ * several rows with the same title and author is the one that is kept.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ *     ImportReport report = new RecipeImporter(Path.of("recipes.jsonl"), FileFormat.JSON_LINES)
+ *         .run((rows, imported, rejected) -&gt; System.out.println(rows + " rows read"));
+ *     System.out.println(report);
+ * </pre>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class RecipeImporter {
+
+  /**
+   * The number of rows parsed as a single task.
+   */
+  public static final int CHUNK_ROWS = 1024;
+
+  /**
+   * The number of rows added to the register at once.
+   */
+  public static final int BATCH_ROWS = 8192;
+
+  /**
+   * The size of the buffers of a gzip-compressed file, in bytes.
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Put on the queue of parsed chunks after the last chunk.
+   */
+  private static final CompletableFuture<List<ParsedRow>> END =
+      CompletableFuture.completedFuture(List.of());
+
+  private final Path file;
+  private final FileFormat format;
+  private final int parserThreads;
+  private final UserService userService;
+
+  /**
+   * Every {@link Author} of the file that has been resolved, keyed by their lower-cased username.
+   */
+  private final ConcurrentHashMap<String, Author> authors;
+
+  /**
+   * Creates an importer of the given file, parsing on every available processor.
+   *
+   * @param file   the file to import.
+   * @param format the {@link FileFormat} of the file.
+   * @throws IllegalArgumentException if the format cannot be imported.
+   */
+  public RecipeImporter(Path file, FileFormat format) {
+    this(file, format, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates an importer of the given file.
+   *
+   * @param file          the file to import.
+   * @param format        the {@link FileFormat} of the file.
+   * @param parserThreads the number of threads parsing rows.
+   * @throws IllegalArgumentException if the format cannot be imported.
+   */
+  public RecipeImporter(Path file, FileFormat format, int parserThreads) {
+    if (!format.isImportable()) {
+      throw new IllegalArgumentException("Files in the format " + format + " cannot be imported.");
+    }
+    this.file = file;
+    this.format = format;
+    this.parserThreads = Math.max(1, parserThreads);
+    this.userService = new UserService();
+    this.authors = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Imports the file, and reports the progress after every batch.
+   *
+   * @param listener is told the progress after every batch and at the end.
+   * @return the {@link ImportReport} of the import.
+   * @throws IOException if the file cannot be read, or the header of a CSV file is invalid.
+   */
+  public ImportReport run(ProgressListener listener) throws IOException {
+    long start = System.nanoTime();
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService parsers = Executors.newFixedThreadPool(this.parserThreads, runnable -> {
+      Thread thread = new Thread(runnable, "recipe-parser-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    BlockingQueue<CompletableFuture<List<ParsedRow>>> parsedChunks =
+        new ArrayBlockingQueue<>(this.parserThreads * 4);
+    Thread reader = new Thread(() -> this.read(parsers, parsedChunks), "recipe-reader");
+    reader.setDaemon(true);
+    reader.start();
+
+    long rowCount = 0;
+    long importedCount = 0;
+    List<ImportReport.RejectedRow> rejectedRows = new ArrayList<>();
+    List<ParsedRow> batch = new ArrayList<>(BATCH_ROWS);
+    try {
+      for (CompletableFuture<List<ParsedRow>> chunk = parsedChunks.take(); chunk != END;
+           chunk = parsedChunks.take()) {
+        for (ParsedRow row : join(chunk)) {
+          rowCount++;
+          if (row.diaryEntry() == null) {
+            rejectedRows.add(new ImportReport.RejectedRow(row.lineNumber(), row.rejection()));
+          } else {
+            batch.add(row);
+          }
+        }
+        if (batch.size() >= BATCH_ROWS) {
+          importedCount += insert(batch, rejectedRows);
+          listener.onProgress(rowCount, importedCount, rejectedRows.size());
+        }
+      }
+      importedCount += insert(batch, rejectedRows);
+      listener.onProgress(rowCount, importedCount, rejectedRows.size());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("The import of " + this.file + " was interrupted.");
+    } finally {
+      reader.interrupt();
+      parsers.shutdownNow();
+    }
+    rejectedRows.sort(Comparator.comparingLong(ImportReport.RejectedRow::lineNumber));
+    return new ImportReport(rowCount, importedCount, List.copyOf(rejectedRows),
+        Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * Streams the file, cuts it into chunks of rows and hands every chunk to the parsers.
+   * Runs on the reader thread, and always ends the queue with {@link #END}.
+   *
+   * @param parsers      the pool of parser threads.
+   * @param parsedChunks the queue of parsed chunks, in the order of the file.
+   */
+  private void read(ExecutorService parsers,
+                    BlockingQueue<CompletableFuture<List<ParsedRow>>> parsedChunks) {
+    try {
+      try (BufferedReader in = this.openReader()) {
+        int[] columns = null;
+        List<RawRow> chunk = new ArrayList<>(CHUNK_ROWS);
+        StringBuilder record = new StringBuilder();
+        int quotes = 0;
+        long lineNumber = 0;
+        long recordLine = 0;
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+          lineNumber++;
+          if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+          }
+          if (record.isEmpty()) {
+            if (line.isBlank()) {
+              continue;
+            }
+            recordLine = lineNumber;
+          } else {
+            record.append('\n');
+          }
+          record.append(line);
+          if (this.format == FileFormat.CSV) {
+            // A quoted field may span several lines, so a record ends once every quote is closed.
+            quotes += RecipeParser.countQuotes(line);
+            if (quotes % 2 != 0) {
+              continue;
+            }
+            quotes = 0;
+          }
+          String text = record.toString();
+          record.setLength(0);
+          if (this.format == FileFormat.CSV && columns == null) {
+            columns = parseHeader(text);
+            continue;
+          }
+          chunk.add(new RawRow(recordLine, text));
+          if (chunk.size() == CHUNK_ROWS) {
+            this.submit(chunk, columns, parsers, parsedChunks);
+            chunk = new ArrayList<>(CHUNK_ROWS);
+          }
+        }
+        if (!record.isEmpty()) {
+          // The last record has an unclosed quote, which its parser rejects.
+          chunk.add(new RawRow(recordLine, record.toString()));
+        }
+        if (!chunk.isEmpty()) {
+          this.submit(chunk, columns, parsers, parsedChunks);
+        }
+      } catch (IOException e) {
+        parsedChunks.put(CompletableFuture.failedFuture(e));
+      }
+      parsedChunks.put(END);
+    } catch (InterruptedException e) {
+      // The import was stopped, so nobody reads the queue anymore.
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Opens a reader of the file, which decompresses it if it is gzip-compressed.
+   *
+   * @return a buffered reader of the text of the file.
+   * @throws IOException if the file cannot be opened.
+   */
+  private BufferedReader openReader() throws IOException {
+    if (!FileFormat.isCompressed(this.file)) {
+      return Files.newBufferedReader(this.file, StandardCharsets.UTF_8);
+    }
+    InputStream in = Files.newInputStream(this.file);
+    try {
+      return new BufferedReader(new InputStreamReader(new GZIPInputStream(in, BUFFER_SIZE),
+          StandardCharsets.UTF_8), BUFFER_SIZE);
+    } catch (IOException e) {
+      // The header of the file is not a gzip header.
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Parses the header of a CSV file.
+   *
+   * @param header the first record of the file.
+   * @return the column of each field.
+   * @throws IOException if the header misses a required column.
+   */
+  private static int[] parseHeader(String header) throws IOException {
+    try {
+      return RecipeParser.parseCsvHeader(header);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Hands a chunk to the parsers, and queues its result. Blocks while the queue is full.
+   *
+   * @param chunk        the rows of the chunk.
+   * @param columns      the column of each field for a CSV file, or null for JSON Lines.
+   * @param parsers      the pool of parser threads.
+   * @param parsedChunks the queue of parsed chunks.
+   * @throws InterruptedException if the import was stopped while waiting.
+   */
+  private void submit(List<RawRow> chunk, int[] columns, ExecutorService parsers,
+                      BlockingQueue<CompletableFuture<List<ParsedRow>>> parsedChunks)
+      throws InterruptedException {
+    parsedChunks.put(CompletableFuture.supplyAsync(() -> this.parse(chunk, columns), parsers));
+  }
+
+  /**
+   * Parses the rows of a chunk into new {@link DiaryEntry} objects. Runs on a parser thread.
+   *
+   * @param chunk   the rows of the chunk.
+   * @param columns the column of each field for a CSV file, or null for JSON Lines.
+   * @return the parsed rows, in the order of the chunk.
+   */
+  private List<ParsedRow> parse(List<RawRow> chunk, int[] columns) {
+    List<ParsedRow> parsedRows = new ArrayList<>(chunk.size());
+    for (RawRow rawRow : chunk) {
+      try {
+        RecipeParser.Row row = columns == null
+            ? RecipeParser.parseJsonLine(rawRow.text())
+            : RecipeParser.parseCsvRow(rawRow.text(), columns);
+        parsedRows.add(new ParsedRow(rawRow.lineNumber(), this.toDiaryEntry(row), null));
+      } catch (IllegalArgumentException e) {
+        parsedRows.add(new ParsedRow(rawRow.lineNumber(), null, e.getMessage()));
+      }
+    }
+    return parsedRows;
+  }
+
+  /**
+   * Creates the {@link DiaryEntry} of a row, after checking its fields.
+   *
+   * @param row the fields of the row.
+   * @return the new {@link DiaryEntry}.
+   * @throws IllegalArgumentException if a field is missing or invalid.
+   */
+  private DiaryEntry toDiaryEntry(RecipeParser.Row row) {
+    String title = requireField(row.title(), "title").trim();
+    String content = requireField(row.content(), "content");
+    List<RecipeLabel> labels = new ArrayList<>();
+    for (String labelName : row.labels()) {
+      if (!labelName.isBlank()) {
+        RecipeLabel label = RecipeLabel.tryParse(labelName.trim());
+        if (label == null) {
+          throw new IllegalArgumentException("Unknown label: " + labelName.trim());
+        }
+        labels.add(label);
+      }
+    }
+    LocalDate date;
+    try {
+      date = row.date() == null || row.date().isBlank()
+          ? LocalDate.now() : LocalDate.parse(row.date().trim());
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid date: " + row.date().trim());
+    }
+    DiaryEntry diaryEntry = new DiaryEntry(UUID.randomUUID(), title, content,
+        this.resolveAuthor(row), date);
+    labels.forEach(diaryEntry::addRecipeLabel);
+    return diaryEntry;
+  }
+
+  /**
+   * Returns the registered {@link Author} of a row, and registers them if they are new.
+   *
+   * @param row the fields of the row.
+   * @return the registered {@link Author}.
+   * @throws IllegalArgumentException if the author is new and has no name or surname.
+   */
+  private Author resolveAuthor(RecipeParser.Row row) {
+    String username = requireField(row.username(), "username").trim();
+    String key = username.toLowerCase();
+    Author author = this.authors.get(key);
+    if (author != null) {
+      return author;
+    }
+    author = RegisterHandler.getAuthorRegister().getAuthorByUsername(username);
+    if (author == null) {
+      if (row.name() == null || row.name().isBlank()
+          || row.surname() == null || row.surname().isBlank()) {
+        throw new IllegalArgumentException(
+            "The new author " + username + " needs both a name and a surname.");
+      }
+      author = this.userService.registerIfAbsent(username, row.name().trim(),
+          row.surname().trim());
+    }
+    this.authors.putIfAbsent(key, author);
+    return author;
+  }
+
+  /**
+   * Adds a batch of parsed rows to the register, and reports the rows that were rejected.
+   *
+   * @param batch        the parsed rows, which is cleared afterward.
+   * @param rejectedRows the list to add the rejected rows to.
+   * @return the number of rows that were added.
+   */
+  private static int insert(List<ParsedRow> batch, List<ImportReport.RejectedRow> rejectedRows) {
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    Set<DiaryEntry> created = new HashSet<>(DiaryService.getInstance()
+        .createDiaryEntries(batch.stream().map(ParsedRow::diaryEntry).toList()));
+    for (ParsedRow row : batch) {
+      if (!created.contains(row.diaryEntry())) {
+        rejectedRows.add(new ImportReport.RejectedRow(row.lineNumber(),
+            "The author already has a recipe titled \"" + row.diaryEntry().getTitle() + "\"."));
+      }
+    }
+    batch.clear();
+    return created.size();
+  }
+
+  /**
+   * Returns the rows of a parsed chunk, waiting for its parser if needed.
+   *
+   * @param chunk the parsed chunk.
+   * @return the parsed rows.
+   * @throws IOException if the reader could not read the file.
+   */
+  private static List<ParsedRow> join(CompletableFuture<List<ParsedRow>> chunk)
+      throws IOException {
+    try {
+      return chunk.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the value of a required field.
+   *
+   * @param value the value of the field, or null if it is missing.
+   * @param name  the name of the field.
+   * @return the value.
+   * @throws IllegalArgumentException if the value is missing or blank.
+   */
+  private static String requireField(String value, String name) {
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("The " + name + " is missing.");
+    }
+    return value;
+  }
+
+  /**
+   * Is told the progress of an import.
+   */
+  @FunctionalInterface
+  public interface ProgressListener {
+
+    /**
+     * Called after every batch of rows is added to the register.
+     *
+     * @param rowCount      the number of rows read so far.
+     * @param importedCount the number of rows added so far.
+     * @param rejectedCount the number of rows rejected so far.
+     */
+    void onProgress(long rowCount, long importedCount, long rejectedCount);
+  }
+
+  /**
+   * A row as it was read from the file.
+   *
+   * @param lineNumber the line of the file the row starts at.
+   * @param text       the text of the row.
+   */
+  private record RawRow(long lineNumber, String text) {
+  }
+
+  /**
+   * A parsed row, which is either a new {@link DiaryEntry} or a rejection.
+   *
+   * @param lineNumber the line of the file the row starts at.
+   * @param diaryEntry the new {@link DiaryEntry}, or null if the row was rejected.
+   * @param rejection  the reason the row was rejected, or null if it was not.
+   */
+  private record ParsedRow(long lineNumber, DiaryEntry diaryEntry, String rejection) {
+  }
+
+}
@@ -0,0 +1,354 @@
+package main.java.edu.ntnu.iir.bidata.transfer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
+
+/**
+ * Parses the rows of a recipe file in one of the {@link FileFormat}s into their fields.
+ *
+ * <p>A JSON Lines row is a single object with string fields named after {@link #COLUMNS}, where
+ * the labels are an array of strings. Fields with other names are ignored. A CSV file starts
+ * with a header naming its columns, and its fields are quoted the way RFC 4180 describes,
+ * so a quoted field may span several lines. The labels of a CSV row are separated by
+ * semicolons.
+ * </p>
+ *
+ * <p>A row that cannot be parsed is rejected with an {@link IllegalArgumentException},
+ * whose message is the reason it was rejected.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+final class RecipeParser {
+
+  /**
+   * The names of the fields of a row, in the order of the fields of {@link Row}.
+   */
+  static final List<String> COLUMNS =
+      List.of("title", "content", "username", "name", "surname", "date", "labels");
+
+  private static final int TITLE = 0;
+  private static final int CONTENT = 1;
+  private static final int USERNAME = 2;
+  private static final int LABELS = 6;
+
+  private final String text;
+  private int position;
+
+  /**
+   * Creates a parser of a single JSON line.
+   *
+   * @param text the line to parse.
+   */
+  private RecipeParser(String text) {
+    this.text = text;
+  }
+
+  /**
+   * Parses a row of a JSON Lines file.
+   *
+   * @param line the line of the row.
+   * @return the fields of the row.
+   * @throws IllegalArgumentException if the line is not a JSON object of the expected fields.
+   */
+  static Row parseJsonLine(String line) {
+    return new RecipeParser(line).parseObject();
+  }
+
+  /**
+   * Parses the header of a CSV file into the column of each field of {@link #COLUMNS}.
+   *
+   * @param header the first record of the file.
+   * @return the column of each field, or -1 for fields the file does not have.
+   * @throws IllegalArgumentException if the title, content or username column is missing.
+   */
+  static int[] parseCsvHeader(String header) {
+    List<String> names = parseCsvRecord(header);
+    int[] columns = new int[COLUMNS.size()];
+    Arrays.fill(columns, -1);
+    for (int i = 0; i < names.size(); i++) {
+      int field = COLUMNS.indexOf(names.get(i).trim().toLowerCase());
+      if (field >= 0) {
+        columns[field] = i;
+      }
+    }
+    for (int field : new int[] {TITLE, CONTENT, USERNAME}) {
+      if (columns[field] < 0) {
+        throw new IllegalArgumentException(
+            "The CSV header misses the column \"" + COLUMNS.get(field) + "\".");
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Parses a row of a CSV file.
+   *
+   * @param record  the record of the row, which may span several lines.
+   * @param columns the column of each field, as returned by {@link #parseCsvHeader(String)}.
+   * @return the fields of the row.
+   * @throws IllegalArgumentException if a quoted field is malformed.
+   */
+  static Row parseCsvRow(String record, int[] columns) {
+    List<String> values = parseCsvRecord(record);
+    String[] fields = new String[COLUMNS.size()];
+    for (int field = 0; field < fields.length; field++) {
+      int column = columns[field];
+      fields[field] = column >= 0 && column < values.size() ? values.get(column) : null;
+    }
+    List<String> labels = fields[LABELS] == null || fields[LABELS].isBlank()
+        ? List.of() : List.of(fields[LABELS].split(";"));
+    return new Row(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], labels);
+  }
+
+  /**
+   * Counts the quotes in a line of a CSV file. A record ends once the count of all of its lines
+   * is even, as an escaped quote counts twice and only an open quoted field leaves an odd count.
+   *
+   * @param line the line to count the quotes of.
+   * @return the number of quotes in the line.
+   */
+  static int countQuotes(String line) {
+    int quotes = 0;
+    for (int i = line.indexOf('"'); i >= 0; i = line.indexOf('"', i + 1)) {
+      quotes++;
+    }
+    return quotes;
+  }
+
+  /**
+   * Splits a CSV record into its values, removing the quotes around quoted values.
+   *
+   * @param record the record to split.
+   * @return the values of the record.
+   * @throws IllegalArgumentException if a quoted value is malformed.
+   */
+  private static List<String> parseCsvRecord(String record) {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    int i = 0;
+    while (true) {
+      if (i < record.length() && record.charAt(i) == '"') {
+        i++;
+        while (true) {
+          if (i >= record.length()) {
+            throw new IllegalArgumentException("A quoted field is not closed.");
+          }
+          char c = record.charAt(i++);
+          if (c != '"') {
+            value.append(c);
+          } else if (i < record.length() && record.charAt(i) == '"') {
+            value.append('"');
+            i++;
+          } else {
+            break;
+          }
+        }
+        if (i < record.length() && record.charAt(i) != ',') {
+          throw new IllegalArgumentException("A quoted field is followed by more text.");
+        }
+      } else {
+        int end = record.indexOf(',', i);
+        end = end < 0 ? record.length() : end;
+        value.append(record, i, end);
+        i = end;
+      }
+      values.add(value.toString());
+      value.setLength(0);
+      if (i >= record.length()) {
+        return values;
+      }
+      // Skips the comma.
+      i++;
+    }
+  }
+
+  /**
+   * Parses the JSON object of the line.
+   *
+   * @return the fields of the object.
+   */
+  private Row parseObject() {
+    String[] fields = new String[COLUMNS.size()];
+    List<String> labels = List.of();
+    this.expect('{');
+    if (!this.consume('}')) {
+      do {
+        String name = this.parseString();
+        this.expect(':');
+        int field = COLUMNS.indexOf(name);
+        if (field == LABELS) {
+          labels = this.parseStringArray();
+        } else {
+          String value = this.parseValue();
+          if (field >= 0) {
+            fields[field] = value;
+          }
+        }
+      } while (this.consume(','));
+      this.expect('}');
+    }
+    this.skipWhitespace();
+    if (this.position < this.text.length()) {
+      throw new IllegalArgumentException("The line holds more than one JSON object.");
+    }
+    return new Row(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], labels);
+  }
+
+  /**
+   * Parses a string or null value.
+   *
+   * @return the string, or null if the value is null.
+   */
+  private String parseValue() {
+    this.skipWhitespace();
+    if (this.text.startsWith("null", this.position)) {
+      this.position += 4;
+      return null;
+    }
+    return this.parseString();
+  }
+
+  /**
+   * Parses an array of strings, or a null value.
+   *
+   * @return the strings of the array, or an empty list if the value is null.
+   */
+  private List<String> parseStringArray() {
+    this.skipWhitespace();
+    if (this.text.startsWith("null", this.position)) {
+      this.position += 4;
+      return List.of();
+    }
+    List<String> strings = new ArrayList<>();
+    this.expect('[');
+    if (!this.consume(']')) {
+      do {
+        strings.add(this.parseString());
+      } while (this.consume(','));
+      this.expect(']');
+    }
+    return strings;
+  }
+
+  /**
+   * Parses a JSON string, resolving its escape sequences.
+   *
+   * @return the string.
+   */
+  private String parseString() {
+    this.expect('"');
+    StringBuilder string = null;
+    int start = this.position;
+    while (this.position < this.text.length()) {
+      char c = this.text.charAt(this.position++);
+      if (c == '"') {
+        if (string == null) {
+          return this.text.substring(start, this.position - 1);
+        }
+        return string.toString();
+      }
+      if (c == '\\') {
+        if (string == null) {
+          string = new StringBuilder().append(this.text, start, this.position - 1);
+        }
+        string.append(this.parseEscape());
+      } else if (string != null) {
+        string.append(c);
+      }
+    }
+    throw new IllegalArgumentException("A JSON string is not closed.");
+  }
+
+  /**
+   * Parses the escape sequence after a backslash.
+   *
+   * @return the escaped character.
+   */
+  private char parseEscape() {
+    if (this.position >= this.text.length()) {
+      throw new IllegalArgumentException("A JSON string is not closed.");
+    }
+    char c = this.text.charAt(this.position++);
+    return switch (c) {
+      case '"', '\\', '/' -> c;
+      case 'b' -> '\b';
+      case 'f' -> '\f';
+      case 'n' -> '\n';
+      case 'r' -> '\r';
+      case 't' -> '\t';
+      case 'u' -> {
+        if (this.position + 4 > this.text.length()) {
+          throw new IllegalArgumentException("A JSON unicode escape is cut off.");
+        }
+        try {
+          char unicode = (char) Integer.parseInt(
+              this.text.substring(this.position, this.position + 4), 16);
+          this.position += 4;
+          yield unicode;
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("A JSON unicode escape is malformed.");
+        }
+      }
+      default -> throw new IllegalArgumentException("Unknown JSON escape: \\" + c);
+    };
+  }
+
+  /**
+   * Skips whitespace, and consumes the given character if it comes next.
+   *
+   * @param c the character to consume.
+   * @return true if the character was consumed.
+   */
+  private boolean consume(char c) {
+    this.skipWhitespace();
+    if (this.position < this.text.length() && this.text.charAt(this.position) == c) {
+      this.position++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Skips whitespace, and consumes the given character.
+   *
+   * @param c the character that must come next.
+   * @throws IllegalArgumentException if another character comes next.
+   */
+  private void expect(char c) {
+    if (!this.consume(c)) {
+      throw new IllegalArgumentException("Expected '" + c + "' at position " + this.position
+          + " of the JSON line.");
+    }
+  }
+
+  /**
+   * Skips the whitespace at the current position.
+   */
+  private void skipWhitespace() {
+    while (this.position < this.text.length()
+        && Character.isWhitespace(this.text.charAt(this.position))) {
+      this.position++;
+    }
+  }
+
+  /**
+   * The fields of a row, which are null if the row does not have them.
+   *
+   * @param title    the title of the recipe.
+   * @param content  the content of the recipe.
+   * @param username the username of the author.
+   * @param name     the name of the author.
+   * @param surname  the surname of the author.
+   * @param date     the date of the recipe, in ISO-8601 format.
+   * @param labels   the names of the labels of the recipe.
+   */
+  record Row(String title, String content, String username, String name, String surname,
+             String date, List<String> labels) {
+  }
+
+}
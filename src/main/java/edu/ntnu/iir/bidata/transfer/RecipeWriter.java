@@ -0,0 +1,51 @@
+package main.java.edu.ntnu.iir.bidata.transfer;
+
+import java.io.IOException;
+import java.io.Writer;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+
+/**
+ * Writes {@link DiaryEntry} objects to a character stream in a single format.
+ *
+ * <p>A writer only writes, and never buffers, flushes or closes the stream, so the same
+ * writer can be used for any number of exports. The built-in formats are returned by
+ * {@link #of(FileFormat)}, while other formats can be added by implementing this interface
+ * and passing it to a {@link RecipeExporter}.
+ * </p>
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public interface RecipeWriter {
+
+  /**
+   * Returns the writer of a built-in {@link FileFormat}.
+   *
+   * @param format the {@link FileFormat} to write.
+   * @return the writer of the format.
+   */
+  static RecipeWriter of(FileFormat format) {
+    return new RecipeFormatter(format);
+  }
+
+  /**
+   * Writes whatever comes before the first entry. Writes nothing by default.
+   *
+   * @param out the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  default void writeHeader(Writer out) throws IOException {
+  }
+
+  /**
+   * Writes a single {@link DiaryEntry}, including the line break that ends it.
+   *
+   * @param diaryEntry the {@link DiaryEntry} to write.
+   * @param out        the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  void write(DiaryEntry diaryEntry, Writer out) throws IOException;
+
+}
@@ -34,7 +34,8 @@ public class InteractionKeys {
   public static final int RUN_SEARCH_FLOW = 4;
   public static final int EXPORT_DIARIES = 5;
   public static final int EXPORT_AUTHOR_STATISTICS = 6;
-  public static final int LOGOUT = 7;
+  public static final int IMPORT_DIARIES = 7;
+  public static final int LOGOUT = 8;
 
   /**
    * Set of interaction keys for the edit flow of the program.
@@ -53,6 +54,9 @@ public class InteractionKeys {
   public static final int SEARCH_AUTHOR = 4;
   public static final int SEARCH_PROMPT = 5;
   public static final int SEARCH_LABEL = 6;
-  public static final int SEARCH_RETURN = 7;
+  public static final int SEARCH_KEYWORDS = 7;
+  public static final int SEARCH_COMBINED = 8;
+  public static final int SEARCH_RELEVANCE = 9;
+  public static final int SEARCH_RETURN = 10;
 
 }
@@ -1,9 +1,13 @@
 package main.java.edu.ntnu.iir.bidata.ui.diary;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Scanner;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
 import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
 import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
@@ -11,11 +15,13 @@ import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 import main.java.edu.ntnu.iir.bidata.service.DiaryService;
 import main.java.edu.ntnu.iir.bidata.service.UserService;
+import main.java.edu.ntnu.iir.bidata.transfer.ImportReport;
+import main.java.edu.ntnu.iir.bidata.transfer.RecipeImporter;
 import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
 
 /**
- * This class provides the method to create {@link DiaryEntry} objects
- * and adding them to the {@link DiaryRegister}.
+ * This class provides the methods to create {@link DiaryEntry} objects
+ * and adding them to the {@link DiaryRegister}, one by one or imported from a file.
  *
  * @author Kevin Holswilder
  * @since 2025/12/01
@@ -24,6 +30,8 @@ import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
 @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
 public class DiaryCreateUI {
 
+  private static final int REJECTED_ROWS_SHOWN = 20;
+
   /**
    * Prompts the user to enter a title which has to be unique for the {@link Author},
    * write the content, and additionally add (optional) {@link RecipeLabel}s to the diary entry.
@@ -88,11 +96,52 @@ public class DiaryCreateUI {
     // Get the current author.
     Author author = UserService.getCurrentUser();
 
-    // Add the diary entry to the register.
+    // Add the diary entry to the register, which rejects duplicate titles for the author.
     DiaryEntry diaryEntry =
         DiaryService.getInstance().createDiaryEntry(title, content, author, labels);
+    if (diaryEntry == null) {
+      System.out.println("You already have a recipe with this title, please try again.");
+      return;
+    }
     System.out.println(
         "Successfully created cooking diary with title: " + diaryEntry.getTitle() + ".");
   }
 
+  /**
+   * Prompts the user to enter the path of a JSON Lines or CSV file,
+   * and imports every recipe in it, printing the progress along the way.
+   *
+   * <p>If the file is found, calls to {@link RecipeImporter#run(RecipeImporter.ProgressListener)}.
+   *
+   * @param input a {@link Scanner} object to read user input.
+   */
+  public void importDiaries(Scanner input) {
+    System.out.println("Enter the path of the file to import (.jsonl or .csv, optionally .gz):");
+    Path file = Path.of(UtilityManager.ensureNonEmptyTrimmedString(input));
+    FileFormat format = FileFormat.tryDetect(file);
+    if (format == null || !format.isImportable() || !Files.isRegularFile(file)) {
+      System.out.println("This is not a .jsonl or .csv file, please try again.");
+      return;
+    }
+
+    // Import the file, and print the progress after every batch.
+    ImportReport report;
+    try {
+      report = new RecipeImporter(file, format).run((rows, imported, rejected) ->
+          System.out.println(rows + " rows read, " + imported + " imported, "
+              + rejected + " rejected..."));
+    } catch (IOException e) {
+      System.out.println("Could not import the file: " + e.getMessage());
+      return;
+    }
+
+    // Print the report, along with the first rejected rows.
+    System.out.println(report);
+    report.rejectedRows().stream().limit(REJECTED_ROWS_SHOWN).forEach(System.out::println);
+    if (report.rejectedRows().size() > REJECTED_ROWS_SHOWN) {
+      System.out.println("... and " + (report.rejectedRows().size() - REJECTED_ROWS_SHOWN)
+          + " more rejected rows.");
+    }
+  }
+
 }
@@ -4,6 +4,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Scanner;
 import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.ContentLines;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 import main.java.edu.ntnu.iir.bidata.service.DiaryService;
@@ -188,9 +189,9 @@ public class DiaryEditUI {
     System.out.println("Which line of the content would you like to change?");
     DiaryEntry diaryEntry = RegisterHandler.getDiaryRegister()
         .getDiaryEntryByTitleAndAuthor(title, UserService.getCurrentUser());
-    String[] contentLines = diaryEntry.getContent().split("\n");
-    for (int i = 0; i < contentLines.length; i++) {
-      System.out.println(i + 1 + ". " + contentLines[i]);
+    ContentLines contentLines = diaryEntry.getContentLines();
+    for (int i = 0; i < contentLines.getLineCount(); i++) {
+      System.out.println(i + 1 + ". " + contentLines.getLine(i));
     }
 
     // Get the line number from the user.
@@ -198,7 +199,7 @@ public class DiaryEditUI {
     int lineNumber = UtilityManager.ensureValidInteger(input);
 
     // Check if the line number is valid.
-    if (lineNumber < 1 || lineNumber > contentLines.length) {
+    if (lineNumber < 1 || lineNumber > contentLines.getLineCount()) {
       System.out.println("Invalid line number, please try again.");
       return;
     }
@@ -1,19 +1,30 @@
 package main.java.edu.ntnu.iir.bidata.ui.diary;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Scanner;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
 import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
 import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiarySnapshot;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+import main.java.edu.ntnu.iir.bidata.transfer.RecipeExporter;
 
 /**
  * This class provides methods for exporting {@link DiaryEntry} objects
- * and print them to the console.
+ * to a file or the console.
  *
  * <p>This class allows users to perform the following actions:
  * <ul>
- *     <li>Export all {@link DiaryEntry} objects in the register.</li>
+ *     <li>Export all {@link DiaryEntry} objects in the register to a file
+ *     in one of the {@link FileFormat}s, or to the console.</li>
  *     <li>Export statistics from each {@link Author} with the amount
  *     of {@link DiaryEntry} entries they have written.</li>
  * </ul>
@@ -36,25 +47,69 @@ public class DiaryExportUI {
     System.out.println("Number of recipes written by each author:");
     System.out.println("-----------------------------------------");
 
+    // The register keeps a count per author, so no entries have to be looked at.
     for (Author author : authors) {
-      List<DiaryEntry> diaryEntries =
-          RegisterHandler.getDiaryRegister().getDiaryEntriesByAuthor(author);
-      int diaryCount = diaryEntries.size();
+      int diaryCount = RegisterHandler.getDiaryRegister().getDiaryEntryCountByAuthor(author);
       System.out.println(author.toString() + ": " + diaryCount);
     }
   }
 
   /**
-   * Exports all {@link DiaryEntry} objects in the {@link DiaryRegister}, sorted by date.
+   * Exports all {@link DiaryEntry} objects in the {@link DiaryRegister}, sorted by date,
+   * to a file of the format matching its extension, or to the console if no file is given.
+   *
+   * @param input the scanner to read the path of the file from.
    */
-  public void exportDiaries() {
-    List<DiaryEntry> diaryEntries =
-        RegisterHandler.getDiaryRegister().getDiaryEntriesSortedByDate();
-    if (diaryEntries.isEmpty()) {
-      System.out.println("No entries were found.");
+  public void exportDiaries(Scanner input) {
+    System.out.println("Enter the path of the file to export to (.txt, .jsonl or .csv, "
+        + "optionally .gz), or leave it empty to show the recipes here:");
+    String path = input.nextLine().trim();
+    if (path.isEmpty()) {
+      this.printDiaries();
       return;
     }
-    DiaryHelper.listDiaries(diaryEntries);
+    Path file = Path.of(path);
+    FileFormat format = FileFormat.tryDetect(file);
+    if (format == null) {
+      System.out.println("This is not a .txt, .jsonl or .csv file, please try again.");
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      long count = new RecipeExporter(file, format).run();
+      System.out.println("Exported " + count + " recipes to " + file + " in "
+          + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    } catch (IOException e) {
+      System.out.println("Could not export to the file: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Prints all {@link DiaryEntry} objects in the {@link DiaryRegister} to the console,
+   * sorted by date. The entries are streamed from a snapshot through a single buffered writer,
+   * so edits made during the export are not mixed in and no list of every entry is built.
+   */
+  private void printDiaries() {
+    try (DiarySnapshot snapshot = RegisterHandler.getDiaryRegister().openSnapshot()) {
+      Iterator<DiaryEntry> diaryEntries = snapshot.streamDiaryEntriesSortedByDate().iterator();
+      if (!diaryEntries.hasNext()) {
+        System.out.println("No entries were found.");
+        return;
+      }
+      // Not closed, as that would close the console as well.
+      Writer out = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()),
+          RecipeExporter.BUFFER_SIZE);
+      out.write("=== Recipe Entries ===\n");
+      for (int i = 1; diaryEntries.hasNext(); i++) {
+        out.write("#" + i + " - ");
+        out.write(diaryEntries.next().toString());
+        out.write('\n');
+      }
+      out.flush();
+    } catch (IOException e) {
+      System.out.println("Could not print the recipes: " + e.getMessage());
+    }
   }
 
 }
@@ -2,7 +2,10 @@ package main.java.edu.ntnu.iir.bidata.ui.diary;
 
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Function;
+import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.register.DiaryPage;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 import main.java.edu.ntnu.iir.bidata.service.UserService;
 import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
@@ -13,11 +16,12 @@ import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
  *
  * <p>Methods in this class include:
  * <ul>
- *     <li>Performing searched on a list of {@link DiaryEntry} objects
+ *     <li>Performing searches that return {@link DiaryEntry} objects page by page
  *     and printing the results.</li>
  *     <li>Listing all {@link DiaryEntry} objects in a given list.</li>
  *     <li>Printing the titles of {@link DiaryEntry} objects in a list.</li>
  *     <li>Prompting the user to enter a valid diary title that exists for the current user.</li>
+ *     <li>Suggesting the closest existing titles when a title has a typo.</li>
  * </ul>
  *
  * @author Kevin Holswilder
@@ -27,25 +31,59 @@ import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
 public class DiaryHelper {
 
   /**
-   * Performs a search based on the given list of {@link DiaryEntry} objects.
+   * The number of {@link DiaryEntry} objects shown per page of search results.
    */
-  static void performSearch(List<DiaryEntry> results) {
-    if (results == null || results.isEmpty()) {
+  static final int PAGE_SIZE = 10;
+
+  /**
+   * The largest number of typos in a title for which an existing title is still suggested.
+   */
+  static final int SUGGESTION_DISTANCE = 2;
+
+  /**
+   * The maximum number of titles suggested at a time.
+   */
+  static final int SUGGESTION_LIMIT = 3;
+
+  /**
+   * Performs a search page by page, printing every page and asking whether to show the next.
+   * Only a single page of results is held at a time.
+   *
+   * @param input  a {@link Scanner} object to read user input.
+   * @param search returns the page of results following the given page token,
+   *               which is null for the first page.
+   */
+  static void performSearch(Scanner input, Function<String, DiaryPage> search) {
+    DiaryPage page = search.apply(null);
+    if (page.entries().isEmpty()) {
       System.out.println("No entries were found.");
       return;
     }
-    listDiaries(results);
+    System.out.println("=== Recipe Entries ===");
+    int shownCount = 0;
+    while (true) {
+      listDiaries(page.entries(), shownCount + 1);
+      shownCount += page.entries().size();
+      if (!page.hasNextPage()) {
+        return;
+      }
+      System.out.println("Press Enter to show the next page, or type anything to stop.");
+      if (!input.nextLine().isEmpty()) {
+        return;
+      }
+      page = search.apply(page.nextPageToken());
+    }
   }
 
   /**
    * Lists all diaries in the given list.
    *
    * @param diaryEntries a list of {@link DiaryEntry} objects.
+   * @param firstNumber  the number shown in front of the first diary.
    */
-  static void listDiaries(List<DiaryEntry> diaryEntries) {
-    System.out.println("=== Recipe Entries ===");
+  static void listDiaries(List<DiaryEntry> diaryEntries, int firstNumber) {
     for (int i = 0; i < diaryEntries.size(); i++) {
-      System.out.println("#" + (i + 1) + " - " + diaryEntries.get(i));
+      System.out.println("#" + (firstNumber + i) + " - " + diaryEntries.get(i));
     }
   }
 
@@ -72,15 +110,30 @@ public class DiaryHelper {
       System.out.println("Enter the title of your recipe diary:");
       title = UtilityManager.ensureNonEmptyTrimmedString(input);
 
+      Author author = UserService.getCurrentUser();
       boolean titleExists = RegisterHandler.getDiaryRegister()
-          .getDiaryEntryByTitleAndAuthor(title, UserService.getCurrentUser()) != null;
+          .getDiaryEntryByTitleAndAuthor(title, author) != null;
       if (titleExists) {
         break;
       } else {
         System.out.println("You do not have a recipe with this title, please enter another title.");
+        // Only the titles of the user's own recipes are suggested.
+        printSuggestions(RegisterHandler.getDiaryRegister()
+            .getSimilarTitles(title, author, SUGGESTION_DISTANCE, SUGGESTION_LIMIT));
       }
     }
     return title;
   }
 
+  /**
+   * Prints the given titles as "did you mean" suggestions, or nothing if there are none.
+   *
+   * @param titles a list of suggested titles, the closest first.
+   */
+  static void printSuggestions(List<String> titles) {
+    if (!titles.isEmpty()) {
+      System.out.println("Did you mean: \"" + String.join("\", \"", titles) + "\"?");
+    }
+  }
+
 }
@@ -1,12 +1,14 @@
 package main.java.edu.ntnu.iir.bidata.ui.diary;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Scanner;
 import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
 import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.register.DiaryQuery;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
 
@@ -21,6 +23,9 @@ import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
  *     <li>Search {@link DiaryEntry} objects after date.</li>
  *     <li>Search {@link DiaryEntry} objects between a period of dates.</li>
  *     <li>Search {@link DiaryEntry} objects by a given prompt.</li>
+ *     <li>Search {@link DiaryEntry} objects by keywords.</li>
+ *     <li>Search {@link DiaryEntry} objects by several of the criteria above combined.</li>
+ *     <li>Search the {@link DiaryEntry} objects most relevant to a given prompt.</li>
  * </ul>
  *
  * @author Kevin Holswilder
@@ -32,7 +37,7 @@ public class DiarySearchUI {
 
   /**
    * Prompts the user to enter a title, which searches for {@link DiaryEntry},
-   * entries whose titles match the given query.
+   * entries whose titles match the given query. If none match, the closest titles are suggested.
    *
    * @param input a {@link Scanner} object to read user input.
    */
@@ -41,9 +46,15 @@ public class DiarySearchUI {
     String title = UtilityManager.ensureNonEmptyTrimmedString(input);
 
     // Search for diary entries with the given title and print them if any are found.
-    List<DiaryEntry> diaryEntries =
-        RegisterHandler.getDiaryRegister().getDiaryEntriesByTitle(title);
-    DiaryHelper.performSearch(diaryEntries);
+    DiaryQuery query = DiaryQuery.all().withTitle(title);
+    if (RegisterHandler.getDiaryRegister().query(query, DiaryHelper.PAGE_SIZE, null)
+        .entries().isEmpty()) {
+      System.out.println("No entries were found.");
+      DiaryHelper.printSuggestions(RegisterHandler.getDiaryRegister().getSimilarTitles(
+          title, DiaryHelper.SUGGESTION_DISTANCE, DiaryHelper.SUGGESTION_LIMIT));
+      return;
+    }
+    performQuery(input, query);
   }
 
   /**
@@ -58,8 +69,7 @@ public class DiarySearchUI {
     LocalDate date = UtilityManager.ensureValidDate(input);
 
     // Search for diary entries with the given date and print them if any are found.
-    List<DiaryEntry> diaryEntries = RegisterHandler.getDiaryRegister().getDiaryEntryByDate(date);
-    DiaryHelper.performSearch(diaryEntries);
+    performQuery(input, DiaryQuery.all().withPeriod(date, date));
   }
 
   /**
@@ -77,9 +87,7 @@ public class DiarySearchUI {
     LocalDate endDate = UtilityManager.ensureValidDate(input);
 
     // Search for diary entries within the given period and print them if any are found.
-    List<DiaryEntry> diaryEntries =
-        RegisterHandler.getDiaryRegister().getDiaryEntriesBetweenPeriod(startDate, endDate);
-    DiaryHelper.performSearch(diaryEntries);
+    performQuery(input, DiaryQuery.all().withPeriod(startDate, endDate));
   }
 
   /**
@@ -96,18 +104,17 @@ public class DiarySearchUI {
       System.out.println("#" + (i + 1) + " - " + authors.get(i).toString());
     }
 
-    // Check if the author exists.
+    // Check if the author exists, several authors may share the same name.
     String fullName = UtilityManager.ensureNonEmptyTrimmedString(input);
-    Author author = RegisterHandler.getAuthorRegister().getAuthorByFullName(fullName);
-    if (author == null) {
+    List<Author> matchingAuthors =
+        RegisterHandler.getAuthorRegister().getAuthorsByFullName(fullName);
+    if (matchingAuthors.isEmpty()) {
       System.out.println("Author not found, please try again.");
       return;
     }
 
-    // Search for diary entries written by the given author and print them if any are found.
-    List<DiaryEntry> diaryEntries =
-        RegisterHandler.getDiaryRegister().getDiaryEntriesByAuthor(author);
-    DiaryHelper.performSearch(diaryEntries);
+    // Search for diary entries written by the given author(s) and print them if any are found.
+    performQuery(input, DiaryQuery.all().withAuthors(matchingAuthors));
   }
 
   /**
@@ -121,35 +128,190 @@ public class DiarySearchUI {
     String prompt = UtilityManager.ensureNonEmptyTrimmedString(input);
 
     // Search for diary entries with the given prompt and print them if any are found.
-    List<DiaryEntry> diaryEntries =
-        RegisterHandler.getDiaryRegister().getDiaryEntriesByPrompt(prompt);
-    DiaryHelper.performSearch(diaryEntries);
+    performQuery(input, DiaryQuery.all().withPrompt(prompt));
+  }
+
+  /**
+   * Prompts the user to enter one or more keywords, which searches for {@link DiaryEntry},
+   * entries whose title or content contains every keyword as a whole word.
+   *
+   * @param input a {@link Scanner} object to read user input.
+   */
+  public void searchDiaryByKeywords(Scanner input) {
+    System.out.println("Please enter one or more keywords:");
+    String keywords = UtilityManager.ensureNonEmptyTrimmedString(input);
+
+    // Search for diary entries containing every keyword and print them if any are found.
+    DiaryQuery query;
+    try {
+      query = DiaryQuery.all().withKeywords(keywords);
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      return;
+    }
+    performQuery(input, query);
   }
 
   /**
-   * Prompts the user to enter a label name, which searches for {@link DiaryEntry},
-   * entries whose list of labels contains the given {@link RecipeLabel}.
+   * Prompts the user to enter a prompt, which lists the {@link DiaryEntry} entries
+   * most relevant to it, the most relevant first.
+   *
+   * @param input a {@link Scanner} object to read user input.
+   */
+  public void searchDiaryByRelevance(Scanner input) {
+    System.out.println("Please enter your search prompt:");
+    String prompt = UtilityManager.ensureNonEmptyTrimmedString(input);
+
+    // List the most relevant diary entries if any are found.
+    List<DiaryEntry> diaryEntries = RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByRelevance(prompt, DiaryHelper.PAGE_SIZE);
+    if (diaryEntries.isEmpty()) {
+      System.out.println("No entries were found.");
+      return;
+    }
+    System.out.println("=== Most Relevant Recipe Entries ===");
+    DiaryHelper.listDiaries(diaryEntries, 1);
+  }
+
+  /**
+   * Prompts the user to enter one or more label names, which searches for {@link DiaryEntry},
+   * entries whose list of labels contains every given {@link RecipeLabel}.
+   * Labels prefixed with '-' are excluded instead, e.g. "vegan, glutenfree, -soyfree".
    *
    * @param input a {@link Scanner} object to read user input.
    */
   public void searchDiaryByLabel(Scanner input) {
-    System.out.println("Please enter the label you're looking for:");
+    System.out.println("Please enter the label(s) you're looking for, separated by commas.");
+    System.out.println("Prefix a label with '-' to exclude it, e.g. 'vegan, -soyfree'.");
     // Print all available labels.
     System.out.println("Available Labels:");
     RecipeLabel.printLabels(EnumSet.allOf(RecipeLabel.class));
 
-    // Get the label from the user.
+    // Get the labels from the user.
     String labelString = UtilityManager.ensureNonEmptyTrimmedString(input);
-    RecipeLabel label = RecipeLabel.tryParse(labelString);
-    if (label == null) {
-      System.out.println("Invalid label, please try again.");
+    EnumSet<RecipeLabel> includedLabels = EnumSet.noneOf(RecipeLabel.class);
+    EnumSet<RecipeLabel> excludedLabels = EnumSet.noneOf(RecipeLabel.class);
+    if (!parseLabels(labelString, includedLabels, excludedLabels)) {
       return;
     }
 
-    // Search for diary entries with the given label and print them if any are found.
-    List<DiaryEntry> diaryEntries =
-        RegisterHandler.getDiaryRegister().getDiaryEntriesByLabel(label);
-    DiaryHelper.performSearch(diaryEntries);
+    // Search for diary entries matching the labels and print them if any are found.
+    performQuery(input, DiaryQuery.all()
+        .withLabels(includedLabels, EnumSet.noneOf(RecipeLabel.class), excludedLabels));
+  }
+
+  /**
+   * Prompts the user for a title, author, labels, period, prompt and keywords, any of which may
+   * be skipped, and searches for {@link DiaryEntry} entries matching all the given criteria.
+   *
+   * @param input a {@link Scanner} object to read user input.
+   */
+  public void searchDiaryByCombinedCriteria(Scanner input) {
+    System.out.println("Enter any of the criteria below, or press Enter to skip one.");
+    DiaryQuery query = DiaryQuery.all();
+
+    System.out.println("What's the title of the entry?");
+    String title = input.nextLine().trim();
+    if (!title.isEmpty()) {
+      query = query.withTitle(title);
+    }
+
+    System.out.println("What's the full name of the author?");
+    String fullName = input.nextLine().trim();
+    if (!fullName.isEmpty()) {
+      List<Author> matchingAuthors =
+          RegisterHandler.getAuthorRegister().getAuthorsByFullName(fullName);
+      if (matchingAuthors.isEmpty()) {
+        System.out.println("Author not found, please try again.");
+        return;
+      }
+      query = query.withAuthors(matchingAuthors);
+    }
+
+    System.out.println("Which label(s) should the entry have, e.g. 'vegan, -soyfree'?");
+    String labelString = input.nextLine().trim();
+    if (!labelString.isEmpty()) {
+      EnumSet<RecipeLabel> includedLabels = EnumSet.noneOf(RecipeLabel.class);
+      EnumSet<RecipeLabel> excludedLabels = EnumSet.noneOf(RecipeLabel.class);
+      if (!parseLabels(labelString, includedLabels, excludedLabels)) {
+        return;
+      }
+      query = query.withLabels(includedLabels, EnumSet.noneOf(RecipeLabel.class),
+          excludedLabels);
+    }
+
+    System.out.println("What's the start date of the period (Format: YYYY-MM-DD)?");
+    String startString = input.nextLine().trim();
+    if (!startString.isEmpty()) {
+      LocalDate startDate;
+      try {
+        startDate = LocalDate.parse(startString);
+      } catch (DateTimeParseException e) {
+        System.out.println("Invalid date " + startString + ", please try again.");
+        return;
+      }
+      System.out.println("What's the end date of the period (Format: YYYY-MM-DD)?");
+      query = query.withPeriod(startDate, UtilityManager.ensureValidDate(input));
+    }
+
+    System.out.println("What should the content contain?");
+    String prompt = input.nextLine().trim();
+    if (!prompt.isEmpty()) {
+      query = query.withPrompt(prompt);
+    }
+
+    System.out.println("Which keywords should the title or content contain?");
+    String keywords = input.nextLine().trim();
+    if (!keywords.isEmpty()) {
+      try {
+        query = query.withKeywords(keywords);
+      } catch (IllegalArgumentException e) {
+        System.out.println(e.getMessage());
+        return;
+      }
+    }
+
+    // Search for diary entries matching every given criterion and print them if any are found.
+    performQuery(input, query);
+  }
+
+  /**
+   * Prints the results of a {@link DiaryQuery} page by page. The register caches the pages,
+   * so repeating a search does not compute its results again unless the register changed.
+   *
+   * @param input a {@link Scanner} object to read user input.
+   * @param query the {@link DiaryQuery} to run.
+   */
+  private static void performQuery(Scanner input, DiaryQuery query) {
+    DiaryHelper.performSearch(input, token -> RegisterHandler.getDiaryRegister()
+        .query(query, DiaryHelper.PAGE_SIZE, token));
+  }
+
+  /**
+   * Parses a comma-separated list of label names, where labels prefixed with '-' are excluded.
+   *
+   * @param labelString    the list of label names, e.g. "vegan, glutenfree, -soyfree".
+   * @param includedLabels the set to add the included labels to.
+   * @param excludedLabels the set to add the excluded labels to.
+   * @return true if every label name is valid, otherwise a message has been printed.
+   */
+  private static boolean parseLabels(String labelString, EnumSet<RecipeLabel> includedLabels,
+                                     EnumSet<RecipeLabel> excludedLabels) {
+    for (String part : labelString.split(",")) {
+      String trimmed = part.trim();
+      boolean isExcluded = trimmed.startsWith("-");
+      RecipeLabel label = RecipeLabel.tryParse(isExcluded ? trimmed.substring(1).trim() : trimmed);
+      if (label == null) {
+        System.out.println("Invalid label " + trimmed + ", please try again.");
+        return false;
+      }
+      if (isExcluded) {
+        excludedLabels.add(label);
+      } else {
+        includedLabels.add(label);
+      }
+    }
+    return true;
   }
 
 }
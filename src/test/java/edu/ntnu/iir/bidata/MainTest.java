@@ -2,14 +2,23 @@ package test.java.edu.ntnu.iir.bidata;
 
 import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.persistence.SegmentStore;
+import main.java.edu.ntnu.iir.bidata.persistence.WriteAheadLog;
 import main.java.edu.ntnu.iir.bidata.register.AuthorRegister;
 import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+import main.java.edu.ntnu.iir.bidata.transfer.RecipeExporter;
+import main.java.edu.ntnu.iir.bidata.transfer.RecipeImporter;
 import main.java.edu.ntnu.iir.bidata.ui.ConsoleUI;
 import main.java.edu.ntnu.iir.bidata.utils.UtilityManager;
 import test.java.edu.ntnu.iir.bidata.models.AuthorTest;
 import test.java.edu.ntnu.iir.bidata.models.DiaryEntryTest;
+import test.java.edu.ntnu.iir.bidata.persistence.SegmentStoreTest;
+import test.java.edu.ntnu.iir.bidata.persistence.WriteAheadLogTest;
+import test.java.edu.ntnu.iir.bidata.register.RegisterConcurrencyTest;
 import test.java.edu.ntnu.iir.bidata.register.RegisterTest;
+import test.java.edu.ntnu.iir.bidata.transfer.RecipeExporterTest;
+import test.java.edu.ntnu.iir.bidata.transfer.RecipeImporterTest;
 import test.java.edu.ntnu.iir.bidata.ui.ConsoleUITest;
 import test.java.edu.ntnu.iir.bidata.utils.UtilityManagerTest;
 
@@ -24,6 +33,11 @@ import test.java.edu.ntnu.iir.bidata.utils.UtilityManagerTest;
  *       Register Tests ({@link RegisterHandler}, {@link DiaryRegister},
  *       {@link AuthorRegister})
  *     </li>
+ *     <li>Register Concurrency Tests ({@link DiaryRegister})</li>
+ *     <li>Write-Ahead Log Tests ({@link WriteAheadLog})</li>
+ *     <li>Segment Store Tests ({@link SegmentStore})</li>
+ *     <li>Recipe Importer Tests ({@link RecipeImporter})</li>
+ *     <li>Recipe Exporter Tests ({@link RecipeExporter})</li>
  *     <li>Console UI Test ({@link ConsoleUI})</li>
  *     <li>UtilityManger Test ({@link UtilityManager})</li>
  * </ul>
@@ -38,9 +52,10 @@ public class MainTest {
    * Launches all tests.
    *
    * @param args command line arguments.
+   * @throws Exception if a test fails unexpectedly.
    */
   @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
-  public static void main(String[] args) {
+  public static void main(String[] args) throws Exception {
     // Model Test
     AuthorTest authorTest = new AuthorTest();
     authorTest.startAuthorTest();
@@ -52,6 +67,23 @@ public class MainTest {
     RegisterTest registerTest = new RegisterTest();
     registerTest.startRegisterTest();
 
+    RegisterConcurrencyTest registerConcurrencyTest = new RegisterConcurrencyTest();
+    registerConcurrencyTest.startRegisterConcurrencyTest();
+
+    // Persistence Test
+    WriteAheadLogTest writeAheadLogTest = new WriteAheadLogTest();
+    writeAheadLogTest.startWriteAheadLogTest();
+
+    SegmentStoreTest segmentStoreTest = new SegmentStoreTest();
+    segmentStoreTest.startSegmentStoreTest();
+
+    // Transfer Test
+    RecipeImporterTest recipeImporterTest = new RecipeImporterTest();
+    recipeImporterTest.startRecipeImporterTest();
+
+    RecipeExporterTest recipeExporterTest = new RecipeExporterTest();
+    recipeExporterTest.startRecipeExporterTest();
+
     // UtilityManager Test
     UtilityManagerTest utilityManagerTest = new UtilityManagerTest();
     utilityManagerTest.startUtilityManagerTest();
@@ -1,8 +1,13 @@
 package test.java.edu.ntnu.iir.bidata.models;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
 import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
 import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.ContentLines;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.models.VersionClock;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -38,11 +43,84 @@ public class DiaryEntryTest {
     Assert.assertFalse(diaryEntry.getRecipeLabels().contains(RecipeLabel.VEGAN));
   }
 
+  /**
+   * Tests the compact representation of the date and labels of a {@link DiaryEntry},
+   * and verifies that entries with the same labels share one read-only set.
+   */
+  @Test
+  public void compactRepresentation() {
+    Author author = new Author("compactuser", "Compact", "User");
+    LocalDate date = LocalDate.of(2026, 10, 17);
+    DiaryEntry ramen = new DiaryEntry(UUID.randomUUID(), "Ramen", "1x Noodles", author, date);
+    DiaryEntry udon = new DiaryEntry(UUID.randomUUID(), "Udon", "1x Noodles", author, date);
+    ramen.addRecipeLabel(RecipeLabel.VEGAN);
+    ramen.addRecipeLabel(RecipeLabel.SOYFREE);
+    udon.addRecipeLabel(RecipeLabel.SOYFREE);
+    udon.addRecipeLabel(RecipeLabel.VEGAN);
+    udon.removeRecipeLabel(RecipeLabel.KETO);
+
+    // Positive tests
+    Assert.assertEquals(date, ramen.getDate());
+    Assert.assertEquals(date.toEpochDay(), ramen.getEpochDay());
+    Assert.assertTrue(ramen.hasRecipeLabel(RecipeLabel.SOYFREE));
+    Assert.assertSame(ramen.getRecipeLabels(), udon.getRecipeLabels());
+    Assert.assertEquals(1, ramen.getRetainedVersionCount());
+
+    // Negative tests
+    Assert.assertFalse(ramen.hasRecipeLabel(RecipeLabel.KETO));
+    Assert.assertThrows(UnsupportedOperationException.class,
+        () -> ramen.getRecipeLabels().add(RecipeLabel.KETO));
+  }
+
+  /**
+   * Replaces lines of a long {@link DiaryEntry}, and verifies that the content matches the content
+   * split and joined by hand, and that a snapshot still reads the content from before the edits.
+   */
+  @Test
+  public void editContentLines() {
+    Author author = new Author("linesuser", "Lines", "User");
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      content.append("Step ").append(i).append('\n');
+    }
+    DiaryEntry diaryEntry = new DiaryEntry("Stew", content.toString(), author);
+    long sequence = VersionClock.pin();
+    String[] expectedLines = content.toString().split("\n");
+    try {
+      for (int lineNumber = 1; lineNumber <= 1000; lineNumber += 7) {
+        diaryEntry.setContentLine(lineNumber, "Changed " + lineNumber);
+        expectedLines[lineNumber - 1] = "Changed " + lineNumber;
+      }
+      ContentLines contentLines = diaryEntry.getContentLines();
+
+      // Positive tests
+      Assert.assertEquals(String.join("\n", expectedLines), diaryEntry.getContent());
+      Assert.assertEquals(1000, contentLines.getLineCount());
+      Assert.assertEquals(diaryEntry.getContent().length(), contentLines.length());
+      Assert.assertEquals("Changed 8", contentLines.getLine(7));
+      Assert.assertEquals(List.of("Step 8", "Step 9"), contentLines.getLines(8, 10));
+      Assert.assertEquals(content.toString(), diaryEntry.atSequence(sequence).getContent());
+      Assert.assertEquals("Step 7", diaryEntry.atSequence(sequence).getContentLines().getLine(7));
+      Assert.assertEquals(List.of("", "a"), ContentLines.of("\na\n\n").getLines(0, 2));
+
+      // Negative tests
+      Assert.assertEquals(0, ContentLines.of("\n\n").getLineCount());
+      Assert.assertThrows(IndexOutOfBoundsException.class,
+          () -> diaryEntry.setContentLine(1001, "Missing"));
+      Assert.assertThrows(IllegalArgumentException.class,
+          () -> diaryEntry.setContentLine(1, "Two\nLines"));
+    } finally {
+      VersionClock.unpin(sequence);
+    }
+  }
+
   /**
    * Starts the diary entry test.
    */
   public void startDiaryEntryTest() {
     this.testDiaryEntry();
+    this.compactRepresentation();
+    this.editContentLines();
   }
 
 }
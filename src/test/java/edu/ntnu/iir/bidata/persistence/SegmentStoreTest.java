@@ -0,0 +1,263 @@
+package test.java.edu.ntnu.iir.bidata.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.persistence.SegmentStatistics;
+import main.java.edu.ntnu.iir.bidata.persistence.SegmentStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link SegmentStore} class.
+ *
+ * <p>This class maps small segments in temporary directories, and verifies that content is
+ * stored and loaded back across segments, both directly and through a {@link DiaryEntry},
+ * and that compaction reclaims released content without disturbing loads.
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class SegmentStoreTest {
+
+  /**
+   * Stores content that spans several small segments,
+   * and verifies that every handle loads its own content back.
+   *
+   * @throws IOException if a segment cannot be mapped.
+   */
+  @Test
+  public void storeAndLoad() throws IOException {
+    Path directory = Files.createTempDirectory("segment-store");
+    try (SegmentStore store = new SegmentStore(directory, 40, 2.0)) {
+      long egg = store.store("2x Egg\n1x Salt");
+      long crepe = store.store("Crêpe with blåbær");
+      long large = store.store("1x Flour\n".repeat(10));
+      long empty = store.store("");
+
+      // Positive tests
+      Assert.assertEquals("2x Egg\n1x Salt", store.load(egg));
+      Assert.assertEquals("Crêpe with blåbær", store.load(crepe));
+      Assert.assertEquals("1x Flour\n".repeat(10), store.load(large));
+      Assert.assertEquals("", store.load(empty));
+      Assert.assertEquals(4, store.getStatistics().segmentCount());
+
+      // Negative tests
+      Assert.assertNotEquals(egg, crepe);
+      new SegmentStore(directory, 40, 2.0).close();
+      try (Stream<Path> files = Files.list(directory)) {
+        Assert.assertEquals(1, files.count());
+      }
+      Assert.assertThrows(IllegalArgumentException.class,
+          () -> new SegmentStore(directory, 40, 1.0));
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Keeps the content of diary entries in a store,
+   * and verifies that reading, editing and labelling them behaves as on the heap.
+   *
+   * @throws IOException if a segment cannot be mapped.
+   */
+  @Test
+  public void diaryEntryContentIsMapped() throws IOException {
+    Path directory = Files.createTempDirectory("segment-store");
+    Author testAuthor = new Author("mappeduser", "Mapped", "User");
+    DiaryEntry heapEntry = new DiaryEntry("Porridge", "1x Oats", testAuthor);
+    try (SegmentStore store = new SegmentStore(directory, 64, 2.0)) {
+      DiaryEntry.setContentStore(store);
+      DiaryEntry mappedEntry = new DiaryEntry("Risotto", "1x Rice\n1x Broth", testAuthor);
+      mappedEntry.setContentLine(2, "1x Stock");
+      mappedEntry.addRecipeLabel(RecipeLabel.GLUTENFREE);
+      heapEntry.addRecipeLabel(RecipeLabel.VEGAN);
+
+      // Positive tests
+      Assert.assertEquals("1x Rice\n1x Stock", mappedEntry.getContent());
+      Assert.assertTrue(mappedEntry.getRecipeLabels().contains(RecipeLabel.GLUTENFREE));
+      Assert.assertTrue(mappedEntry.toString().contains("1x Stock"));
+      Assert.assertEquals("1x Oats", heapEntry.getContent());
+
+      // Negative tests
+      Assert.assertFalse(mappedEntry.getContent().contains("Broth"));
+    } finally {
+      DiaryEntry.setContentStore(null);
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Releases most of the content in a store, and verifies that compaction drops the sparse
+   * segments, keeps every live content loadable, and reports what it reclaimed.
+   *
+   * @throws IOException if a segment cannot be mapped.
+   */
+  @Test
+  public void compactionReclaimsReleasedContent() throws IOException {
+    Path directory = Files.createTempDirectory("segment-store");
+    SegmentStore store = new SegmentStore(directory, 64, 1.5);
+    // Stops the background compactor, so every compaction is counted below.
+    store.close();
+    try {
+      List<Long> handles = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        handles.add(store.store("Step " + i));
+      }
+      int segmentsBefore = store.getStatistics().segmentCount();
+      for (int i = 0; i < handles.size(); i++) {
+        if (i % 4 != 0) {
+          store.release(handles.get(i));
+        }
+      }
+      int compacted = store.compact();
+      SegmentStatistics statistics = store.getStatistics();
+
+      // Positive tests
+      for (int i = 0; i < handles.size(); i += 4) {
+        Assert.assertEquals("Step " + i, store.load(handles.get(i)));
+      }
+      Assert.assertTrue(compacted > 0);
+      Assert.assertEquals(compacted, statistics.compactedSegments());
+      Assert.assertTrue(statistics.reclaimedBytes() > 0);
+      Assert.assertTrue(statistics.longestPauseNanos() > 0);
+      Assert.assertTrue(statistics.amplification() <= 1.5);
+      Assert.assertTrue(statistics.segmentCount() < segmentsBefore);
+      try (Stream<Path> files = Files.list(directory)) {
+        Assert.assertEquals(statistics.segmentCount(), files.count());
+      }
+
+      // Negative tests
+      Assert.assertThrows(IllegalArgumentException.class, () -> store.load(handles.get(1)));
+      Assert.assertEquals(0, store.compact());
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Fills every segment with a single live record too large to share a segment, and verifies
+   * that compaction stops instead of copying the records from one new segment to the next.
+   *
+   * @throws IOException if a segment cannot be mapped.
+   */
+  @Test
+  public void compactionStopsWithoutGain() throws IOException {
+    Path directory = Files.createTempDirectory("segment-store");
+    SegmentStore store = new SegmentStore(directory, 64, 1.5);
+    store.close();
+    try {
+      List<Long> handles = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        handles.add(store.store("Large record number " + i + " of five"));
+      }
+      SegmentStatistics before = store.getStatistics();
+      int compacted = store.compact();
+      store.release(handles.getFirst());
+
+      // Positive tests
+      Assert.assertTrue(before.amplification() > 1.5);
+      Assert.assertEquals(0, compacted);
+      Assert.assertEquals(1, store.compact());
+      Assert.assertEquals(before.segmentCount() - 1, store.getStatistics().segmentCount());
+      Assert.assertEquals("Large record number 1 of five", store.load(handles.get(1)));
+
+      // Negative tests
+      Assert.assertTrue(store.getStatistics().amplification() > 1.5);
+      Assert.assertEquals(0, store.compact());
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Keeps loading content on other threads while it is released around and compacted,
+   * and verifies that every load returns the content of its own handle.
+   *
+   * @throws Exception if a segment cannot be mapped, a reader fails or the test times out.
+   */
+  @Test
+  public void compactionDuringLoads() throws Exception {
+    Path directory = Files.createTempDirectory("segment-store");
+    int readers = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(readers);
+    AtomicBoolean isDone = new AtomicBoolean();
+    try (SegmentStore store = new SegmentStore(directory, 256, 1.5)) {
+      List<Long> kept = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        kept.add(store.store("Kept " + i));
+      }
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < readers; i++) {
+        futures.add(executor.submit(() -> {
+          while (!isDone.get()) {
+            for (int j = 0; j < kept.size(); j++) {
+              Assert.assertEquals("Kept " + j, store.load(kept.get(j)));
+            }
+          }
+          return null;
+        }));
+      }
+      for (int round = 0; round < 200; round++) {
+        store.release(store.store("Released " + round));
+        store.compact();
+      }
+      isDone.set(true);
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+
+      // Positive tests
+      Assert.assertTrue(store.getStatistics().compactedSegments() > 0);
+      Assert.assertEquals("Kept 49", store.load(kept.get(49)));
+
+      // Negative tests
+      Assert.assertTrue(store.getStatistics().amplification() <= 1.5);
+    } finally {
+      isDone.set(true);
+      executor.shutdown();
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Deletes a directory along with every file in it.
+   *
+   * @param directory the directory to delete.
+   * @throws IOException if a file cannot be deleted.
+   */
+  private static void deleteDirectory(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  /**
+   * Starts the segment store test.
+   *
+   * @throws Exception if a segment cannot be mapped, a reader fails or the test times out.
+   */
+  public void startSegmentStoreTest() throws Exception {
+    this.storeAndLoad();
+    this.diaryEntryContentIsMapped();
+    this.compactionReclaimsReleasedContent();
+    this.compactionStopsWithoutGain();
+    this.compactionDuringLoads();
+  }
+
+}
@@ -0,0 +1,368 @@
+package test.java.edu.ntnu.iir.bidata.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.models.VersionClock;
+import main.java.edu.ntnu.iir.bidata.persistence.Checkpoint;
+import main.java.edu.ntnu.iir.bidata.persistence.RegisterLog;
+import main.java.edu.ntnu.iir.bidata.persistence.WriteAheadLog;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+import main.java.edu.ntnu.iir.bidata.service.DiaryService;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link WriteAheadLog}, {@link RegisterLog} and {@link Checkpoint} classes.
+ *
+ * <p>This class writes logs and checkpoints to temporary directories, and verifies that they
+ * are read back and replayed into the registers correctly.
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class WriteAheadLogTest {
+
+  /**
+   * Records changes to entries that were never added to the register,
+   * and verifies that replaying the log adds them with every change applied.
+   *
+   * @throws IOException if the log file cannot be written.
+   */
+  @Test
+  public void replayRebuildsRegisters() throws IOException {
+    Path directory = Files.createTempDirectory("register-log");
+    Author testAuthor = new Author("loggeduser", "Logged", "User");
+    DiaryEntry omelette = new DiaryEntry("Omelette", "2x Egg\n1x Salt", testAuthor);
+    omelette.addRecipeLabel(RecipeLabel.KETO);
+    DiaryEntry toast = new DiaryEntry("Toast", "1x Bread", testAuthor);
+    RegisterLog log = RegisterLog.getInstance();
+    try {
+      log.open(directory);
+      log.logAuthorRegistered(testAuthor);
+      log.logDiaryEntryCreated(omelette);
+      log.logDiaryEntryCreated(toast);
+      log.logContentLineEdited(omelette, 2, "1x Pepper");
+      log.logLabelAdded(omelette, RecipeLabel.GLUTENFREE);
+      log.logLabelRemoved(omelette, RecipeLabel.KETO);
+      log.awaitDurable(log.logDiaryEntryDeleted(toast));
+      log.close();
+
+      log.open(directory);
+      DiaryRegister register = RegisterHandler.getDiaryRegister();
+      DiaryEntry restored = register.getDiaryEntryById(omelette.getId());
+
+      // Positive tests
+      Assert.assertNotNull(RegisterHandler.getAuthorRegister().getAuthorByUsername("loggeduser"));
+      Assert.assertEquals("Omelette", restored.getTitle());
+      Assert.assertEquals("2x Egg\n1x Pepper", restored.getContent());
+      Assert.assertEquals(omelette.getDate(), restored.getDate());
+      Assert.assertTrue(restored.getRecipeLabels().contains(RecipeLabel.GLUTENFREE));
+
+      // Negative tests
+      Assert.assertFalse(restored.getRecipeLabels().contains(RecipeLabel.KETO));
+      Assert.assertNull(register.getDiaryEntryById(toast.getId()));
+    } finally {
+      log.close();
+      removeDiaryEntriesOf(testAuthor);
+      RegisterHandler.getAuthorRegister().removeAuthor(testAuthor.getUsername());
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Appends a partly written record to a log, and verifies that it is cut off on opening
+   * while the records before it are kept.
+   *
+   * @throws IOException if the log file cannot be written.
+   */
+  @Test
+  public void tornTailIsCutOff() throws IOException {
+    Path directory = Files.createTempDirectory("write-ahead-log");
+    Path segment = directory.resolve(String.format("wal-%020d.log", 0));
+    try {
+      long durableLsn;
+      try (WriteAheadLog log = new WriteAheadLog(directory, 0, record -> { })) {
+        log.append(new byte[] {1, 2, 3});
+        durableLsn = log.append(new byte[] {4, 5});
+        log.awaitDurable(durableLsn);
+      }
+      Files.write(segment, new byte[] {0, 0, 0, 9, 1}, StandardOpenOption.APPEND);
+
+      List<byte[]> records = new ArrayList<>();
+      try (WriteAheadLog log = new WriteAheadLog(directory, 0, records::add)) {
+
+        // Positive tests
+        Assert.assertEquals(2, records.size());
+        Assert.assertArrayEquals(new byte[] {4, 5}, records.get(1));
+        Assert.assertEquals(durableLsn, log.getDurableLsn());
+      }
+
+      // Negative tests
+      Assert.assertEquals(durableLsn, Files.size(segment));
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Appends zero bytes to a log, as a crash can leave after the file grew but before its data was
+   * written, and verifies that they are cut off on opening instead of read as empty records.
+   *
+   * @throws IOException if the log file cannot be written.
+   */
+  @Test
+  public void zeroedTailIsCutOff() throws IOException {
+    Path directory = Files.createTempDirectory("write-ahead-log");
+    Path segment = directory.resolve(String.format("wal-%020d.log", 0));
+    try {
+      long durableLsn;
+      try (WriteAheadLog log = new WriteAheadLog(directory, 0, record -> { })) {
+        durableLsn = log.append(new byte[] {1, 2, 3});
+        log.awaitDurable(durableLsn);
+      }
+      Files.write(segment, new byte[32], StandardOpenOption.APPEND);
+
+      List<byte[]> records = new ArrayList<>();
+      try (WriteAheadLog log = new WriteAheadLog(directory, 0, records::add)) {
+
+        // Positive tests
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals(durableLsn, log.getDurableLsn());
+
+        // Negative tests
+        Assert.assertThrows(IllegalArgumentException.class, () -> log.append(new byte[0]));
+      }
+      Assert.assertEquals(durableLsn, Files.size(segment));
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Lets several threads append and wait for their records at once,
+   * and verifies that every record is durable and read back.
+   *
+   * @throws Exception if a thread fails or the test times out.
+   */
+  @Test
+  public void groupCommit() throws Exception {
+    Path directory = Files.createTempDirectory("write-ahead-log");
+    int threads = 8;
+    int recordsPerThread = 50;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      try (WriteAheadLog log = new WriteAheadLog(directory, 0, record -> { })) {
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+          writers.add(executor.submit(() -> {
+            for (int j = 0; j < recordsPerThread; j++) {
+              log.awaitDurable(log.append(new byte[] {(byte) j}));
+            }
+            return null;
+          }));
+        }
+        for (Future<?> writer : writers) {
+          writer.get(1, TimeUnit.MINUTES);
+        }
+      }
+
+      List<byte[]> records = new ArrayList<>();
+      try (WriteAheadLog log = new WriteAheadLog(directory, 0, records::add)) {
+
+        // Positive tests
+        Assert.assertEquals(threads * recordsPerThread, records.size());
+        Assert.assertEquals(threads * recordsPerThread * 9L, log.getDurableLsn());
+      }
+    } finally {
+      executor.shutdown();
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Writes a checkpoint and reads it back, and verifies that every author and entry survives.
+   *
+   * @throws IOException if the checkpoint cannot be written.
+   */
+  @Test
+  public void checkpointRoundTrip() throws IOException {
+    Path directory = Files.createTempDirectory("checkpoint");
+    Author testAuthor = new Author("checkpointuser", "Checkpoint", "User");
+    DiaryEntry pancakes = new DiaryEntry("Pancakes", "3x Egg\n1x Milk", testAuthor);
+    pancakes.addRecipeLabel(RecipeLabel.VEGETARIAN);
+    try {
+      new Checkpoint(7, List.of(testAuthor), List.of(pancakes)).writeTo(directory);
+      new Checkpoint(42, List.of(testAuthor), List.of(pancakes)).writeTo(directory);
+      Checkpoint.deleteBefore(directory, 42);
+      Checkpoint checkpoint = Checkpoint.readLatest(directory);
+      DiaryEntry restored = checkpoint.diaryEntries().iterator().next();
+
+      // Positive tests
+      Assert.assertEquals(42, checkpoint.lsn());
+      Assert.assertEquals(1, checkpoint.authors().size());
+      Assert.assertEquals(pancakes.getId(), restored.getId());
+      Assert.assertEquals("3x Egg\n1x Milk", restored.getContent());
+      Assert.assertEquals(pancakes.getDate(), restored.getDate());
+      Assert.assertSame(checkpoint.authors().iterator().next(), restored.getAuthor());
+      Assert.assertTrue(restored.getRecipeLabels().contains(RecipeLabel.VEGETARIAN));
+
+      // Negative tests
+      try (Stream<Path> files = Files.list(directory)) {
+        Assert.assertEquals(1, files.count());
+      }
+      Assert.assertNull(Checkpoint.readLatest(Files.createTempDirectory(directory, "empty")));
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Takes a checkpoint in the middle of recorded changes, and verifies that the log segments
+   * it covers are deleted and only the changes after it are left to replay.
+   *
+   * @throws IOException if the log or checkpoint cannot be written.
+   */
+  @Test
+  public void checkpointTruncatesLog() throws IOException {
+    Path directory = Files.createTempDirectory("register-log");
+    Author testAuthor = new Author("checkpointlogger", "Checkpoint", "Logger");
+    RegisterHandler.getAuthorRegister().addAuthor(testAuthor);
+    RegisterLog log = RegisterLog.getInstance();
+    try {
+      log.open(directory);
+      DiaryEntry waffles = DiaryService.getInstance()
+          .createDiaryEntry("Waffles", "2x Egg", testAuthor, List.of());
+      DiaryService.getInstance().addLabel(waffles, RecipeLabel.EGGFREE);
+      long checkpointLsn = log.checkpoint();
+      DiaryService.getInstance().editContentLine(waffles, 1, "2x Banana");
+      log.close();
+
+      List<byte[]> tail = new ArrayList<>();
+      new WriteAheadLog(directory, checkpointLsn, tail::add).close();
+      Checkpoint checkpoint = Checkpoint.readLatest(directory);
+      DiaryEntry restored = checkpoint.diaryEntries().stream()
+          .filter(it -> it.getId().equals(waffles.getId())).findFirst().orElseThrow();
+
+      // Positive tests
+      Assert.assertEquals(checkpointLsn, checkpoint.lsn());
+      Assert.assertEquals(1, tail.size());
+      Assert.assertEquals("2x Egg", restored.getContent());
+      Assert.assertTrue(restored.getRecipeLabels().contains(RecipeLabel.EGGFREE));
+
+      // Negative tests
+      Assert.assertFalse(Files.exists(directory.resolve(String.format("wal-%020d.log", 0))));
+    } finally {
+      log.close();
+      removeDiaryEntriesOf(testAuthor);
+      RegisterHandler.getAuthorRegister().removeAuthor(testAuthor.getUsername());
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Takes a checkpoint while a change outside of the log is still in flight, after a recorded
+   * change that drew a later sequence number, and verifies that the recorded change survives
+   * a restart although the log segment holding it is deleted.
+   *
+   * @throws Exception if the log or checkpoint cannot be written, or the test times out.
+   */
+  @Test
+  public void checkpointWaitsForChangesInFlight() throws Exception {
+    Path directory = Files.createTempDirectory("register-log");
+    Author testAuthor = new Author("inflightlogger", "InFlight", "Logger");
+    RegisterHandler.getAuthorRegister().addAuthor(testAuthor);
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    RegisterLog log = RegisterLog.getInstance();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      log.open(directory);
+      DiaryEntry risotto = DiaryService.getInstance()
+          .createDiaryEntry("Risotto", "1x Rice", testAuthor, List.of());
+      // Stands in for an entry being imported, which is changed without being recorded.
+      long inFlight = VersionClock.begin();
+      DiaryService.getInstance().editContentLine(risotto, 1, "1x Arborio");
+      Future<Long> checkpoint = executor.submit(log::checkpoint);
+      Thread.sleep(50);
+      boolean isDoneInFlight = checkpoint.isDone();
+      VersionClock.commit(inFlight);
+      long checkpointLsn = checkpoint.get(1, TimeUnit.MINUTES);
+      log.close();
+
+      // Restarts from the checkpoint alone, as the register only keeps what is restored.
+      register.removeDiaryEntry(risotto.getId());
+      log.open(directory);
+      DiaryEntry restored = register.getDiaryEntryById(risotto.getId());
+
+      // Positive tests
+      Assert.assertEquals(checkpointLsn, log.getCheckpointLsn());
+      Assert.assertEquals("1x Arborio", restored.getContent());
+
+      // Negative tests
+      Assert.assertFalse(isDoneInFlight);
+      Assert.assertFalse(Files.exists(directory.resolve(String.format("wal-%020d.log", 0))));
+    } finally {
+      executor.shutdown();
+      log.close();
+      removeDiaryEntriesOf(testAuthor);
+      RegisterHandler.getAuthorRegister().removeAuthor(testAuthor.getUsername());
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Removes every {@link DiaryEntry} of the given author from the register once the log is
+   * closed, so that a test leaves the shared register as it found it without recording it.
+   *
+   * @param author the author of the entries to remove.
+   */
+  private static void removeDiaryEntriesOf(Author author) {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    register.getDiaryEntriesByAuthor(author)
+        .forEach(diaryEntry -> register.removeDiaryEntry(diaryEntry.getId()));
+  }
+
+  /**
+   * Deletes a directory along with every file in it.
+   *
+   * @param directory the directory to delete.
+   * @throws IOException if a file cannot be deleted.
+   */
+  private static void deleteDirectory(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  /**
+   * Starts the write-ahead log test.
+   *
+   * @throws Exception if a thread fails or the test times out.
+   */
+  public void startWriteAheadLogTest() throws Exception {
+    this.replayRebuildsRegisters();
+    this.tornTailIsCutOff();
+    this.zeroedTailIsCutOff();
+    this.groupCommit();
+    this.checkpointRoundTrip();
+    this.checkpointTruncatesLog();
+    this.checkpointWaitsForChangesInFlight();
+  }
+
+}
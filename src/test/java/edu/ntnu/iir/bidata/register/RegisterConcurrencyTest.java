@@ -0,0 +1,264 @@
+package test.java.edu.ntnu.iir.bidata.register;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.models.VersionClock;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiarySnapshot;
+import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Multi-threaded stress tests for the {@link DiaryRegister} class.
+ *
+ * <p>This class runs several writers and readers against the shared register at once,
+ * and verifies that no operation fails and that the indexes agree afterwards.
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class RegisterConcurrencyTest {
+
+  private static final int WRITERS = 8;
+  private static final int READERS = 4;
+  private static final int ENTRIES_PER_WRITER = 400;
+
+  /**
+   * Runs writers of different authors in parallel with readers, where every writer adds,
+   * relabels and removes entries, and verifies the indexes once all writers are done.
+   *
+   * @throws Exception if a thread fails or the test times out.
+   */
+  @Test
+  public void concurrentWritersAndReaders() throws Exception {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+    CountDownLatch startGate = new CountDownLatch(1);
+    AtomicBoolean isWriting = new AtomicBoolean(true);
+    ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    AtomicInteger reads = new AtomicInteger();
+
+    List<Future<?>> writers = new ArrayList<>();
+    for (int writer = 0; writer < WRITERS; writer++) {
+      Author author = new Author("stresswriter" + writer, "Stress", "Writer");
+      writers.add(executor.submit(() -> {
+        startGate.await();
+        for (int i = 0; i < ENTRIES_PER_WRITER; i++) {
+          DiaryEntry diaryEntry = new DiaryEntry("Stress " + i, "stress line " + i, author);
+          Assert.assertTrue(register.addDiaryEntry(diaryEntry));
+          if (i % 2 == 0) {
+            register.addRecipeLabel(diaryEntry, RecipeLabel.HALAL);
+          }
+          register.editContentLine(diaryEntry, 1, "edited stress line " + i);
+          if (i % 3 == 0) {
+            register.removeDiaryEntry(diaryEntry.getId());
+          }
+        }
+        return null;
+      }));
+    }
+    for (int reader = 0; reader < READERS; reader++) {
+      executor.submit(() -> {
+        try {
+          startGate.await();
+          while (isWriting.get()) {
+            register.getDiaryEntriesByLabel(RecipeLabel.HALAL).forEach(DiaryEntry::toString);
+            register.getDiaryEntriesByPrompt("edited stress");
+            register.getDiaryEntriesByKeywords("stress line");
+            register.getDiaryEntriesSortedByDate();
+            try (DiarySnapshot snapshot = register.openSnapshot()) {
+              snapshot.getDiaryEntriesSortedByDate().forEach(DiaryEntry::toString);
+            }
+            reads.incrementAndGet();
+          }
+        } catch (Throwable e) {
+          failures.add(e);
+        }
+      });
+    }
+
+    startGate.countDown();
+    for (Future<?> writer : writers) {
+      writer.get(1, TimeUnit.MINUTES);
+    }
+    isWriting.set(false);
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+    // Every third entry was removed, every second entry was labelled.
+    int expectedEntries = ENTRIES_PER_WRITER - (ENTRIES_PER_WRITER + 2) / 3;
+    int expectedLabelled = 0;
+    for (int i = 0; i < ENTRIES_PER_WRITER; i++) {
+      if (i % 2 == 0 && i % 3 != 0) {
+        expectedLabelled++;
+      }
+    }
+
+    // Positive tests
+    Assert.assertTrue(failures.isEmpty());
+    Assert.assertTrue(reads.get() > 0);
+    for (int writer = 0; writer < WRITERS; writer++) {
+      Author author = new Author("stresswriter" + writer, "Stress", "Writer");
+      List<DiaryEntry> diaryEntries = register.getDiaryEntriesByAuthor(author);
+      Assert.assertEquals(expectedEntries, diaryEntries.size());
+      Assert.assertEquals(expectedEntries, register.getDiaryEntryCountByAuthor(author));
+      Assert.assertEquals(expectedLabelled,
+          register.getAuthorStatistics(author).getLabelCount(RecipeLabel.HALAL));
+      Assert.assertEquals(expectedLabelled, register.getDiaryEntriesByLabel(RecipeLabel.HALAL)
+          .stream().filter(diaryEntries::contains).count());
+      Assert.assertNotNull(register.getDiaryEntryByTitleAndAuthor("Stress 1", author));
+
+      // Negative tests
+      Assert.assertNull(register.getDiaryEntryByTitleAndAuthor("Stress 0", author));
+      removeDiaryEntriesOf(author);
+    }
+  }
+
+  /**
+   * Lets several threads race to add an entry with the same title for the same author,
+   * and verifies that exactly one of them succeeds.
+   *
+   * @throws Exception if a thread fails or the test times out.
+   */
+  @Test
+  public void concurrentDuplicateTitles() throws Exception {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author author = new Author("racinguser", "Racing", "User");
+    ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+    CountDownLatch startGate = new CountDownLatch(1);
+
+    List<Future<Boolean>> attempts = new ArrayList<>();
+    for (int i = 0; i < WRITERS * 4; i++) {
+      attempts.add(executor.submit(() -> {
+        startGate.await();
+        return register.addDiaryEntry(new DiaryEntry("Race Cake", "1x Sugar", author));
+      }));
+    }
+    startGate.countDown();
+
+    int accepted = 0;
+    for (Future<Boolean> attempt : attempts) {
+      if (attempt.get(1, TimeUnit.MINUTES)) {
+        accepted++;
+      }
+    }
+    executor.shutdown();
+
+    // Positive tests
+    Assert.assertEquals(1, accepted);
+    Assert.assertEquals(1, register.getDiaryEntriesByAuthor(author).size());
+
+    // Negative tests
+    Assert.assertNotEquals(0, register.getDiaryEntriesByTitle("race cake").size());
+
+    removeDiaryEntriesOf(author);
+  }
+
+  /**
+   * Lets writers draw and commit sequence numbers of the {@link VersionClock} while readers pin
+   * them, and verifies that a reader only ever pins installed changes, and never goes backwards.
+   *
+   * @throws Exception if a thread fails or the test times out.
+   */
+  @Test
+  public void concurrentVersionClock() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+    CountDownLatch startGate = new CountDownLatch(1);
+    AtomicBoolean isWriting = new AtomicBoolean(true);
+    ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    Set<Long> installed = ConcurrentHashMap.newKeySet();
+    long start = VersionClock.pin();
+    VersionClock.unpin(start);
+
+    List<Future<?>> writers = new ArrayList<>();
+    for (int writer = 0; writer < WRITERS; writer++) {
+      writers.add(executor.submit(() -> {
+        startGate.await();
+        for (int i = 0; i < ENTRIES_PER_WRITER * 10; i++) {
+          long sequence = VersionClock.begin();
+          installed.add(sequence);
+          VersionClock.commit(sequence);
+        }
+        return null;
+      }));
+    }
+    for (int reader = 0; reader < READERS; reader++) {
+      executor.submit(() -> {
+        try {
+          startGate.await();
+          long previous = start;
+          while (isWriting.get()) {
+            long sequence = VersionClock.pin();
+            try {
+              Assert.assertTrue(sequence >= previous);
+              Assert.assertTrue(sequence == start || installed.contains(sequence));
+              Assert.assertTrue(VersionClock.oldestNeeded() <= sequence);
+            } finally {
+              VersionClock.unpin(sequence);
+            }
+            previous = sequence;
+          }
+        } catch (Throwable e) {
+          failures.add(e);
+        }
+      });
+    }
+
+    startGate.countDown();
+    for (Future<?> writer : writers) {
+      writer.get(1, TimeUnit.MINUTES);
+    }
+    isWriting.set(false);
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    long end = VersionClock.pin();
+    VersionClock.unpin(end);
+
+    // Positive tests
+    Assert.assertTrue(failures.isEmpty());
+    Assert.assertEquals(start + WRITERS * ENTRIES_PER_WRITER * 10, end);
+    Assert.assertEquals(end, VersionClock.oldestNeeded());
+
+    // Negative tests
+    Assert.assertFalse(installed.contains(start));
+  }
+
+  /**
+   * Removes every {@link DiaryEntry} of the given author from the register,
+   * so that a test leaves the shared register as it found it.
+   *
+   * @param author the author of the entries to remove.
+   */
+  private static void removeDiaryEntriesOf(Author author) {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    register.getDiaryEntriesByAuthor(author)
+        .forEach(diaryEntry -> register.removeDiaryEntry(diaryEntry.getId()));
+  }
+
+  /**
+   * Starts the register concurrency test.
+   *
+   * @throws Exception if a thread fails or the test times out.
+   */
+  public void startRegisterConcurrencyTest() throws Exception {
+    this.concurrentWritersAndReaders();
+    this.concurrentDuplicateTitles();
+    this.concurrentVersionClock();
+  }
+
+}
@@ -1,8 +1,24 @@
 package test.java.edu.ntnu.iir.bidata.register;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
 import main.java.edu.ntnu.iir.bidata.models.Author;
 import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.models.EditHistory;
+import main.java.edu.ntnu.iir.bidata.register.AuthorStatistics;
+import main.java.edu.ntnu.iir.bidata.register.DiaryPage;
+import main.java.edu.ntnu.iir.bidata.register.DiaryQuery;
+import main.java.edu.ntnu.iir.bidata.register.DiaryQuery.Criterion;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiarySnapshot;
+import main.java.edu.ntnu.iir.bidata.register.FootprintReport;
+import main.java.edu.ntnu.iir.bidata.register.QueryCacheStatistics;
+import main.java.edu.ntnu.iir.bidata.register.QueryPlan;
 import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
 import org.junit.Assert;
 import org.junit.Test;
@@ -68,12 +84,705 @@ public class RegisterTest {
         RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Sushi", testAuthor));
   }
 
+  /**
+   * Tests that the title, author and date indexes of the {@link RegisterHandler#getDiaryRegister()}
+   * instance are case-insensitive and stay in sync when a {@link DiaryEntry} is removed.
+   */
+  @Test
+  public void indexedLookups() {
+    Author testAuthor = new Author("IndexUser", "Index", "User");
+    DiaryEntry diaryEntry = new DiaryEntry("Lasagna", "1x Pasta sheets, 1x Ragu", testAuthor);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry);
+
+    // Positive tests
+    Assert.assertEquals(1,
+        RegisterHandler.getDiaryRegister().getDiaryEntriesByTitle("LASAGNA").size());
+    Assert.assertEquals(1, RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByAuthor(new Author("indexuser", "Index", "User")).size());
+    Assert.assertTrue(RegisterHandler.getDiaryRegister().getDiaryEntryByDate(LocalDate.now())
+        .contains(diaryEntry));
+
+    RegisterHandler.getDiaryRegister().removeDiaryEntry(diaryEntry.getId());
+
+    // Negative tests
+    Assert.assertTrue(
+        RegisterHandler.getDiaryRegister().getDiaryEntriesByTitle("Lasagna").isEmpty());
+    Assert.assertTrue(
+        RegisterHandler.getDiaryRegister().getDiaryEntriesByAuthor(testAuthor).isEmpty());
+    Assert.assertFalse(RegisterHandler.getDiaryRegister().getDiaryEntryByDate(LocalDate.now())
+        .contains(diaryEntry));
+  }
+
+  /**
+   * Tests that the {@link RegisterHandler#getDiaryRegister()} instance rejects a second
+   * {@link DiaryEntry} with the same title for the same {@link Author}, ignoring case.
+   */
+  @Test
+  public void rejectDuplicateTitleForAuthor() {
+    Author testAuthor = new Author("duplicateuser", "Duplicate", "User");
+    DiaryEntry diaryEntry = new DiaryEntry("Pancakes", "2x Eggs, 1x Milk, 1x Flour", testAuthor);
+    DiaryEntry duplicate = new DiaryEntry("PANCAKES", "3x Eggs", testAuthor);
+    DiaryEntry otherAuthor =
+        new DiaryEntry("Pancakes", "2x Eggs", new Author("otheruser", "Other", "User"));
+
+    // Positive tests
+    Assert.assertTrue(RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister().addDiaryEntry(otherAuthor));
+    Assert.assertEquals(diaryEntry,
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("pancakes", testAuthor));
+
+    // Negative tests
+    Assert.assertFalse(RegisterHandler.getDiaryRegister().addDiaryEntry(duplicate));
+    Assert.assertFalse(RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry));
+
+    // The title is free again once the entry is removed.
+    Assert.assertTrue(
+        RegisterHandler.getDiaryRegister().removeDiaryEntry("Pancakes", testAuthor));
+    Assert.assertNull(
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Pancakes", testAuthor));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister().addDiaryEntry(duplicate));
+
+    removeDiaryEntriesOf(testAuthor, otherAuthor.getAuthor());
+  }
+
+  /**
+   * Tests that label combinations are answered by the {@link RegisterHandler#getDiaryRegister()}
+   * instance, and that labels changed through the register are reflected in the results.
+   */
+  @Test
+  public void labelCombinationQueries() {
+    Author testAuthor = new Author("labeluser", "Label", "User");
+    DiaryEntry salad = new DiaryEntry("Label Salad", "1x Lettuce", testAuthor);
+    salad.addRecipeLabel(RecipeLabel.VEGAN);
+    salad.addRecipeLabel(RecipeLabel.GLUTENFREE);
+    DiaryEntry tofu = new DiaryEntry("Label Tofu", "1x Tofu", testAuthor);
+    tofu.addRecipeLabel(RecipeLabel.VEGAN);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(salad);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(tofu);
+
+    List<DiaryEntry> veganAndGlutenFree = RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByLabels(List.of(RecipeLabel.VEGAN, RecipeLabel.GLUTENFREE), List.of(),
+            List.of());
+    List<DiaryEntry> veganWithoutSoy = RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByLabels(List.of(RecipeLabel.VEGAN), List.of(),
+            List.of(RecipeLabel.SOYFREE));
+
+    // Positive tests
+    Assert.assertTrue(veganAndGlutenFree.contains(salad));
+    Assert.assertTrue(veganWithoutSoy.contains(salad) && veganWithoutSoy.contains(tofu));
+
+    // Negative tests
+    Assert.assertFalse(veganAndGlutenFree.contains(tofu));
+
+    // Labels changed through the register update the index.
+    Assert.assertTrue(RegisterHandler.getDiaryRegister().addRecipeLabel(tofu, RecipeLabel.SOYFREE));
+    Assert.assertFalse(RegisterHandler.getDiaryRegister()
+        .addRecipeLabel(tofu, RecipeLabel.SOYFREE));
+    Assert.assertFalse(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByLabels(List.of(RecipeLabel.VEGAN), List.of(),
+            List.of(RecipeLabel.SOYFREE)).contains(tofu));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .removeRecipeLabel(salad, RecipeLabel.GLUTENFREE));
+    Assert.assertFalse(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByLabel(RecipeLabel.GLUTENFREE).contains(salad));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByLabels(List.of(), List.of(RecipeLabel.SOYFREE, RecipeLabel.KETO),
+            List.of()).contains(tofu));
+
+    removeDiaryEntriesOf(testAuthor);
+  }
+
+  /**
+   * Tests that period queries and the date sorted list of the
+   * {@link RegisterHandler#getDiaryRegister()} instance are served from the date index.
+   */
+  @Test
+  public void periodQueries() {
+    Author testAuthor = new Author("perioduser", "Period", "User");
+    DiaryEntry diaryEntry = new DiaryEntry("Omelette", "3x Eggs, 1x Butter", testAuthor);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry);
+    LocalDate today = LocalDate.now();
+
+    // Positive tests
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesBetweenPeriod(today.minusDays(7), today).contains(diaryEntry));
+    List<DiaryEntry> sorted = RegisterHandler.getDiaryRegister().getDiaryEntriesSortedByDate();
+    Assert.assertEquals(RegisterHandler.getDiaryRegister().getDiaryEntries().size(),
+        sorted.size());
+    for (int i = 1; i < sorted.size(); i++) {
+      Assert.assertFalse(sorted.get(i).getDate().isBefore(sorted.get(i - 1).getDate()));
+    }
+
+    // Negative tests
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesBetweenPeriod(today.plusDays(1), today.plusDays(7)).isEmpty());
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesBetweenPeriod(today, today.minusDays(1)).isEmpty());
+
+    removeDiaryEntriesOf(testAuthor);
+  }
+
+  /**
+   * Tests that keyword searches on the {@link RegisterHandler#getDiaryRegister()} instance
+   * require every word, and follow edits made through the register.
+   */
+  @Test
+  public void keywordSearch() {
+    Author testAuthor = new Author("keyworduser", "Keyword", "User");
+    DiaryEntry diaryEntry =
+        new DiaryEntry("Green Curry", "1x Coconut milk\n2x Basil leaves", testAuthor);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry);
+
+    // Positive tests
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByKeywords("coconut CURRY").contains(diaryEntry));
+
+    // Negative tests
+    Assert.assertFalse(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByKeywords("coconut chicken").contains(diaryEntry));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister().getDiaryEntriesByKeywords(" ,").isEmpty());
+
+    // Edited lines are re-indexed.
+    RegisterHandler.getDiaryRegister().editContentLine(diaryEntry, 2, "2x Thai basil");
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByKeywords("thai").contains(diaryEntry));
+    Assert.assertFalse(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByKeywords("leaves").contains(diaryEntry));
+
+    removeDiaryEntriesOf(testAuthor);
+  }
+
+  /**
+   * Tests that prompt searches on the {@link RegisterHandler#getDiaryRegister()} instance
+   * keep their case-insensitive substring semantics, including word fragments.
+   */
+  @Test
+  public void promptSearch() {
+    Author testAuthor = new Author("promptuser", "Prompt", "User");
+    DiaryEntry diaryEntry =
+        new DiaryEntry("Chili", "2 tsp Chili flakes\n1x Kidney beans", testAuthor);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(diaryEntry);
+
+    // Positive tests
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByPrompt("CHIL").contains(diaryEntry));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByPrompt("flakes\n1x kid").contains(diaryEntry));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByPrompt("ts").contains(diaryEntry));
+
+    // Negative tests
+    Assert.assertFalse(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByPrompt("chili beans").contains(diaryEntry));
+
+    // Edited lines are re-indexed.
+    RegisterHandler.getDiaryRegister().editContentLine(diaryEntry, 2, "1x Black beans");
+    Assert.assertFalse(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByPrompt("kidney").contains(diaryEntry));
+    Assert.assertTrue(RegisterHandler.getDiaryRegister()
+        .getDiaryEntriesByPrompt("black bean").contains(diaryEntry));
+
+    removeDiaryEntriesOf(testAuthor);
+  }
+
+  /**
+   * Tests that the {@link RegisterHandler#getAuthorRegister()} instance finds authors by their
+   * full name, ignoring case, and keeps every author sharing the same name.
+   */
+  @Test
+  public void authorFullNameLookup() {
+    Author author = new Author("janedoe", "jane", "doe");
+    Author namesake = new Author("janedoetwo", "Jane", "Doe");
+    RegisterHandler.getAuthorRegister().addAuthor(author);
+    RegisterHandler.getAuthorRegister().addAuthor(namesake);
+    RegisterHandler.getAuthorRegister().addAuthor(new Author("janedoe", "Other", "Name"));
+
+    // Positive tests
+    Assert.assertEquals(author,
+        RegisterHandler.getAuthorRegister().getAuthorByFullName("JANE DOE"));
+    Assert.assertEquals(List.of(author, namesake),
+        RegisterHandler.getAuthorRegister().getAuthorsByFullName("Jane Doe"));
+
+    // Negative tests
+    Assert.assertNull(RegisterHandler.getAuthorRegister().getAuthorByFullName("Other Name"));
+    Assert.assertTrue(RegisterHandler.getAuthorRegister().getAuthorsByFullName("Jane").isEmpty());
+
+    // Removed authors are no longer found by their full name.
+    Assert.assertTrue(RegisterHandler.getAuthorRegister().removeAuthor("JaneDoe"));
+    Assert.assertEquals(List.of(namesake),
+        RegisterHandler.getAuthorRegister().getAuthorsByFullName("Jane Doe"));
+    Assert.assertTrue(RegisterHandler.getAuthorRegister().removeAuthor("janedoetwo"));
+    Assert.assertNull(RegisterHandler.getAuthorRegister().getAuthorByFullName("Jane Doe"));
+    Assert.assertFalse(RegisterHandler.getAuthorRegister().removeAuthor("janedoe"));
+  }
+
+  /**
+   * Tests that the {@link AuthorStatistics} kept by the {@link RegisterHandler#getDiaryRegister()}
+   * instance follow added and removed entries and labels.
+   */
+  @Test
+  public void authorStatistics() {
+    Author testAuthor = new Author("statisticsuser", "Statistics", "User");
+    DiaryEntry stew = new DiaryEntry("Stew", "1x Beef", testAuthor);
+    stew.addRecipeLabel(RecipeLabel.KETO);
+    DiaryEntry soup = new DiaryEntry("Soup", "1x Broth", testAuthor);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(stew);
+    RegisterHandler.getDiaryRegister().addDiaryEntry(soup);
+    RegisterHandler.getDiaryRegister().addRecipeLabel(soup, RecipeLabel.KETO);
+
+    AuthorStatistics statistics =
+        RegisterHandler.getDiaryRegister().getAuthorStatistics(testAuthor);
+
+    // Positive tests
+    Assert.assertEquals(2,
+        RegisterHandler.getDiaryRegister().getDiaryEntryCountByAuthor(testAuthor));
+    Assert.assertEquals(2, statistics.getLabelCount(RecipeLabel.KETO));
+    Assert.assertEquals(2, statistics.getMonthCount(YearMonth.now()));
+
+    RegisterHandler.getDiaryRegister().removeDiaryEntry(stew.getId());
+    Assert.assertEquals(1, statistics.getEntryCount());
+    Assert.assertEquals(1, statistics.getLabelCount(RecipeLabel.KETO));
+
+    // Negative tests
+    RegisterHandler.getDiaryRegister().removeDiaryEntry(soup.getId());
+    Assert.assertNull(RegisterHandler.getDiaryRegister().getAuthorStatistics(testAuthor));
+    Assert.assertEquals(0,
+        RegisterHandler.getDiaryRegister().getDiaryEntryCountByAuthor(testAuthor));
+  }
+
+  /**
+   * Tests that a {@link DiarySnapshot} keeps seeing the register as it was when it was opened,
+   * while entries are added, edited and removed, and that a new snapshot sees the changes.
+   */
+  @Test
+  public void snapshotReads() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author testAuthor = new Author("snapshotuser", "Snapshot", "User");
+    DiaryEntry bread = new DiaryEntry("Bread", "1x Flour", testAuthor);
+    DiaryEntry rolls = new DiaryEntry("Rolls", "1x Yeast", testAuthor);
+    register.addDiaryEntry(bread);
+    register.addDiaryEntry(rolls);
+
+    try (DiarySnapshot snapshot = register.openSnapshot()) {
+      register.editContentLine(bread, 1, "2x Flour");
+      register.addRecipeLabel(bread, RecipeLabel.VEGAN);
+      register.removeDiaryEntry(rolls.getId());
+      register.addDiaryEntry(new DiaryEntry("Buns", "1x Butter", testAuthor));
+
+      List<DiaryEntry> diaryEntries = snapshot.getDiaryEntriesByAuthor(testAuthor);
+      DiaryEntry oldBread = diaryEntries.stream()
+          .filter(it -> it.getId().equals(bread.getId())).findFirst().orElseThrow();
+
+      // Positive tests
+      Assert.assertEquals(2, diaryEntries.size());
+      Assert.assertEquals("1x Flour", oldBread.getContent());
+      Assert.assertTrue(oldBread.getRecipeLabels().isEmpty());
+      Assert.assertTrue(diaryEntries.stream().anyMatch(it -> it.getId().equals(rolls.getId())));
+
+      // Negative tests
+      Assert.assertThrows(UnsupportedOperationException.class,
+          () -> oldBread.addRecipeLabel(RecipeLabel.KETO));
+    }
+
+    try (DiarySnapshot snapshot = register.openSnapshot()) {
+      List<DiaryEntry> diaryEntries = snapshot.getDiaryEntriesByAuthor(testAuthor);
+
+      // Positive tests
+      Assert.assertEquals(2, diaryEntries.size());
+      Assert.assertTrue(diaryEntries.stream().anyMatch(it -> it.getContent().equals("2x Flour")
+          && it.getRecipeLabels().contains(RecipeLabel.VEGAN)));
+
+      // Negative tests
+      Assert.assertTrue(diaryEntries.stream().noneMatch(it -> it.getId().equals(rolls.getId())));
+    }
+
+    removeDiaryEntriesOf(testAuthor);
+  }
+
+  /**
+   * Tests that the {@link FootprintReport} of a register counts its entries and versions,
+   * and detects entries holding a copy of their {@link Author} instead of a shared one.
+   */
+  @Test
+  public void footprintReport() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author testAuthor = new Author("footprintuser", "Footprint", "User");
+    List<DiaryEntry> diaryEntries = List.of(
+        new DiaryEntry("Salad", "1x Lettuce", testAuthor),
+        new DiaryEntry("Wrap", "1x Tortilla", testAuthor));
+    FootprintReport interned = FootprintReport.of(diaryEntries);
+    FootprintReport copied = FootprintReport.of(List.of(diaryEntries.getFirst(),
+        new DiaryEntry("Pita", "1x Pita", new Author("footprintuser", "Footprint", "User"))));
+    FootprintReport before = register.getFootprintReport();
+    register.addDiaryEntries(diaryEntries);
+    FootprintReport after = register.getFootprintReport();
+
+    // Positive tests
+    Assert.assertEquals(2, interned.entryCount());
+    Assert.assertEquals(2, interned.versionCount());
+    Assert.assertEquals(2 * (FootprintReport.ENTRY_BYTES + FootprintReport.ID_BYTES
+        + FootprintReport.VERSION_BYTES), interned.estimatedBytes());
+    Assert.assertTrue(interned.areAuthorsInterned());
+    Assert.assertEquals(before.entryCount() + 2, after.entryCount());
+    Assert.assertEquals(before.versionCount() + 2, after.versionCount());
+
+    // Negative tests
+    Assert.assertFalse(copied.areAuthorsInterned());
+    Assert.assertEquals(0, FootprintReport.of(List.of()).estimatedBytesPerEntry(), 0);
+
+    removeDiaryEntriesOf(testAuthor);
+  }
+
+  /**
+   * Edits a registered entry many times, and verifies that every revision of its
+   * {@link EditHistory} can be read back, and that two revisions can be compared.
+   */
+  @Test
+  public void editHistory() {
+    Author testAuthor = new Author("historyuser", "History", "User");
+    DiaryRegister diaryRegister = RegisterHandler.getDiaryRegister();
+    DiaryEntry diaryEntry = new DiaryEntry("Chili", "1x Beans\n1x Tomatoes\n1x Chili\n",
+        testAuthor);
+    diaryRegister.addDiaryEntry(diaryEntry);
+    List<String> contents = new ArrayList<>(List.of(diaryEntry.getContent()));
+    for (int i = 1; i <= 40; i++) {
+      diaryRegister.editContentLine(diaryEntry, i % 3 + 1, i + "x Chili");
+      contents.add(diaryEntry.getContent());
+    }
+    EditHistory editHistory = diaryRegister.getEditHistory(diaryEntry);
+
+    // Positive tests
+    Assert.assertEquals(41, editHistory.getRevisionCount());
+    for (int revision = 0; revision < contents.size(); revision++) {
+      Assert.assertEquals(contents.get(revision), editHistory.getContent(revision));
+    }
+    Assert.assertEquals(List.of(new EditHistory.LineChange(2, "1x Tomatoes", "1x Chili"),
+        new EditHistory.LineChange(3, "1x Chili", "2x Chili")), editHistory.diff(0, 2));
+    Assert.assertEquals(new EditHistory.LineChange(1, "39x Chili", "36x Chili"),
+        editHistory.diff(40, 37).getFirst());
+    Assert.assertEquals(1, diaryRegister.getEditHistory(
+        new DiaryEntry("Toast", "1x Bread", testAuthor)).getRevisionCount());
+
+    // Negative tests
+    Assert.assertTrue(editHistory.diff(7, 7).isEmpty());
+    Assert.assertThrows(IndexOutOfBoundsException.class, () -> editHistory.getContent(41));
+    diaryRegister.removeDiaryEntry(diaryEntry.getId());
+    Assert.assertEquals(1, diaryRegister.getEditHistory(diaryEntry).getRevisionCount());
+  }
+
+  /**
+   * Walks through the results of several queries page by page, and verifies that the pages
+   * follow each other in date order, and that a removal in between pages skips nothing.
+   */
+  @Test
+  public void paginatedQueries() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author author = new Author("pageuser", "Page", "User");
+    LocalDate start = LocalDate.of(2001, 1, 1);
+    List<DiaryEntry> diaryEntries = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      DiaryEntry diaryEntry = new DiaryEntry(UUID.randomUUID(), "Paged stew " + i,
+          "1x Paprika", author, start.plusDays(i % 7));
+      diaryEntry.addRecipeLabel(RecipeLabel.KETO);
+      register.addDiaryEntry(diaryEntry);
+      diaryEntries.add(diaryEntry);
+    }
+    List<DiaryEntry> expected = diaryEntries.stream()
+        .sorted(Comparator.comparing(DiaryEntry::getDate).thenComparing(DiaryEntry::getId))
+        .toList();
+
+    List<DiaryEntry> byAuthor = new ArrayList<>();
+    DiaryPage page = register.getDiaryEntriesByAuthors(List.of(author), 10, null);
+    int pageCount = 1;
+    byAuthor.addAll(page.entries());
+    while (page.hasNextPage()) {
+      page = register.getDiaryEntriesByAuthors(List.of(author), 10, page.nextPageToken());
+      byAuthor.addAll(page.entries());
+      pageCount++;
+    }
+
+    DiaryPage firstPeriodPage =
+        register.getDiaryEntriesBetweenPeriod(start, start.plusDays(6), 10, null);
+    register.removeDiaryEntry(expected.get(12).getId());
+    DiaryPage secondPeriodPage = register.getDiaryEntriesBetweenPeriod(start, start.plusDays(6),
+        10, firstPeriodPage.nextPageToken());
+    DiaryPage keywordPage = register.getDiaryEntriesByKeywords("paged", 4, null);
+    DiaryPage promptPage = register.getDiaryEntriesByPrompt("paprika", 30, null);
+
+    // Positive tests
+    Assert.assertEquals(expected, byAuthor);
+    Assert.assertEquals(3, pageCount);
+    Assert.assertEquals(5, page.entries().size());
+    Assert.assertEquals(expected.subList(0, 10), firstPeriodPage.entries());
+    Assert.assertEquals(expected.get(10), secondPeriodPage.entries().getFirst());
+    Assert.assertEquals(expected.get(13), secondPeriodPage.entries().get(2));
+    Assert.assertEquals(expected.subList(0, 4), keywordPage.entries());
+    Assert.assertEquals(24, promptPage.entries().size());
+    Assert.assertTrue(register.getDiaryEntriesByLabels(List.of(RecipeLabel.KETO), List.of(),
+        List.of(), 100, null).entries().containsAll(expected.subList(13, 25)));
+
+    // Negative tests
+    Assert.assertNull(page.nextPageToken());
+    Assert.assertFalse(promptPage.hasNextPage());
+    Assert.assertFalse(secondPeriodPage.entries().contains(expected.get(12)));
+    Assert.assertTrue(register.getDiaryEntriesByTitle("no such stew", 10, null)
+        .entries().isEmpty());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> register.getDiaryEntriesByTitle("Paged stew 1", 0, null));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> register.getDiaryEntriesByTitle("Paged stew 1", 10, "not a token"));
+
+    removeDiaryEntriesOf(author);
+  }
+
+  /**
+   * Combines several criteria into a single query, and verifies that the planner reads the
+   * most selective index, and that every criterion is applied to the results.
+   */
+  @Test
+  public void combinedQueries() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author author = new Author("queryuser", "Query", "User");
+    LocalDate start = LocalDate.of(2002, 1, 1);
+    List<DiaryEntry> diaryEntries = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      DiaryEntry diaryEntry = new DiaryEntry(UUID.randomUUID(), "Query soup " + i,
+          i % 3 == 0 ? "1x Garlic" : "1x Onion", author, start.plusDays(i));
+      if (i % 2 == 0) {
+        diaryEntry.addRecipeLabel(RecipeLabel.VEGAN);
+      }
+      register.addDiaryEntry(diaryEntry);
+      diaryEntries.add(diaryEntry);
+    }
+    DiaryQuery byAuthor = DiaryQuery.all().withAuthors(List.of(author));
+    DiaryQuery combined = byAuthor
+        .withLabels(List.of(RecipeLabel.VEGAN), List.of(), List.of())
+        .withPeriod(start, start.plusDays(19))
+        .withPrompt("GARLIC");
+    DiaryPage combinedPage = register.query(combined, 10, null);
+
+    DiaryQuery vegan = byAuthor.withLabels(List.of(RecipeLabel.VEGAN), List.of(), List.of());
+    DiaryPage firstPage = register.query(vegan, 10, null);
+    DiaryPage secondPage = register.query(vegan, 10, firstPage.nextPageToken());
+    QueryPlan titlePlan = register.planQuery(byAuthor.withTitle("query soup 7"));
+    QueryPlan periodPlan = register.planQuery(byAuthor.withPeriod(start, start));
+
+    // Positive tests
+    Assert.assertEquals(List.of(diaryEntries.get(0), diaryEntries.get(6), diaryEntries.get(12),
+        diaryEntries.get(18)), combinedPage.entries());
+    Assert.assertEquals(10, firstPage.entries().size());
+    Assert.assertEquals(5, secondPage.entries().size());
+    Assert.assertEquals(diaryEntries.get(20), secondPage.entries().getFirst());
+    Assert.assertEquals(diaryEntries.get(28), secondPage.entries().getLast());
+    Assert.assertEquals(Criterion.TITLE, titlePlan.driver());
+    Assert.assertEquals(1, titlePlan.estimatedCandidates());
+    Assert.assertEquals(List.of(Criterion.AUTHOR), titlePlan.filters());
+    Assert.assertEquals(Criterion.PERIOD, periodPlan.driver());
+    Assert.assertTrue(register.planQuery(DiaryQuery.all()).isFullScan());
+    Assert.assertEquals(List.of(diaryEntries.get(7)),
+        register.query(byAuthor.withKeywords("Soup 7"), 10, null).entries());
+    Assert.assertEquals(DiaryQuery.all().withTitle("Query Soup 1"),
+        DiaryQuery.all().withTitle("query soup 1"));
+
+    // Negative tests
+    Assert.assertFalse(combinedPage.hasNextPage());
+    Assert.assertFalse(secondPage.hasNextPage());
+    Assert.assertTrue(register.query(combined.withTitle("query soup 1"), 10, null)
+        .entries().isEmpty());
+    Assert.assertTrue(register.query(byAuthor.withPeriod(start, start.minusDays(1)), 10, null)
+        .entries().isEmpty());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> DiaryQuery.all().withAuthors(List.of()));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> DiaryQuery.all().withKeywords("!!"));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> DiaryQuery.all().withPeriod(start, null));
+
+    removeDiaryEntriesOf(author);
+  }
+
+  /**
+   * Repeats queries, and verifies that their pages are served from the cache until a change
+   * they depend on is made, and that the cache evicts pages once it is full.
+   */
+  @Test
+  public void cachedQueries() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author author = new Author("cacheuser", "Cache", "User");
+    DiaryEntry diaryEntry = new DiaryEntry(UUID.randomUUID(), "Cached pie", "1x Apple", author,
+        LocalDate.of(2003, 1, 1));
+    register.addDiaryEntry(diaryEntry);
+    DiaryQuery byTitle = DiaryQuery.all().withTitle("cached pie");
+    DiaryQuery byLabel = DiaryQuery.all().withAuthors(List.of(author))
+        .withLabels(List.of(RecipeLabel.HALAL), List.of(), List.of());
+    DiaryQuery byPrompt = DiaryQuery.all().withAuthors(List.of(author)).withPrompt("pear");
+
+    QueryCacheStatistics before = register.getQueryCacheStatistics();
+    DiaryPage titlePage = register.query(byTitle, 10, null);
+    DiaryPage cachedTitlePage = register.query(byTitle, 10, null);
+    register.query(byLabel, 10, null);
+    register.query(byPrompt, 10, null);
+    register.addRecipeLabel(diaryEntry, RecipeLabel.HALAL);
+    register.editContentLine(diaryEntry, 1, "1x Pear");
+    DiaryPage titlePageAfterEdits = register.query(byTitle, 10, null);
+    DiaryPage labelPage = register.query(byLabel, 10, null);
+    DiaryPage promptPage = register.query(byPrompt, 10, null);
+    QueryCacheStatistics afterEdits = register.getQueryCacheStatistics();
+    register.removeDiaryEntry(diaryEntry.getId());
+    DiaryPage titlePageAfterRemoval = register.query(byTitle, 10, null);
+    for (int pageSize = 1; pageSize <= afterEdits.capacity(); pageSize++) {
+      register.query(byTitle, pageSize, null);
+    }
+    QueryCacheStatistics after = register.getQueryCacheStatistics();
+
+    // Positive tests
+    Assert.assertTrue(titlePage == cachedTitlePage);
+    Assert.assertTrue(titlePage == titlePageAfterEdits);
+    Assert.assertEquals(List.of(diaryEntry), labelPage.entries());
+    Assert.assertEquals(List.of(diaryEntry), promptPage.entries());
+    Assert.assertEquals(before.hitCount() + 2, afterEdits.hitCount());
+    Assert.assertEquals(before.missCount() + 5, afterEdits.missCount());
+    Assert.assertEquals(before.invalidationCount() + 2, afterEdits.invalidationCount());
+    Assert.assertTrue(after.evictionCount() > afterEdits.evictionCount());
+    Assert.assertEquals(after.capacity(), after.size());
+
+    // Negative tests
+    Assert.assertTrue(titlePageAfterRemoval.entries().isEmpty());
+    Assert.assertTrue(after.hitRate() < 1);
+    Assert.assertThrows(IllegalArgumentException.class, () -> register.query(byTitle, 0, null));
+  }
+
+  /**
+   * Ranks entries by relevance, and verifies that words in the title count more than words in
+   * the content, that shorter entries rank higher, and that edits are reflected in the ranking.
+   */
+  @Test
+  public void relevanceSearch() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author author = new Author("rankuser", "Rank", "User");
+    DiaryEntry inTitle = new DiaryEntry(UUID.randomUUID(), "Zafferano risotto",
+        "1x Rice\n1x Zafferano", author, LocalDate.of(2004, 1, 1));
+    DiaryEntry inContent = new DiaryEntry(UUID.randomUUID(), "Plain rice",
+        "1x Rice\n1x Zafferano", author, LocalDate.of(2004, 1, 2));
+    DiaryEntry inLongContent = new DiaryEntry(UUID.randomUUID(), "Paella",
+        "1x Rice\n1x Zafferano\n2x Prawns\n1x Chorizo\n1x Pepper\n1x Lemon, sliced", author,
+        LocalDate.of(2004, 1, 3));
+    DiaryEntry unrelated = new DiaryEntry(UUID.randomUUID(), "Tomato soup", "1x Tomato", author,
+        LocalDate.of(2004, 1, 4));
+    register.addDiaryEntries(List.of(inTitle, inContent, inLongContent, unrelated));
+
+    List<DiaryEntry> ranked = register.getDiaryEntriesByRelevance("zafferano", 10);
+    List<DiaryEntry> best = register.getDiaryEntriesByRelevance("ZAFFERANO", 2);
+    register.editContentLine(inContent, 2, "1x Saffron");
+    List<DiaryEntry> rankedAfterEdit = register.getDiaryEntriesByRelevance("zafferano", 10);
+    List<DiaryEntry> rankedByAnyWord = register.getDiaryEntriesByRelevance("zafferano tomato", 10);
+
+    // Positive tests
+    Assert.assertEquals(List.of(inTitle, inContent, inLongContent), ranked);
+    Assert.assertEquals(List.of(inTitle, inContent), best);
+    Assert.assertEquals(List.of(inTitle, inLongContent), rankedAfterEdit);
+    Assert.assertTrue(rankedByAnyWord.contains(unrelated));
+
+    // Negative tests
+    Assert.assertFalse(rankedAfterEdit.contains(inContent));
+    Assert.assertTrue(register.getDiaryEntriesByRelevance("no such words", 10).isEmpty());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> register.getDiaryEntriesByRelevance("zafferano", 0));
+
+    removeDiaryEntriesOf(author);
+  }
+
+  /**
+   * Suggests titles close to a misspelled title, and verifies that they are ordered by their
+   * distance, and that a title is only suggested while an entry still carries it.
+   */
+  @Test
+  public void similarTitles() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    Author author = new Author("fuzzyuser", "Fuzzy", "User");
+    Author otherAuthor = new Author("otherfuzzyuser", "Other", "Fuzzy");
+    DiaryEntry romana = new DiaryEntry(UUID.randomUUID(), "Gnocchi alla romana", "1x Semolina",
+        author, LocalDate.of(2005, 1, 1));
+    DiaryEntry otherRomana = new DiaryEntry(UUID.randomUUID(), "Gnocchi alla Romana",
+        "1x Semolina", otherAuthor, LocalDate.of(2005, 1, 2));
+    DiaryEntry romano = new DiaryEntry(UUID.randomUUID(), "Gnocchi al romano", "1x Pecorino",
+        author, LocalDate.of(2005, 1, 3));
+    DiaryEntry sorrentina = new DiaryEntry(UUID.randomUUID(), "Gnocchi alla sorrentina",
+        "1x Tomato", author, LocalDate.of(2005, 1, 4));
+    register.addDiaryEntries(List.of(romana, otherRomana, romano, sorrentina));
+
+    List<String> suggestions = register.getSimilarTitles("gnochi alla romana", 4, 10);
+    List<String> closest = register.getSimilarTitles("GNOCCHI ALLA SORENTINA", 2, 1);
+    List<String> ofAuthor = register.getSimilarTitles("gnochi alla romana", author, 4, 10);
+    List<String> ofOtherAuthor =
+        register.getSimilarTitles("gnochi alla romana", otherAuthor, 4, 10);
+    register.removeDiaryEntry(otherRomana.getId());
+    List<String> afterOneRemoved = register.getSimilarTitles("gnochi alla romana", 1, 10);
+    register.removeDiaryEntry(romana.getId());
+    List<String> afterBothRemoved = register.getSimilarTitles("gnochi alla romana", 1, 10);
+
+    // Positive tests
+    Assert.assertEquals(2, suggestions.size());
+    Assert.assertEquals("gnocchi alla romana", suggestions.getFirst().toLowerCase());
+    Assert.assertEquals(romano.getTitle(), suggestions.get(1));
+    Assert.assertEquals(List.of(sorrentina.getTitle()), closest);
+    Assert.assertEquals(1, afterOneRemoved.size());
+    Assert.assertEquals(List.of(romana.getTitle(), romano.getTitle()), ofAuthor);
+    Assert.assertEquals(List.of(otherRomana.getTitle()), ofOtherAuthor);
+    Assert.assertEquals(List.of(romano.getTitle()),
+        register.getSimilarTitles("gnochi alla romana", author, 4, 1));
+    Assert.assertEquals(List.of(sorrentina.getTitle()),
+        register.getSimilarTitles("Gnocchi alla sorrentina", 0, 10));
+
+    // Negative tests
+    Assert.assertTrue(afterBothRemoved.isEmpty());
+    Assert.assertTrue(register.getSimilarTitles("Tiramisu", 2, 10).isEmpty());
+    Assert.assertTrue(
+        register.getSimilarTitles("gnochi alla romana", otherAuthor, 4, 10).isEmpty());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> register.getSimilarTitles("Gnocchi", -1, 10));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> register.getSimilarTitles("Gnocchi", 2, 0));
+
+    removeDiaryEntriesOf(author, otherAuthor);
+  }
+
+  /**
+   * Removes every {@link DiaryEntry} of the given authors from the register,
+   * so that a test leaves the shared register as it found it.
+   *
+   * @param authors the authors of the entries to remove.
+   */
+  private static void removeDiaryEntriesOf(Author... authors) {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    for (Author author : authors) {
+      register.getDiaryEntriesByAuthor(author)
+          .forEach(diaryEntry -> register.removeDiaryEntry(diaryEntry.getId()));
+    }
+  }
+
   /**
    * Start the register test.
    */
   public void startRegisterTest() {
     this.addAuthorsToRegister();
     this.addDiaryEntryToRegister();
+    this.indexedLookups();
+    this.rejectDuplicateTitleForAuthor();
+    this.labelCombinationQueries();
+    this.periodQueries();
+    this.keywordSearch();
+    this.promptSearch();
+    this.authorFullNameLookup();
+    this.authorStatistics();
+    this.snapshotReads();
+    this.footprintReport();
+    this.editHistory();
+    this.paginatedQueries();
+    this.combinedQueries();
+    this.cachedQueries();
+    this.relevanceSearch();
+    this.similarTitles();
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package test.java.edu.ntnu.iir.bidata.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.DiarySnapshot;
+import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+import main.java.edu.ntnu.iir.bidata.transfer.ImportReport;
+import main.java.edu.ntnu.iir.bidata.transfer.RecipeExporter;
+import main.java.edu.ntnu.iir.bidata.transfer.RecipeImporter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RecipeExporter} class.
+ *
+ * <p>This class exports the register to temporary files in every {@link FileFormat}, and
+ * verifies that the entries are written in date order, that compressed files are compressed,
+ * and that exported files can be read back by the {@link RecipeImporter}.
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class RecipeExporterTest {
+
+  private Author author;
+
+  /**
+   * Registers the author and the entries the exports are checked against, dated before any
+   * other entry, so that they are the first ones written.
+   */
+  @Before
+  public void init() {
+    this.author = new Author("exportchef", "Export", "Chef");
+    RegisterHandler.getAuthorRegister().addAuthor(this.author);
+    DiaryEntry fish = new DiaryEntry(UUID.randomUUID(), "Fish, \"fried\"",
+        "1x Cod\n1x Oil, hot", this.author, LocalDate.of(1999, 1, 1));
+    fish.addRecipeLabel(RecipeLabel.GLUTENFREE);
+    DiaryEntry chips = new DiaryEntry(UUID.randomUUID(), "Chips", "1x Potato", this.author,
+        LocalDate.of(1999, 1, 2));
+    RegisterHandler.getDiaryRegister().addDiaryEntries(List.of(chips, fish));
+  }
+
+  /**
+   * Removes the author and the entries registered by {@link #init()}.
+   */
+  @After
+  public void cleanUp() {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    register.getDiaryEntriesByAuthor(this.author)
+        .forEach(diaryEntry -> register.removeDiaryEntry(diaryEntry.getId()));
+    RegisterHandler.getAuthorRegister().removeAuthor(this.author.getUsername());
+  }
+
+  /**
+   * Verifies that a snapshot streams the same entries in date order
+   * as sorting every entry of the register.
+   */
+  @Test
+  public void streamSortedByDate() {
+    DiarySnapshot snapshot = RegisterHandler.getDiaryRegister().openSnapshot();
+    List<UUID> streamed = snapshot.streamDiaryEntriesSortedByDate()
+        .map(DiaryEntry::getId).toList();
+    List<UUID> sorted = snapshot.getDiaryEntries().stream()
+        .sorted(Comparator.comparing(DiaryEntry::getDate).thenComparing(DiaryEntry::getId))
+        .map(DiaryEntry::getId).toList();
+    snapshot.close();
+
+    // Positive tests
+    Assert.assertFalse(streamed.isEmpty());
+    Assert.assertEquals(sorted, streamed);
+
+    // Negative tests
+    Assert.assertThrows(IllegalStateException.class, snapshot::streamDiaryEntriesSortedByDate);
+  }
+
+  /**
+   * Exports the register to a gzip-compressed CSV file, and verifies that values holding
+   * commas, quotes and line breaks are quoted, and that the file imports as the same entries.
+   *
+   * @throws IOException if a file cannot be written or read.
+   */
+  @Test
+  public void exportCompressedCsv() throws IOException {
+    int registered = RegisterHandler.getDiaryRegister().getDiaryEntries().size();
+
+    Path directory = Files.createTempDirectory("recipe-export");
+    Path file = directory.resolve("recipes.csv.gz");
+    long count = new RecipeExporter(file, FileFormat.CSV).run();
+    List<String> lines;
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+      lines = in.lines().limit(3).toList();
+    }
+    ImportReport report = new RecipeImporter(file, FileFormat.CSV).run((rows, i, r) -> {
+    });
+
+    // Positive tests
+    Assert.assertEquals(registered, count);
+    Assert.assertEquals("title,content,username,name,surname,date,labels", lines.get(0));
+    Assert.assertEquals("\"Fish, \"\"fried\"\"\",\"1x Cod", lines.get(1));
+    Assert.assertEquals("1x Oil, hot\",exportchef,Export,Chef,1999-01-01,glutenfree",
+        lines.get(2));
+    Assert.assertEquals(registered, report.rowCount());
+
+    // Negative tests
+    Assert.assertEquals(0, report.importedCount());
+    Assert.assertTrue(report.rejectedRows().stream()
+        .allMatch(it -> it.reason().startsWith("The author already has a recipe")));
+    Assert.assertFalse(Files.exists(directory.resolve("recipes.csv.gz.tmp")));
+    Files.delete(file);
+    Files.delete(directory);
+  }
+
+  /**
+   * Exports the register to a JSON Lines and a text file, and verifies the escaping
+   * and the order of the entries.
+   *
+   * @throws IOException if a file cannot be written or read.
+   */
+  @Test
+  public void exportJsonLinesAndText() throws IOException {
+    Path directory = Files.createTempDirectory("recipe-export");
+    Path jsonLines = directory.resolve("recipes.jsonl");
+    Path text = directory.resolve("recipes.txt");
+    Files.writeString(jsonLines, "stale");
+    long count = new RecipeExporter(jsonLines, FileFormat.JSON_LINES).run();
+    new RecipeExporter(text, FileFormat.TEXT).run();
+    List<String> lines = Files.readAllLines(jsonLines);
+    String first = lines.getFirst();
+
+    // Positive tests
+    Assert.assertEquals(count, lines.size());
+    Assert.assertTrue(first.startsWith("{\"title\":\"Fish, \\\"fried\\\"\""));
+    Assert.assertTrue(first.contains("\"content\":\"1x Cod\\n1x Oil, hot\""));
+    Assert.assertTrue(first.endsWith("\"date\":\"1999-01-01\",\"labels\":[\"glutenfree\"]}"));
+    Assert.assertTrue(lines.get(1).startsWith("{\"title\":\"Chips\""));
+    Assert.assertTrue(Files.readString(text).startsWith("Fish, \"fried\"\n"));
+
+    // Negative tests
+    Assert.assertFalse(lines.contains("stale"));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new RecipeImporter(text, FileFormat.TEXT));
+    Files.delete(jsonLines);
+    Files.delete(text);
+    Files.delete(directory);
+  }
+
+  /**
+   * Starts the test.
+   *
+   * @throws IOException if a file cannot be written or read.
+   */
+  public void startRecipeExporterTest() throws IOException {
+    this.init();
+    this.streamSortedByDate();
+    this.cleanUp();
+    this.init();
+    this.exportCompressedCsv();
+    this.cleanUp();
+    this.init();
+    this.exportJsonLinesAndText();
+    this.cleanUp();
+  }
+
+}
@@ -0,0 +1,170 @@
+package test.java.edu.ntnu.iir.bidata.transfer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import main.java.edu.ntnu.iir.bidata.enumerations.FileFormat;
+import main.java.edu.ntnu.iir.bidata.enumerations.RecipeLabel;
+import main.java.edu.ntnu.iir.bidata.models.Author;
+import main.java.edu.ntnu.iir.bidata.models.DiaryEntry;
+import main.java.edu.ntnu.iir.bidata.register.DiaryRegister;
+import main.java.edu.ntnu.iir.bidata.register.RegisterHandler;
+import main.java.edu.ntnu.iir.bidata.transfer.ImportReport;
+import main.java.edu.ntnu.iir.bidata.transfer.RecipeImporter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RecipeImporter} class.
+ *
+ * <p>This class writes small recipe files in both {@link FileFormat}s to temporary files,
+ * imports them, and verifies that valid rows are added to the register while invalid rows
+ * are rejected with the line they start at.
+ *
+ * @author Kevin Holswilder
+ * @since 2026/10/17
+ */
+
+public class RecipeImporterTest {
+
+  /**
+   * Imports a JSON Lines file with valid and invalid rows,
+   * and verifies the report and the imported entries.
+   *
+   * @throws IOException if the file cannot be written or read.
+   */
+  @Test
+  public void importJsonLines() throws IOException {
+    Path file = Files.createTempFile("recipes", ".jsonl");
+    Files.writeString(file, String.join("\n",
+        "{\"title\": \"Pesto\", \"content\": \"1x Basil\\n1x Garlic\", \"username\": \"jsonchef\","
+            + " \"name\": \"Jason\", \"surname\": \"Chef\", \"date\": \"2025-05-01\","
+            + " \"labels\": [\"Vegetarian\"]}",
+        "",
+        "{\"title\": \"Pesto\", \"content\": \"1x Spinach\", \"username\": \"JSONCHEF\"}",
+        "{\"content\": \"1x Nothing\", \"username\": \"jsonchef\"}",
+        "{\"title\": \"Stew\", \"content\": \"1x Beef\", \"username\": \"jsonchef\","
+            + " \"labels\": [\"Spicy food\"]}",
+        "{\"title\": \"Soup\", \"content\": \"1x Water\", \"username\": \"jsonnewbie\"}",
+        "{\"title\": \"Broken\", \"content\": \"1x Oops",
+        "{\"title\": \"Ragu\", \"content\": \"1x Tomato\", \"username\": \"jsonchef\"}"));
+    List<Long> progress = new ArrayList<>();
+    ImportReport report = new RecipeImporter(file, FileFormat.JSON_LINES, 2)
+        .run((rows, imported, rejected) -> progress.add(rows));
+    Files.delete(file);
+
+    Author author = RegisterHandler.getAuthorRegister().getAuthorByUsername("jsonchef");
+    DiaryEntry pesto =
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Pesto", author);
+    List<Long> rejectedLines = report.rejectedRows().stream()
+        .map(ImportReport.RejectedRow::lineNumber).toList();
+
+    // Positive tests
+    Assert.assertEquals(7, report.rowCount());
+    Assert.assertEquals(2, report.importedCount());
+    Assert.assertEquals(List.of(3L, 4L, 5L, 6L, 7L), rejectedLines);
+    Assert.assertEquals(List.of(7L), progress);
+    Assert.assertNotNull(author);
+    Assert.assertEquals("1x Basil\n1x Garlic", pesto.getContent());
+    Assert.assertEquals(LocalDate.of(2025, 5, 1), pesto.getDate());
+    Assert.assertTrue(pesto.getRecipeLabels().contains(RecipeLabel.VEGETARIAN));
+    Assert.assertNotNull(
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Ragu", author));
+
+    // Negative tests
+    Assert.assertNull(RegisterHandler.getAuthorRegister().getAuthorByUsername("jsonnewbie"));
+    Assert.assertNull(
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Stew", author));
+    Assert.assertTrue(report.rejectedRows().getFirst().reason().contains("Pesto"));
+
+    removeDiaryEntriesOf(author);
+    RegisterHandler.getAuthorRegister().removeAuthor(author.getUsername());
+  }
+
+  /**
+   * Imports a CSV file with quoted fields spanning several lines,
+   * and verifies that every row is read as a whole and starts at the right line.
+   *
+   * @throws IOException if the file cannot be written or read.
+   */
+  @Test
+  public void importCsv() throws IOException {
+    Path file = Files.createTempFile("recipes", ".csv");
+    Files.writeString(file, String.join("\n",
+        "username,title,content,name,surname,labels",
+        "csvchef,Lasagna,\"1x Pasta",
+        "1x \"\"Fresh\"\" sauce\",Cecilie,Chef,Vegetarian;Vegan",
+        "csvchef,\"Chili, hot\",1x Bean,,,Spicy",
+        "csvchef,,1x Nothing,,,",
+        "csvchef,Pancakes,2x Egg,,,"));
+    ImportReport report = new RecipeImporter(file, FileFormat.CSV).run((rows, imported, r) -> {
+    });
+    Files.delete(file);
+
+    Author author = RegisterHandler.getAuthorRegister().getAuthorByUsername("csvchef");
+    DiaryEntry lasagna =
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Lasagna", author);
+
+    // Positive tests
+    Assert.assertEquals(4, report.rowCount());
+    Assert.assertEquals(2, report.importedCount());
+    Assert.assertEquals("1x Pasta\n1x \"Fresh\" sauce", lasagna.getContent());
+    Assert.assertEquals(2, lasagna.getRecipeLabels().size());
+    Assert.assertEquals(4, report.rejectedRows().getFirst().lineNumber());
+    Assert.assertEquals(5, report.rejectedRows().getLast().lineNumber());
+    Assert.assertNotNull(
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Pancakes", author));
+
+    // Negative tests
+    Assert.assertNull(
+        RegisterHandler.getDiaryRegister().getDiaryEntryByTitleAndAuthor("Chili, hot", author));
+    Assert.assertFalse(report.rejectedRows().getFirst().reason().isEmpty());
+
+    removeDiaryEntriesOf(author);
+    RegisterHandler.getAuthorRegister().removeAuthor(author.getUsername());
+  }
+
+  /**
+   * Verifies that a CSV file without a required column is not imported at all.
+   *
+   * @throws IOException if the file cannot be written.
+   */
+  @Test
+  public void importCsvWithoutTitleColumn() throws IOException {
+    Path file = Files.createTempFile("recipes", ".csv");
+    Files.writeString(file, "username,content\ncsvchef,1x Salt\n");
+
+    // Negative tests
+    Assert.assertThrows(IOException.class,
+        () -> new RecipeImporter(file, FileFormat.CSV).run((rows, imported, rejected) -> {
+        }));
+    Files.delete(file);
+  }
+
+  /**
+   * Removes every {@link DiaryEntry} of the given author from the register,
+   * so that a test leaves the shared register as it found it.
+   *
+   * @param author the author of the entries to remove.
+   */
+  private static void removeDiaryEntriesOf(Author author) {
+    DiaryRegister register = RegisterHandler.getDiaryRegister();
+    register.getDiaryEntriesByAuthor(author)
+        .forEach(diaryEntry -> register.removeDiaryEntry(diaryEntry.getId()));
+  }
+
+  /**
+   * Starts the test.
+   *
+   * @throws IOException if a file cannot be written or read.
+   */
+  public void startRecipeImporterTest() throws IOException {
+    this.importJsonLines();
+    this.importCsv();
+    this.importCsvWithoutTitleColumn();
+  }
+
+}